@@ -3,13 +3,21 @@ import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 
 import controller.ExtendedImageProcessorController;
 import controller.GUIImageProcessorController;
 import controller.ImageProcessorController;
 import model.BetterImageProcessor;
+import model.Evaluation;
 import model.HistogramImageProcessor;
 import model.HistogramImageProcessorModel;
+import model.LinearLightImageProcessor;
+import model.MappedImageStore;
+import model.ProcessorOptions;
+import model.RowBands;
+import model.SpillingImageStore;
+import model.StorageLayout;
 import view.ImageProcessorGUI;
 import view.ImageProcessorGUIView;
 import view.ImageProcessorTextView;
@@ -23,7 +31,14 @@ public class ImageProcessor {
   /**
    * Main method which builds a model and view and instantiates the controller with them.
    *
-   * @param args Arguments from the command line, currently unused
+   * @param args Arguments from the command line, -text or -file followed by the instruction file,
+   *             optionally followed by -memory and the number of megabytes images may take in
+   *             memory before the least recently used ones are spilled to disk, or by -workspace
+   *             and a directory to keep every image in as a memory-mapped file, so that a later
+   *             run on the same directory starts with the images left there, by -lazy to only
+   *             compute the pixels of each image once they are needed, by -threads and the
+   *             number of threads to split the rows of large images between, or by -linear to
+   *             process images in linear light rather than in sRGB.
    */
   public static void main(String[] args) {
     ImageProcessorController controller;
@@ -32,7 +47,41 @@ public class ImageProcessor {
       ImageProcessorGUIView view = new ImageProcessorGUI();
       controller = new GUIImageProcessorController(model, view);
     } else {
-      BetterImageProcessor model = new BetterImageProcessor();
+      BetterImageProcessor model;
+      int optionArg = args[0].equals("-file") ? 2 : 1;
+      if (args.length == optionArg + 2 && args[optionArg].equals("-memory")) {
+        long budget;
+        try {
+          budget = Long.parseLong(args[optionArg + 1]) * 1024 * 1024;
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Invalid memory budget: " + args[optionArg + 1]);
+        }
+        model = new BetterImageProcessor(ProcessorOptions.DEFAULT,
+            new SpillingImageStore(budget, StorageLayout.PACKED));
+        args = Arrays.copyOf(args, optionArg);
+      } else if (args.length == optionArg + 2 && args[optionArg].equals("-workspace")) {
+        model = new BetterImageProcessor(ProcessorOptions.DEFAULT,
+            new MappedImageStore(Path.of(args[optionArg + 1])));
+        args = Arrays.copyOf(args, optionArg);
+      } else if (args.length == optionArg + 1 && args[optionArg].equals("-lazy")) {
+        model = new BetterImageProcessor(ProcessorOptions.DEFAULT.withEvaluation(Evaluation.LAZY));
+        args = Arrays.copyOf(args, optionArg);
+      } else if (args.length == optionArg + 2 && args[optionArg].equals("-threads")) {
+        int threads;
+        try {
+          threads = Integer.parseInt(args[optionArg + 1]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Invalid number of threads: " + args[optionArg + 1]);
+        }
+        model = new BetterImageProcessor(ProcessorOptions.DEFAULT.withRows(
+            new RowBands(threads, RowBands.DEFAULT_MINIMUM_PIXELS)));
+        args = Arrays.copyOf(args, optionArg);
+      } else if (args.length == optionArg + 1 && args[optionArg].equals("-linear")) {
+        model = new LinearLightImageProcessor();
+        args = Arrays.copyOf(args, optionArg);
+      } else {
+        model = new BetterImageProcessor();
+      }
       ImageProcessorView view = new ImageProcessorTextView(System.out);
       Readable input;
       if (args.length > 1 && args[0].equals("-file")) {
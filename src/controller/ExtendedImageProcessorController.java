@@ -3,6 +3,7 @@ package controller;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.InputMismatchException;
 
 import javax.imageio.ImageIO;
 
@@ -11,10 +12,13 @@ import view.ImageProcessorView;
 
 /**
  * To represent an ImageProcessorController with the additional supported operations of blur,
- * sharpen, and sepia as well as allowing saving png, jpg, and bmp images.
+ * sharpen, sepia, color matrices, expressions, and hue, saturation, and YCbCr adjustments as
+ * well as allowing saving png, jpg, and bmp images.
  */
 public class ExtendedImageProcessorController extends ImageProcessorControllerImpl {
 
+  private static final String OFFSETS_FLAG = "-offsets";
+
   private final BetterImageProcessorModel model;
 
   /**
@@ -65,6 +69,69 @@ public class ExtendedImageProcessorController extends ImageProcessorControllerIm
           this.view.renderMessage(iae.getMessage() + "\n");
         }
         break;
+      case "color-matrix":
+        double[][] matrix = new double[3][3];
+        for (int entry = 0; entry < 9; entry++) {
+          matrix[entry / 3][entry % 3] = this.getNextNumber();
+        }
+        double[] offsets = new double[3];
+        imageName = this.getNextOffsets(offsets);
+        newImageName = this.getNextString();
+        try {
+          this.model.colorMatrix(matrix, offsets, imageName, newImageName);
+          this.view.renderMessage("Color Matrix Operation Successful!\n");
+        } catch (IllegalArgumentException iae) {
+          this.view.renderMessage(iae.getMessage() + "\n");
+        }
+        break;
+      case "expr":
+        String expression = this.getNextExpression();
+        imageName = this.getNextString();
+        newImageName = this.getNextString();
+        try {
+          this.model.applyExpression(expression, imageName, newImageName);
+          this.view.renderMessage("Expression Operation Successful!\n");
+        } catch (IllegalArgumentException iae) {
+          this.view.renderMessage(iae.getMessage() + "\n");
+        }
+        break;
+      case "hue-rotate":
+        double degrees = this.getNextNumber();
+        imageName = this.getNextString();
+        newImageName = this.getNextString();
+        try {
+          this.model.rotateHue(degrees, imageName, newImageName);
+          this.view.renderMessage("Hue Rotate Operation Successful!\n");
+        } catch (IllegalArgumentException iae) {
+          this.view.renderMessage(iae.getMessage() + "\n");
+        }
+        break;
+      case "saturate":
+        double factor = this.getNextNumber();
+        imageName = this.getNextString();
+        newImageName = this.getNextString();
+        try {
+          this.model.saturate(factor, imageName, newImageName);
+          this.view.renderMessage("Saturate Operation Successful!\n");
+        } catch (IllegalArgumentException iae) {
+          this.view.renderMessage(iae.getMessage() + "\n");
+        }
+        break;
+      case "adjust-ycbcr":
+        double[] gains = new double[3];
+        for (int channel = 0; channel < 3; channel++) {
+          gains[channel] = this.getNextNumber();
+        }
+        double[] shifts = new double[3];
+        imageName = this.getNextOffsets(shifts);
+        newImageName = this.getNextString();
+        try {
+          this.model.adjustYCbCr(gains, shifts, imageName, newImageName);
+          this.view.renderMessage("YCbCr Adjust Operation Successful!\n");
+        } catch (IllegalArgumentException iae) {
+          this.view.renderMessage(iae.getMessage() + "\n");
+        }
+        break;
       default:
         return super.processCommand(command);
     }
@@ -72,7 +139,97 @@ public class ExtendedImageProcessorController extends ImageProcessorControllerIm
   }
 
   /**
-   * Save the given image at the given filepath.
+   * Check whether the given input is a number.
+   *
+   * @param input the input to check.
+   * @return true if the input can be read as a decimal number, false otherwise.
+   */
+  private static boolean isNumber(String input) {
+    try {
+      Double.parseDouble(input);
+      return true;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Get the next decimal number input.
+   *
+   * @return the next input as a number.
+   * @throws IllegalStateException  if there are no more inputs
+   * @throws InputMismatchException if the next input is not a number
+   */
+  private double getNextNumber() throws IllegalStateException, InputMismatchException {
+    String input = this.getNextString();
+    if (!isNumber(input)) {
+      throw new InputMismatchException(input);
+    }
+    return Double.parseDouble(input);
+  }
+
+  /**
+   * Get the optional offsets input, which is the flag {@value #OFFSETS_FLAG} followed by three
+   * numbers, and the input after them. The offsets are left unchanged if the flag is not given.
+   *
+   * @param offsets the three offsets to fill in if the flag is given.
+   * @return the next input after the optional offsets.
+   * @throws IllegalStateException  if there are no more inputs
+   * @throws InputMismatchException if the flag is not followed by three numbers
+   */
+  private String getNextOffsets(double[] offsets)
+      throws IllegalStateException, InputMismatchException {
+    String input = this.getNextString();
+    if (!input.equals(OFFSETS_FLAG)) {
+      return input;
+    }
+    for (int channel = 0; channel < offsets.length; channel++) {
+      offsets[channel] = this.getNextNumber();
+    }
+    return this.getNextString();
+  }
+
+  /**
+   * Get the next expression input, which is either one input without spaces or every input from
+   * one starting with a double quote to one ending with a double quote, joined by single spaces
+   * and without the quotes.
+   *
+   * @return the next expression.
+   * @throws IllegalStateException if there are no more inputs
+   */
+  private String getNextExpression() throws IllegalStateException {
+    String input = this.getNextString();
+    if (!input.startsWith("\"")) {
+      return input;
+    }
+    StringBuilder expression = new StringBuilder(input.substring(1));
+    while (expression.length() == 0 || expression.charAt(expression.length() - 1) != '"') {
+      expression.append(' ').append(this.getNextString());
+    }
+    return expression.substring(0, expression.length() - 1);
+  }
+
+  /**
+   * Get the given image with 8 bits per component, since jpg and bmp files cannot hold more.
+   *
+   * @param image the image to convert.
+   * @return the image itself if it already has 8 bits per component, or a converted copy.
+   */
+  private static BufferedImage toEightBits(BufferedImage image) {
+    if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+      return image;
+    }
+    int width = image.getWidth();
+    int height = image.getHeight();
+    BufferedImage converted = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    converted.setRGB(0, 0, width, height, image.getRGB(0, 0, width, height, null, 0, width), 0,
+        width);
+    return converted;
+  }
+
+  /**
+   * Save the given image at the given filepath. Images with more than 8 bits per component keep
+   * 16 bits per component in png files.
    *
    * @param filepath  the location of the new image
    * @param imageName the name of the image to be saved
@@ -90,10 +247,10 @@ public class ExtendedImageProcessorController extends ImageProcessorControllerIm
         BufferedImage image = this.model.getBufferedImage(imageName);
         ImageIO.write(image, "png", new File(filepath));
       } else if (lowerFile.endsWith(".jpg") || lowerFile.endsWith(".jpeg")) {
-        BufferedImage image = this.model.getBufferedImage(imageName);
+        BufferedImage image = toEightBits(this.model.getBufferedImage(imageName));
         ImageIO.write(image, "jpg", new File(filepath));
       } else if (lowerFile.endsWith(".bmp")) {
-        BufferedImage image = this.model.getBufferedImage(imageName);
+        BufferedImage image = toEightBits(this.model.getBufferedImage(imageName));
         ImageIO.write(image, "bmp", new File(filepath));
       } else {
         throw new IllegalArgumentException("Invalid filepath");
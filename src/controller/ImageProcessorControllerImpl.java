@@ -4,11 +4,12 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.InputMismatchException;
-import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import model.ImageMemory;
 import model.ImageProcessorModel;
 import model.Light;
-import model.Pixel;
+import model.SpillStatistics;
 import view.ImageProcessorView;
 
 /**
@@ -110,8 +111,7 @@ public class ImageProcessorControllerImpl implements ImageProcessorController {
         filepath = this.getNextString();
         imageName = this.getNextString();
         try {
-          List<List<Pixel>> image = ImageUtil.readFile(filepath);
-          this.model.loadImage(imageName, image);
+          this.model.loadImage(imageName, ImageUtil.readRaster(filepath));
           this.view.renderMessage("Load Operation Successful!\n");
         } catch (IllegalArgumentException iae) {
           System.out.print(iae);
@@ -170,6 +170,18 @@ public class ImageProcessorControllerImpl implements ImageProcessorController {
           this.view.renderMessage(e.getMessage() + "\n");
         }
         break;
+      case "mem":
+        this.renderMemoryUsage();
+        break;
+      case "drop":
+        imageName = this.getNextString();
+        try {
+          this.model.dropImage(imageName);
+          this.view.renderMessage("Drop Operation Successful!\n");
+        } catch (IllegalArgumentException iae) {
+          this.view.renderMessage(iae.getMessage() + "\n");
+        }
+        break;
       default:
         this.view.renderMessage("Invalid command: " + command
             + "\nPlease enter a new valid command.\n");
@@ -178,6 +190,37 @@ public class ImageProcessorControllerImpl implements ImageProcessorController {
     return false;
   }
 
+  /**
+   * Tell the user how many bytes of memory each image holds and how its pixels are held, followed
+   * by the total.
+   *
+   * @throws IOException if writing to the view fails.
+   */
+  private void renderMemoryUsage() throws IOException {
+    StringBuilder usage = new StringBuilder();
+    for (Map.Entry<String, ImageMemory> entry : this.model.getMemoryUsage().entrySet()) {
+      usage.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+    }
+    usage.append("Total: ").append(this.model.getTotalMemory()).append(" bytes\n");
+    this.view.renderMessage(usage.toString());
+  }
+
+  /**
+   * Tell the user how many images have been spilled, reloaded, and evicted to stay within the
+   * memory budget of the model if any of those counts changed since they were last shown.
+   *
+   * @param previous the statistics last shown to the user.
+   * @return the current statistics of the model.
+   * @throws IOException if writing to the view fails.
+   */
+  private SpillStatistics renderSpillStatistics(SpillStatistics previous) throws IOException {
+    SpillStatistics current = this.model.getSpillStatistics();
+    if (!current.equals(previous)) {
+      this.view.renderMessage("Memory budget: " + current + "\n");
+    }
+    return current;
+  }
+
   /**
    *
    * @throws IllegalStateException
@@ -185,6 +228,7 @@ public class ImageProcessorControllerImpl implements ImageProcessorController {
   @Override
   public void runImageProcessor() throws IllegalStateException {
     boolean processorQuit = false;
+    SpillStatistics spillStatistics = this.model.getSpillStatistics();
     try {
       while (!processorQuit) {
         this.view.renderMenu();
@@ -194,6 +238,7 @@ public class ImageProcessorControllerImpl implements ImageProcessorController {
         } catch (InputMismatchException e) {
           this.view.renderMessage("Invalid command: Please enter a new valid command.\n");
         }
+        spillStatistics = this.renderSpillStatistics(spillStatistics);
       }
     } catch (IOException e) {
       throw new IllegalStateException("IOException" + e);
@@ -1,6 +1,8 @@
 package controller;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.Raster;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -9,8 +11,10 @@ import java.util.Scanner;
 import java.io.FileNotFoundException;
 import java.io.FileInputStream;
 import javax.imageio.ImageIO;
+import model.DeepRaster;
+import model.ImageRaster;
+import model.PackedRaster;
 import model.Pixel;
-import model.RGBPixel;
 
 /**
  * This class contains utility methods to read a PPM image from file and turn it into a 2d array of
@@ -25,40 +29,104 @@ public class ImageUtil {
    * @throws IllegalArgumentException if reading from the file fails.
    */
   public static List<List<Pixel>> readFile(String filename) throws IllegalArgumentException {
+    ImageRaster image = ImageUtil.readRaster(filename);
+    List<List<Pixel>> listOfPixel = new ArrayList<>();
+    for (int i = 0; i < image.getHeight(); i++) {
+      listOfPixel.add(new ArrayList<Pixel>());
+      for (int j = 0; j < image.getWidth(); j++) {
+        listOfPixel.get(i).add(Pixel.fromRGB(image.getRGB(i, j)));
+      }
+    }
+    return listOfPixel;
+  }
+
+  /**
+   * Read the given image and return it as a raster of packed pixels without creating an object
+   * for each pixel. Images with more than 8 bits per component, such as PPM files with a maximum
+   * value above 255 or 16-bit PNG files, keep their full precision, and PPM files with a maximum
+   * value below 255 are scaled to 8 bits.
+   * @param filename the image to read from.
+   * @return a raster representing the image.
+   * @throws IllegalArgumentException if reading from the file fails.
+   */
+  public static ImageRaster readRaster(String filename) throws IllegalArgumentException {
     if (filename.endsWith(".ppm")) {
       return ImageUtil.readPPM(filename);
     }
     File file = new File(filename);
-    List<List<Pixel>> listOfPixel = new ArrayList<>();
     try {
       BufferedImage image = ImageIO.read(file);
+      if (image == null) {
+        throw new IllegalArgumentException("Unsupported image format: " + filename);
+      }
       int height = image.getHeight();
       int width = image.getWidth();
-      for (int i = 0; i < height; i++) {
-        listOfPixel.add(new ArrayList<Pixel>());
-        for (int j = 0; j < width; j++) {
-          int p = image.getRGB(j, i);
-          int r = (p >> 16) & 0xff;
-          int g = (p >> 8) & 0xff;
-          int b = p & 0xff;
-          Pixel px = new RGBPixel(r, g, b);
-          listOfPixel.get(i).add(px);
-        }
+      if (ImageUtil.isDeep(image)) {
+        return ImageUtil.readDeep(image);
+      }
+      int[] rgb = image.getRGB(0, 0, width, height, null, 0, width);
+      for (int i = 0; i < rgb.length; i++) {
+        rgb[i] &= 0xffffff;
       }
+      return new PackedRaster(width, height, rgb);
     } catch (IOException e) {
       throw new IllegalArgumentException("IOException: " + e.getMessage());
     }
+  }
 
-    return listOfPixel;
+  /**
+   * Check whether the given image has more than 8 bits in any of its color components.
+   *
+   * @param image the image to check.
+   * @return true if the image holds more than 8 bits per component, false otherwise.
+   */
+  private static boolean isDeep(BufferedImage image) {
+    if (!(image.getColorModel() instanceof ComponentColorModel)) {
+      return false;
+    }
+    for (int size : image.getColorModel().getComponentSize()) {
+      if (size > 8) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Read the samples of the given image with more than 8 bits per component at full precision.
+   * Grey images have their single component copied to red, green, and blue, and any alpha is
+   * dropped.
+   *
+   * @param image the image to read.
+   * @return a raster holding the components of the image.
+   */
+  private static ImageRaster readDeep(BufferedImage image) {
+    int bits = 0;
+    for (int size : image.getColorModel().getComponentSize()) {
+      bits = Math.max(bits, size);
+    }
+    int maxValue = (1 << Math.min(bits, 16)) - 1;
+    boolean grey = image.getColorModel().getNumColorComponents() < 3;
+    Raster samples = image.getRaster();
+    DeepRaster raster = new DeepRaster(image.getWidth(), image.getHeight(), maxValue);
+    for (int i = 0; i < image.getHeight(); i++) {
+      for (int j = 0; j < image.getWidth(); j++) {
+        for (int channel = 0; channel < 3; channel++) {
+          raster.setComponent(i, j, channel, samples.getSample(j, i, grey ? 0 : channel));
+        }
+      }
+    }
+    return raster;
   }
 
   /**
    * Read an image file in the PPM format and print the colors.
    *
    * @param filename the path of the file.
+   * @return a raster representing the image.
    * @throws IllegalArgumentException if the filename cannot be found
    */
-  private static List<List<Pixel>> readPPM(String filename) throws IllegalArgumentException {
+  private static ImageRaster readPPM(String filename) throws IllegalArgumentException {
     Scanner sc;
 
     try {
@@ -96,19 +164,60 @@ public class ImageUtil {
     int maxValue = sc.nextInt();
     System.out.println("Maximum value of a color in this file (usually 255): " + maxValue);
 
-    List<List<Pixel>> listOfPixel = new ArrayList<>();
+    if (maxValue < 1 || maxValue > DeepRaster.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid PPM file: maximum value must be in the"
+          + " range [1, 65535]");
+    }
+    if (maxValue > 255) {
+      return ImageUtil.readDeepPPM(sc, width, height, maxValue);
+    }
+    ImageRaster image = new PackedRaster(width, height);
     for (int i = 0; i < height; i++) {
-      listOfPixel.add(new ArrayList<Pixel>());
       for (int j = 0; j < width; j++) {
         int r = sc.nextInt();
         int g = sc.nextInt();
         int b = sc.nextInt();
-        RGBPixel p1 = new RGBPixel(r, g, b);
-        listOfPixel.get(i).add(p1);
+        if (r < 0 || g < 0 || b < 0 || r > maxValue || g > maxValue || b > maxValue) {
+          throw new IllegalArgumentException("Invalid PPM file: color values must be in the"
+              + " range [0, " + maxValue + "]");
+        }
+        if (maxValue != 255) {
+          // files with fewer levels are scaled so that their maximum value is full intensity
+          r = (r * 255 + maxValue / 2) / maxValue;
+          g = (g * 255 + maxValue / 2) / maxValue;
+          b = (b * 255 + maxValue / 2) / maxValue;
+        }
+        image.setRGB(i, j, (r << 16) | (g << 8) | b);
       }
     }
-    return listOfPixel;
+    return image;
   }
 
+  /**
+   * Read the pixels of a PPM file whose maximum value is above 255, keeping their full precision.
+   *
+   * @param sc       the scanner positioned at the first pixel.
+   * @param width    the width of the image.
+   * @param height   the height of the image.
+   * @param maxValue the maximum value of a color in the file.
+   * @return a raster representing the image.
+   * @throws IllegalArgumentException if a color value is out of range.
+   */
+  private static ImageRaster readDeepPPM(Scanner sc, int width, int height, int maxValue)
+      throws IllegalArgumentException {
+    ImageRaster image = new DeepRaster(width, height, maxValue);
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        for (int channel = 0; channel < 3; channel++) {
+          int value = sc.nextInt();
+          if (value < 0 || value > maxValue) {
+            throw new IllegalArgumentException("Invalid PPM file: color values must be in the"
+                + " range [0, " + maxValue + "]");
+          }
+          image.setComponent(i, j, channel, value);
+        }
+      }
+    }
+    return image;
+  }
 }
-
@@ -1,179 +1,295 @@
 package model;
 
-import java.awt.Color;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.WritableRaster;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
 
 /**
- * To represent a better image processor that represents each image as its individual pixels and
- * supports additional operations on the image such as getting the buffered image,
- * sepia, blur, and sharpen.
+ * To represent a better image processor that represents each image as a raster of packed pixels
+ * and supports additional operations on the image such as getting the buffered image,
+ * sepia, user-supplied color matrices and formulas, hue, saturation, and YCbCr adjustments,
+ * blur, and sharpen.
  */
 public class BetterImageProcessor extends SimpleImageProcessor
     implements BetterImageProcessorModel {
 
+  private static final double[][] BLUR_KERNEL = {
+      {0.0625, 0.125, 0.0625},
+      {0.125, 0.25, 0.125},
+      {0.0625, 0.125, 0.0625}};
+  private static final double[][] SHARPEN_KERNEL = {
+      {-0.125, -0.125, -0.125, -0.125, -0.125},
+      {-0.125, 0.25, 0.25, 0.25, -0.125},
+      {-0.125, 0.25, 1.0, 0.25, -0.125},
+      {-0.125, 0.25, 0.25, 0.25, -0.125},
+      {-0.125, -0.125, -0.125, -0.125, -0.125}};
+
+  /**
+   * BetterImageProcessor default constructor that stores each image as packed pixels.
+   */
+  public BetterImageProcessor() {
+    this(ProcessorOptions.DEFAULT);
+  }
+
+  /**
+   * BetterImageProcessor constructor that stores and computes its images as the given options say.
+   *
+   * @param options how images are stored and computed.
+   * @throws IllegalArgumentException if the given options are null.
+   */
+  public BetterImageProcessor(ProcessorOptions options) throws IllegalArgumentException {
+    this(options, new SimpleImageStore());
+  }
+
+  /**
+   * BetterImageProcessor constructor that keeps its images in the given store and stores and
+   * computes them as the given options say.
+   *
+   * @param options how images are stored and computed.
+   * @param store   where the named images are kept.
+   * @throws IllegalArgumentException if the given options or store are null.
+   */
+  public BetterImageProcessor(ProcessorOptions options, ImageStore store)
+      throws IllegalArgumentException {
+    super(options, store);
+  }
+
   @Override
   public BufferedImage getBufferedImage(String imageName) throws IllegalArgumentException {
-    if (!this.rgbValues.containsKey(imageName)) {
-      throw new IllegalArgumentException("Image cannot be found");
+    ImageRaster image = this.getOutputImage(imageName);
+    if (image.getMaxValue() != 255) {
+      return this.getDeepBufferedImage(image);
     }
-    BufferedImage outImage = new BufferedImage(this.getWidth(imageName),
-        this.getHeight(imageName),
+    int width = image.getWidth();
+    BufferedImage outImage = new BufferedImage(width, image.getHeight(),
         BufferedImage.TYPE_INT_RGB);
-    for (int i = 0; i < this.getWidth(imageName); i++) {
-      for (int j = 0; j < this.getHeight(imageName); j++) {
-        String pixelVals = this.rgbValues.get(imageName).get(j).get(i).toString();
-        int red = Integer.parseInt(pixelVals.split(" ")[0]);
-        int green = Integer.parseInt(pixelVals.split(" ")[1]);
-        int blue = Integer.parseInt(pixelVals.split(" ")[2]);
-        Color myColor = new Color(red, green, blue);
-        outImage.setRGB(i, j, myColor.getRGB());
+    this.forEachRow(width, image.getHeight(), i -> {
+      int[] row = new int[width];
+      for (int j = 0; j < width; j++) {
+        row[j] = image.getRGB(i, j);
       }
-    }
+      outImage.setRGB(0, i, width, 1, row, 0, width);
+    });
     return outImage;
   }
 
+  /**
+   * Make a buffered image with 16 bits per component holding the given image with more than 8 bits
+   * per component, each component scaled from [0, maxValue] to [0, 65535].
+   *
+   * @param image the image to convert.
+   * @return the buffered image.
+   */
+  private BufferedImage getDeepBufferedImage(ImageRaster image) {
+    int width = image.getWidth();
+    long maxValue = image.getMaxValue();
+    ColorModel colors = new ComponentColorModel(
+        java.awt.color.ColorSpace.getInstance(java.awt.color.ColorSpace.CS_sRGB), false, false,
+        Transparency.OPAQUE, DataBuffer.TYPE_USHORT);
+    WritableRaster samples = colors.createCompatibleWritableRaster(width, image.getHeight());
+    this.forEachRow(width, image.getHeight(), i -> {
+      int[] row = new int[3 * width];
+      for (int j = 0; j < width; j++) {
+        for (int channel = 0; channel < 3; channel++) {
+          row[3 * j + channel] = (int) ((image.getComponent(i, j, channel) * 65535L
+              + maxValue / 2) / maxValue);
+        }
+      }
+      samples.setPixels(0, i, width, 1, row);
+    });
+    return new BufferedImage(colors, samples, false, null);
+  }
+
   @Override
   public void greyscaleComponent(Light component, String imageName, String newImageName)
       throws IllegalArgumentException {
-    java.util.List<java.util.List<Pixel>> image = this.getImageCopyByName(imageName);
-    for (List<Pixel> row : image) {
-      for (Pixel px : row) {
-        px.performMatMult(component);
-      }
+    ImageRaster image = this.getImageByName(imageName);
+    if (component == null) {
+      throw new IllegalArgumentException("Invalid Light component");
     }
-    this.rgbValues.put(newImageName, image);
+    int maxValue = image.getMaxValue();
+    if (maxValue != 255) {
+      this.storeImage(newImageName, this.transformComponents(image,
+          rgb -> DeepRGB.performMatMult(rgb, component, maxValue)), image);
+      return;
+    }
+    IntUnaryOperator operation = PackedRGB.greyscaleMatrix(component);
+    if (this.storeFused(newImageName, image, operation, true)) {
+      return;
+    }
+    this.storeImage(newImageName, this.greyscaleImage(image, operation), image);
   }
 
   @Override
   public void sepiaImage(String imageName, String newImageName) {
-    java.util.List<java.util.List<Pixel>> image = this.getImageCopyByName(imageName);
-    for (List<Pixel> row : image) {
-      for (Pixel px : row) {
-        px.sepia();
+    ImageRaster parent = this.getImageByName(imageName);
+    int maxValue = parent.getMaxValue();
+    if (maxValue != 255) {
+      this.storeImage(newImageName, this.transformComponents(parent,
+          rgb -> DeepRGB.sepia(rgb, maxValue)), parent);
+      return;
+    }
+    if (this.storeFused(newImageName, parent, PackedRGB::sepia, false)) {
+      return;
+    }
+    this.storeImage(newImageName, this.mapImage(parent, PackedRGB::sepia), parent);
+  }
+
+  @Override
+  public void colorMatrix(double[][] matrix, double[] offsets, String imageName,
+      String newImageName) throws IllegalArgumentException {
+    ImageRaster parent = this.getImageByName(imageName);
+    ColorMatrix operation = new ColorMatrix(matrix, offsets);
+    int maxValue = parent.getMaxValue();
+    if (maxValue != 255) {
+      double[][] weights = {matrix[0].clone(), matrix[1].clone(), matrix[2].clone()};
+      double[] amounts = offsets.clone();
+      this.storeImage(newImageName, this.transformComponents(parent,
+          rgb -> DeepRGB.colorMatrix(rgb, weights, amounts, maxValue)), parent);
+      return;
+    }
+    boolean grey = operation.isGreyScale();
+    if (this.storeFused(newImageName, parent, operation, grey)) {
+      return;
+    }
+    this.storeImage(newImageName, grey ? this.greyscaleImage(parent, operation)
+        : this.mapImage(parent, operation), parent);
+  }
+
+  @Override
+  public void rotateHue(double degrees, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    ImageRaster parent = this.getImageByName(imageName);
+    if (!Double.isFinite(degrees)) {
+      throw new IllegalArgumentException("Hue rotation must be a finite number");
+    }
+    float turn = (float) (((degrees / 360) % 1 + 1) % 1);
+    this.storeImage(newImageName, this.transformColorSpace(parent, ColorSpace.HSV, pixels -> {
+      for (int i = 0; i < pixels.length; i += 3) {
+        pixels[i] = (pixels[i] + turn) % 1;
+      }
+    }), parent);
+  }
+
+  @Override
+  public void saturate(double factor, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    ImageRaster parent = this.getImageByName(imageName);
+    if (!(factor >= 0) || Double.isInfinite(factor)) {
+      throw new IllegalArgumentException("Saturation factor must be a non-negative number");
+    }
+    float scale = (float) factor;
+    this.storeImage(newImageName, this.transformColorSpace(parent, ColorSpace.HSL, pixels -> {
+      for (int i = 1; i < pixels.length; i += 3) {
+        pixels[i] = Math.min(1, pixels[i] * scale);
       }
+    }), parent);
+  }
+
+  @Override
+  public void adjustYCbCr(double[] gains, double[] offsets, String imageName,
+      String newImageName) throws IllegalArgumentException {
+    ImageRaster parent = this.getImageByName(imageName);
+    if (gains == null || offsets == null || gains.length != 3 || offsets.length != 3) {
+      throw new IllegalArgumentException("YCbCr adjustment must have three gains and offsets");
+    }
+    float[] gain = new float[3];
+    float[] offset = new float[3];
+    for (int channel = 0; channel < 3; channel++) {
+      if (!Double.isFinite(gains[channel]) || !Double.isFinite(offsets[channel])) {
+        throw new IllegalArgumentException("YCbCr gains and offsets must be finite numbers");
+      }
+      gain[channel] = (float) gains[channel];
+      // offsets are in 8-bit steps, and the chroma components are scaled around grey
+      offset[channel] = (float) (offsets[channel] / 255)
+          + (channel == 0 ? 0 : 0.5f * (1 - gain[channel]));
     }
-    this.rgbValues.put(newImageName, image);
+    this.storeImage(newImageName, this.transformColorSpace(parent, ColorSpace.YCBCR, pixels -> {
+      for (int i = 0; i < pixels.length; i += 3) {
+        pixels[i] = pixels[i] * gain[0] + offset[0];
+        pixels[i + 1] = pixels[i + 1] * gain[1] + offset[1];
+        pixels[i + 2] = pixels[i + 2] * gain[2] + offset[2];
+      }
+    }), parent);
   }
 
   /**
-   * Get the neighbors of the given pixel and return them as a 2d array of their component values.
+   * Create a new image holding the given image converted to the given color space, changed by the
+   * given adjustment, and converted back, one row at a time. Each row is read into a buffer of
+   * three floats per pixel in [0, 1], converted and adjusted in place, and rounded and bounded to
+   * [0, maxValue] as it is written to the new image.
    *
-   * @param component the component to get the value of.
-   * @param height    the height of the array to be returned.
-   * @param width     the width of the array to be returned.
-   * @param centerRow the integer representing what the given pixel row is
-   * @param centerCol the integer representing what the given pixel column is
-   * @param imageName the image to get the neighbors of.
-   * @return a 2d array of doubles representing the component values of the neighbors.
+   * @param image      the image to transform.
+   * @param space      the color space to adjust the pixels in.
+   * @param adjustment the change to a buffer of pixels in the color space.
+   * @return the new image with the same maximum value as the given image.
    */
-  private List<List<Double>> getNeighbors(String component, int height, int width,
-      int centerRow, int centerCol, String imageName) {
-    List<List<Double>> result = new ArrayList<>();
-    for (int i = 0; i < height; i++) {
-      result.add(new ArrayList<>());
+  protected ImageRaster transformColorSpace(ImageRaster image, ColorSpace space,
+      Consumer<float[]> adjustment) {
+    int width = image.getWidth();
+    int maxValue = image.getMaxValue();
+    ImageRaster result = this.createImage(width, image.getHeight(), maxValue);
+    this.forEachRow(result, i -> {
+      float[] pixels = new float[3 * width];
       for (int j = 0; j < width; j++) {
-        int newX = centerRow - (width / 2 - i);
-        int newY = centerCol - (height / 2 - j);
-        try {
-          String[] rgbValues = this.getPixelAt(newX, newY, imageName).toString().split(" ");
-          switch (component.toLowerCase()) {
-            case "red":
-              result.get(i).add(Double.parseDouble(rgbValues[0]));
-              break;
-            case "green":
-              result.get(i).add(Double.parseDouble(rgbValues[1]));
-              break;
-            case "blue":
-              result.get(i).add(Double.parseDouble(rgbValues[2]));
-              break;
-            default:
-              throw new IllegalArgumentException("Invalid component, must be red, green, or blue");
+        if (maxValue == 255) {
+          int rgb = image.getRGB(i, j);
+          pixels[3 * j] = PackedRGB.red(rgb) / 255f;
+          pixels[3 * j + 1] = PackedRGB.green(rgb) / 255f;
+          pixels[3 * j + 2] = PackedRGB.blue(rgb) / 255f;
+        } else {
+          for (int channel = 0; channel < 3; channel++) {
+            pixels[3 * j + channel] = (float) image.getComponent(i, j, channel) / maxValue;
           }
-        } catch (IllegalArgumentException e) {
-          result.get(i).add(0.0);
         }
       }
-    }
+      space.fromRgb(pixels, width);
+      adjustment.accept(pixels);
+      space.toRgb(pixels, width);
+      for (int j = 0; j < width; j++) {
+        if (maxValue == 255) {
+          result.setRGB(i, j, PackedRGB.pack(toComponent(pixels[3 * j], 255),
+              toComponent(pixels[3 * j + 1], 255), toComponent(pixels[3 * j + 2], 255)));
+        } else {
+          for (int channel = 0; channel < 3; channel++) {
+            result.setComponent(i, j, channel, toComponent(pixels[3 * j + channel], maxValue));
+          }
+        }
+      }
+    });
     return result;
   }
 
   /**
-   * Given a kernel and a matrix, sum the multiplication between each respective place in the kernel
-   * and matrix.
+   * Round the given intensity to a component, bounded to [0, maxValue].
    *
-   * @param kernel the kernel to use.
-   * @param values the matrix to use.
-   * @return the total of the sum of multiplication between each corresponding place in the kernel
-   *         and matrix.
+   * @param intensity the intensity, 1 for full intensity.
+   * @param maxValue  the value of a component at full intensity.
+   * @return the component.
    */
-  private int kernelMath(List<List<Double>> kernel, List<List<Double>> values) {
-    double total = 0.0;
-    for (int i = 0; i < kernel.size(); i++) {
-      for (int j = 0; j < kernel.get(i).size(); j++) {
-        total += kernel.get(i).get(j) * values.get(i).get(j);
-      }
-    }
-    if (total > 255) {
-      return 255;
-    }
-    if (total < 0) {
-      return 0;
-    }
-    return (int) total;
+  private static int toComponent(float intensity, int maxValue) {
+    return Math.max(0, Math.min(maxValue, Math.round(intensity * maxValue)));
   }
 
-  /**
-   * Do the kernel operation for each pixel in the given image and save it as the new image name.
-   *
-   * @param imageName    the image to do the operation on
-   * @param newImageName the new image to save the result to.
-   * @param kernel       the kernel to do the operation on.
-   */
-  private void kernelImage(String imageName, String newImageName, List<List<Double>> kernel) {
-    if (!this.rgbValues.containsKey(imageName)) {
-      throw new IllegalArgumentException("Image cannot be found");
-    }
-    List<List<Pixel>> image = this.rgbValues.get(imageName);
-    List<List<Pixel>> newImage = new ArrayList<>();
-    for (int i = 0; i < image.size(); i++) {
-      newImage.add(new ArrayList<>());
-      for (int j = 0; j < image.get(i).size(); j++) {
-        List<List<Double>> redNeighbors = this.getNeighbors(
-            "red", kernel.size(),
-            kernel.get(0).size(), i, j, imageName);
-        List<List<Double>> greenNeighbors = this.getNeighbors("green", kernel.size(),
-            kernel.get(0).size(), i, j, imageName);
-        List<List<Double>> blueNeighbors = this.getNeighbors("blue", kernel.size(),
-            kernel.get(0).size(), i, j, imageName);
-        int redValue = this.kernelMath(kernel, redNeighbors);
-        int greenValue = this.kernelMath(kernel, greenNeighbors);
-        int blueValue = this.kernelMath(kernel, blueNeighbors);
-        newImage.get(i).add(new RGBPixel(redValue, greenValue, blueValue));
-      }
-    }
-    this.rgbValues.put(newImageName, newImage);
+  @Override
+  public void applyExpression(String expression, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    this.getImageByName(imageName);
+    this.applyOperator(ExpressionCompiler.compile(expression), imageName, newImageName);
   }
 
   @Override
   public void blurImage(String imageName, String newImageName) throws IllegalArgumentException {
-    List<List<Double>> blurMatrix = new ArrayList<>();
-    blurMatrix.add(Arrays.asList(0.0625, 0.125, 0.0625));
-    blurMatrix.add(Arrays.asList(0.125, 0.25, 0.125));
-    blurMatrix.add(Arrays.asList(0.0625, 0.125, 0.0625));
-    this.kernelImage(imageName, newImageName, blurMatrix);
+    this.applyOperator(new KernelOperator(BLUR_KERNEL), imageName, newImageName);
   }
 
   @Override
   public void sharpenImage(String imageName, String newImageName) throws IllegalArgumentException {
-    List<List<Double>> sharpenMatrix = new ArrayList<>();
-    sharpenMatrix.add(Arrays.asList(-0.125, -0.125, -0.125, -0.125, -0.125));
-    sharpenMatrix.add(Arrays.asList(-0.125, 0.25, 0.25, 0.25, -0.125));
-    sharpenMatrix.add(Arrays.asList(-0.125, 0.25, 1.0, 0.25, -0.125));
-    sharpenMatrix.add(Arrays.asList(-0.125, 0.25, 0.25, 0.25, -0.125));
-    sharpenMatrix.add(Arrays.asList(-0.125, -0.125, -0.125, -0.125, -0.125));
-    this.kernelImage(imageName, newImageName, sharpenMatrix);
+    this.applyOperator(new KernelOperator(SHARPEN_KERNEL), imageName, newImageName);
   }
 }
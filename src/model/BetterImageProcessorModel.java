@@ -9,7 +9,9 @@ import java.awt.image.BufferedImage;
 public interface BetterImageProcessorModel extends ImageProcessorModel {
 
   /**
-   * Process the given 2d array of pixels and return it as an image.
+   * Process the given 2d array of pixels and return it as an image. Images with more than 8 bits
+   * per component are returned with 16 bits per component so that saving them keeps their
+   * precision.
    *
    * @param imageName the name of the 2d array of pixels.
    * @return the 2d array of pixels as an image.
@@ -26,6 +28,82 @@ public interface BetterImageProcessorModel extends ImageProcessorModel {
    */
   void sepiaImage(String imageName, String newImageName) throws IllegalArgumentException;
 
+  /**
+   * Multiply the components of every pixel of the given image with the given 3x3 color matrix, add
+   * the given offset to each channel, and save it as the given new image name. The rows of the
+   * matrix give the new red, green, and blue components and its columns weigh the old ones. Each
+   * new component is rounded and bounded to [0, maxValue] of the image.
+   *
+   * @param matrix       the 3x3 matrix.
+   * @param offsets      the amounts added to the new red, green, and blue components.
+   * @param imageName    the image to transform.
+   * @param newImageName the name of the new image to save to.
+   * @throws IllegalArgumentException if the given image cannot be found, or the matrix is not 3x3
+   *                                  or the offsets are not three, all of them finite numbers.
+   */
+  void colorMatrix(double[][] matrix, double[] offsets, String imageName, String newImageName)
+      throws IllegalArgumentException;
+
+  /**
+   * Rotate the hue of every pixel of the given image by the given angle and save it as the given
+   * new image name, keeping the saturation and value of each pixel.
+   *
+   * @param degrees      the angle to rotate by, where 120 turns red into green.
+   * @param imageName    the image to rotate.
+   * @param newImageName the name of the new image to save to.
+   * @throws IllegalArgumentException if the given image cannot be found or the angle is not a
+   *                                  finite number.
+   */
+  void rotateHue(double degrees, String imageName, String newImageName)
+      throws IllegalArgumentException;
+
+  /**
+   * Multiply the saturation of every pixel of the given image by the given factor and save it as
+   * the given new image name, keeping the hue and lightness of each pixel. A factor of 0 gives a
+   * grey image, and saturations above 1 are bounded to 1.
+   *
+   * @param factor       the factor to multiply the saturation by.
+   * @param imageName    the image to change.
+   * @param newImageName the name of the new image to save to.
+   * @throws IllegalArgumentException if the given image cannot be found or the factor is negative
+   *                                  or not a finite number.
+   */
+  void saturate(double factor, String imageName, String newImageName)
+      throws IllegalArgumentException;
+
+  /**
+   * Multiply the luma, blue chroma, and red chroma of every pixel of the given image by the given
+   * gains, add the given offsets in steps of 1/255 of full intensity, and save it as the given new
+   * image name. The chroma components are scaled around grey, so gains of 0 for both of them give
+   * a grey image.
+   *
+   * @param gains        the factors for the luma, blue chroma, and red chroma.
+   * @param offsets      the amounts added to the luma, blue chroma, and red chroma.
+   * @param imageName    the image to change.
+   * @param newImageName the name of the new image to save to.
+   * @throws IllegalArgumentException if the given image cannot be found, or the gains or offsets
+   *                                  are not three finite numbers.
+   */
+  void adjustYCbCr(double[] gains, double[] offsets, String imageName, String newImageName)
+      throws IllegalArgumentException;
+
+  /**
+   * Compute the components of every pixel of the given image with the given formula and save it
+   * as the given new image name. The formula assigns new components to any of {@code r'},
+   * {@code g'}, and {@code b'}, separated by semicolons, from the old components {@code r},
+   * {@code g}, and {@code b} and the position {@code x} and {@code y} of the pixel, such as
+   * {@code r' = min(255, r * 1.1 + 5)}. Each new component is rounded and bounded to
+   * [0, maxValue] of the image, and components that are not assigned keep their value.
+   *
+   * @param expression   the formula for the new components.
+   * @param imageName    the image to transform.
+   * @param newImageName the name of the new image to save to.
+   * @throws IllegalArgumentException if the given image cannot be found or the formula is not
+   *                                  valid.
+   */
+  void applyExpression(String expression, String imageName, String newImageName)
+      throws IllegalArgumentException;
+
   /**
    * Blur the given image and save it as the given new image name.
    *
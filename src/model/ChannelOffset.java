@@ -0,0 +1,183 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent adding the same amount to every 8-bit component of a pixel, bounded to [0, 255].
+ * The components are added as lanes of one machine word without unpacking them: the three
+ * components of a packed 0xRRGGBB pixel in one int, or eight components of a plane in one long.
+ * Lanes that carry past 255 or borrow below 0 are detected from their top bit and saturated, which
+ * gives exactly the same result as adding to each component and bounding it on its own.
+ */
+public final class ChannelOffset implements IntUnaryOperator {
+
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class,
+      ByteOrder.LITTLE_ENDIAN);
+  private static final long WORD_HIGH_BITS = 0x8080808080808080L;
+  private static final int PIXEL_MASK = 0xffffff;
+
+  private final boolean add;
+  private final int amount;
+  private final int pixelAmounts;
+  private final long wordAmounts;
+
+  /**
+   * Constructor to make the offset adding the given amount to every component.
+   *
+   * @param increment the amount to add, which may be negative.
+   */
+  public ChannelOffset(int increment) {
+    this.add = increment >= 0;
+    this.amount = Math.min(Math.abs(Math.max(increment, -255)), 255);
+    this.pixelAmounts = this.amount * 0x010101;
+    this.wordAmounts = this.amount * 0x0101010101010101L;
+  }
+
+  /**
+   * Add the given amounts to every 8-bit lane of the given word, saturating lanes that carry past
+   * 255 at 255.
+   *
+   * @param word    the lanes to change.
+   * @param amounts the amount to add in every lane in use.
+   * @param high    the top bit of every lane in use.
+   * @return the changed lanes.
+   */
+  private static long addLanes(long word, long amounts, long high) {
+    long low = (high >>> 7) * 0x7f;
+    long sum = ((word & low) + (amounts & low)) ^ ((word ^ amounts) & high);
+    long carry = ((word & amounts) | ((word | amounts) & ~sum)) & high;
+    return sum | ((carry >>> 7) * 0xff);
+  }
+
+  /**
+   * Subtract the given amounts from every 8-bit lane of the given word, saturating lanes that
+   * borrow below 0 at 0.
+   *
+   * @param word    the lanes to change.
+   * @param amounts the amount to subtract in every lane in use.
+   * @param high    the top bit of every lane in use.
+   * @return the changed lanes.
+   */
+  private static long subtractLanes(long word, long amounts, long high) {
+    long low = (high >>> 7) * 0x7f;
+    long difference = ((word | high) - (amounts & low)) ^ ((word ^ ~amounts) & high);
+    long borrow = ((~word & amounts) | (~(word ^ amounts) & difference)) & high;
+    return difference & ~((borrow >>> 7) * 0xff);
+  }
+
+  /**
+   * Add the given amounts to the three components of the given pixel, saturating at 255. This
+   * works on ints so that loops over packed pixels can be vectorized by the compiler.
+   *
+   * @param rgb     the packed pixel.
+   * @param amounts the amount to add in every component.
+   * @return the changed packed pixel.
+   */
+  private static int addComponents(int rgb, int amounts) {
+    int sum = ((rgb & 0x7f7f7f) + (amounts & 0x7f7f7f)) ^ ((rgb ^ amounts) & 0x808080);
+    int carry = ((rgb & amounts) | ((rgb | amounts) & ~sum)) & 0x808080;
+    return sum | ((carry >>> 7) * 0xff);
+  }
+
+  /**
+   * Subtract the given amounts from the three components of the given pixel, saturating at 0.
+   *
+   * @param rgb     the packed pixel.
+   * @param amounts the amount to subtract in every component.
+   * @return the changed packed pixel.
+   */
+  private static int subtractComponents(int rgb, int amounts) {
+    int difference = ((rgb | 0x808080) - (amounts & 0x7f7f7f)) ^ ((rgb ^ ~amounts) & 0x808080);
+    int borrow = ((~rgb & amounts) | (~(rgb ^ amounts) & difference)) & 0x808080;
+    return difference & ~((borrow >>> 7) * 0xff);
+  }
+
+  /**
+   * Change every component of the given pixel by the amount of this offset.
+   *
+   * @param rgb the packed pixel.
+   * @return the changed packed pixel, each component bounded to [0, 255].
+   */
+  @Override
+  public int applyAsInt(int rgb) {
+    return this.add ? addComponents(rgb & PIXEL_MASK, this.pixelAmounts)
+        : subtractComponents(rgb & PIXEL_MASK, this.pixelAmounts);
+  }
+
+  /**
+   * Change every component of the packed pixels in the given array by the amount of this offset in
+   * place. Adding and subtracting have loops of their own so that each loop is simple enough for
+   * the compiler to vectorize.
+   *
+   * @param pixels the packed 0xRRGGBB pixels to change.
+   */
+  public void applyToPixels(int[] pixels) {
+    this.applyToPixels(pixels, pixels, 0, pixels.length);
+  }
+
+  /**
+   * Write the packed pixels in [start, end) of the given array, each component changed by the
+   * amount of this offset, to the same positions of the given result array, which may be the same
+   * array.
+   *
+   * @param pixels the packed 0xRRGGBB pixels to read.
+   * @param result the array to write the changed pixels to.
+   * @param start  the first position to change.
+   * @param end    the position after the last one to change.
+   */
+  public void applyToPixels(int[] pixels, int[] result, int start, int end) {
+    int amounts = this.pixelAmounts;
+    if (this.add) {
+      for (int i = start; i < end; i++) {
+        result[i] = addComponents(pixels[i] & PIXEL_MASK, amounts);
+      }
+    } else {
+      for (int i = start; i < end; i++) {
+        result[i] = subtractComponents(pixels[i] & PIXEL_MASK, amounts);
+      }
+    }
+  }
+
+  /**
+   * Change every 8-bit component in the given array by the amount of this offset in place, eight
+   * components at a time.
+   *
+   * @param components the components to change, such as one plane of an image.
+   */
+  public void applyToComponents(byte[] components) {
+    this.applyToComponents(components, components, 0, components.length);
+  }
+
+  /**
+   * Write the 8-bit components in [start, end) of the given array, each changed by the amount of
+   * this offset, to the same positions of the given result array, which may be the same array,
+   * eight components at a time.
+   *
+   * @param components the components to read, such as one plane of an image.
+   * @param result     the array to write the changed components to.
+   * @param start      the first position to change.
+   * @param end        the position after the last one to change.
+   */
+  public void applyToComponents(byte[] components, byte[] result, int start, int end) {
+    int i = start;
+    if (this.add) {
+      for (; i + Long.BYTES <= end; i += Long.BYTES) {
+        long word = (long) LONGS.get(components, i);
+        LONGS.set(result, i, addLanes(word, this.wordAmounts, WORD_HIGH_BITS));
+      }
+    } else {
+      for (; i + Long.BYTES <= end; i += Long.BYTES) {
+        long word = (long) LONGS.get(components, i);
+        LONGS.set(result, i, subtractLanes(word, this.wordAmounts, WORD_HIGH_BITS));
+      }
+    }
+    for (; i < end; i++) {
+      int component = components[i] & 0xff;
+      result[i] = (byte) (this.add ? addLanes(component, this.amount, 0x80L)
+          : subtractLanes(component, this.amount, 0x80L));
+    }
+  }
+}
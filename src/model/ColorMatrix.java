@@ -0,0 +1,134 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent a 3x3 color matrix that multiplies the red, green, and blue components of packed
+ * 0xRRGGBB pixels, optionally followed by adding an offset to each channel. The product of every
+ * matrix entry with every 8-bit component is computed once when the matrix is made, so
+ * transforming a pixel only takes three table lookups and three additions per channel and
+ * allocates nothing. Each sum is rounded to the nearest integer and bounded to [0, 255], which
+ * gives exactly the same result as multiplying the matrix with the components directly.
+ */
+public final class ColorMatrix implements IntUnaryOperator {
+
+  private final double[] products;
+  private final double[] offsets;
+  private final boolean grey;
+
+  /**
+   * Constructor to make the product tables of the given matrix, whose rows give the new red,
+   * green, and blue components and whose columns weigh the old ones.
+   *
+   * @param matrix the 3x3 matrix.
+   * @throws IllegalArgumentException if the matrix is null, not 3x3, or has an entry that is not
+   *                                  a finite number.
+   */
+  public ColorMatrix(double[][] matrix) throws IllegalArgumentException {
+    this(matrix, new double[3]);
+  }
+
+  /**
+   * Constructor to make the product tables of the given matrix, whose rows give the new red,
+   * green, and blue components and whose columns weigh the old ones, and to add the given offset
+   * to each new component before it is rounded.
+   *
+   * @param matrix  the 3x3 matrix.
+   * @param offsets the amounts added to the new red, green, and blue components.
+   * @throws IllegalArgumentException if the matrix is null, not 3x3, or has an entry that is not
+   *                                  a finite number, or if the offsets are null, not three, or
+   *                                  not finite numbers.
+   */
+  public ColorMatrix(double[][] matrix, double[] offsets) throws IllegalArgumentException {
+    checkMatrix(matrix, offsets);
+    this.products = new double[9 * 256];
+    for (int entry = 0; entry < 9; entry++) {
+      double weight = matrix[entry / 3][entry % 3];
+      for (int value = 0; value < 256; value++) {
+        this.products[(entry << 8) | value] = value * weight;
+      }
+    }
+    this.offsets = offsets.clone();
+    this.grey = Arrays.equals(matrix[0], matrix[1]) && Arrays.equals(matrix[0], matrix[2])
+        && offsets[0] == offsets[1] && offsets[0] == offsets[2];
+  }
+
+  /**
+   * Check that the given matrix is 3x3 and the given offsets are three, all of them finite
+   * numbers.
+   *
+   * @param matrix  the 3x3 matrix.
+   * @param offsets the amounts added to the new red, green, and blue components.
+   * @throws IllegalArgumentException if the matrix or offsets are not of that shape or hold a
+   *                                  number that is not finite.
+   */
+  static void checkMatrix(double[][] matrix, double[] offsets) throws IllegalArgumentException {
+    if (matrix == null || matrix.length != 3) {
+      throw new IllegalArgumentException("Color matrix must be 3x3");
+    }
+    for (double[] row : matrix) {
+      if (row == null || row.length != 3) {
+        throw new IllegalArgumentException("Color matrix must be 3x3");
+      }
+      for (double entry : row) {
+        if (!Double.isFinite(entry)) {
+          throw new IllegalArgumentException("Color matrix entries must be finite numbers");
+        }
+      }
+    }
+    if (offsets == null || offsets.length != 3) {
+      throw new IllegalArgumentException("Color matrix must have three offsets");
+    }
+    for (double offset : offsets) {
+      if (!Double.isFinite(offset)) {
+        throw new IllegalArgumentException("Color matrix offsets must be finite numbers");
+      }
+    }
+  }
+
+  /**
+   * Check whether every row of this matrix and every offset is the same, so it turns every pixel
+   * grey.
+   *
+   * @return true if this matrix always gives grey pixels, false otherwise.
+   */
+  public boolean isGreyScale() {
+    return this.grey;
+  }
+
+  /**
+   * Multiply this matrix with the components of the given pixel.
+   *
+   * @param rgb the packed pixel.
+   * @return the packed product, each component rounded and bounded to [0, 255].
+   */
+  @Override
+  public int applyAsInt(int rgb) {
+    int red = PackedRGB.red(rgb);
+    int green = PackedRGB.green(rgb);
+    int blue = PackedRGB.blue(rgb);
+    int newRed = this.channel(0, red, green, blue);
+    if (this.grey) {
+      return newRed * 0x010101;
+    }
+    return PackedRGB.pack(newRed, this.channel(1, red, green, blue),
+        this.channel(2, red, green, blue));
+  }
+
+  /**
+   * Compute one component of the product of this matrix with a pixel plus its offset.
+   *
+   * @param row   the row of the matrix, 0 for red, 1 for green, and 2 for blue.
+   * @param red   the red component of the pixel.
+   * @param green the green component of the pixel.
+   * @param blue  the blue component of the pixel.
+   * @return the component rounded and bounded to [0, 255].
+   */
+  private int channel(int row, int red, int green, int blue) {
+    int base = (3 * row) << 8;
+    long value = Math.round(this.products[base | red] + this.products[(base + 256) | green]
+        + this.products[(base + 512) | blue] + this.offsets[row]);
+    return (int) Math.max(0, Math.min(255, value));
+  }
+}
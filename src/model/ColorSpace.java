@@ -0,0 +1,192 @@
+package model;
+
+/**
+ * An enumerated type to represent a color space that red, green, and blue components can be
+ * converted to and from in bulk. Each conversion works in place on a buffer of pixels stored as
+ * three floats in [0, 1] after one another, such as one row of an image, so that an operation in
+ * the color space is one pass over a primitive buffer without an object per pixel. The loops use
+ * arithmetic, minimums, and maximums on each pixel with as few branches as the conversions allow,
+ * so the JIT can compile most of them to straight-line code. Hues are given as fractions of a full
+ * turn in [0, 1).
+ */
+public enum ColorSpace {
+  /**
+   * Hue, saturation, and value, where value is the largest component and saturation is the
+   * spread of the components relative to it.
+   */
+  HSV {
+    @Override
+    public void fromRgb(float[] pixels, int count) {
+      checkBuffer(pixels, count);
+      for (int i = 0; i < 3 * count; i += 3) {
+        float red = pixels[i];
+        float green = pixels[i + 1];
+        float blue = pixels[i + 2];
+        float max = Math.max(red, Math.max(green, blue));
+        float chroma = max - Math.min(red, Math.min(green, blue));
+        pixels[i] = hue(red, green, blue, max, chroma);
+        pixels[i + 1] = max > 0 ? chroma / max : 0;
+        pixels[i + 2] = max;
+      }
+    }
+
+    @Override
+    public void toRgb(float[] pixels, int count) {
+      checkBuffer(pixels, count);
+      for (int i = 0; i < 3 * count; i += 3) {
+        float hue = pixels[i] * 6;
+        float saturation = pixels[i + 1];
+        float value = pixels[i + 2];
+        float chroma = value * saturation;
+        pixels[i] = value - chroma * ramp((5 + hue) % 6);
+        pixels[i + 1] = value - chroma * ramp((3 + hue) % 6);
+        pixels[i + 2] = value - chroma * ramp((1 + hue) % 6);
+      }
+    }
+
+    /**
+     * Get how far the component at the given position on the hue circle of six sectors is below
+     * the value, as a fraction of the chroma.
+     */
+    private float ramp(float k) {
+      return Math.max(0, Math.min(1, Math.min(k, 4 - k)));
+    }
+  },
+  /**
+   * Hue, saturation, and lightness, where lightness is halfway between the largest and smallest
+   * components and saturation is their spread relative to the most it can be at that lightness.
+   */
+  HSL {
+    @Override
+    public void fromRgb(float[] pixels, int count) {
+      checkBuffer(pixels, count);
+      for (int i = 0; i < 3 * count; i += 3) {
+        float red = pixels[i];
+        float green = pixels[i + 1];
+        float blue = pixels[i + 2];
+        float max = Math.max(red, Math.max(green, blue));
+        float min = Math.min(red, Math.min(green, blue));
+        float chroma = max - min;
+        float lightness = (max + min) / 2;
+        float spread = 1 - Math.abs(2 * lightness - 1);
+        pixels[i] = hue(red, green, blue, max, chroma);
+        pixels[i + 1] = spread > 0 ? Math.min(1, chroma / spread) : 0;
+        pixels[i + 2] = lightness;
+      }
+    }
+
+    @Override
+    public void toRgb(float[] pixels, int count) {
+      checkBuffer(pixels, count);
+      for (int i = 0; i < 3 * count; i += 3) {
+        float hue = pixels[i] * 12;
+        float lightness = pixels[i + 2];
+        float amount = pixels[i + 1] * Math.min(lightness, 1 - lightness);
+        pixels[i] = lightness - amount * ramp(hue % 12);
+        pixels[i + 1] = lightness - amount * ramp((8 + hue) % 12);
+        pixels[i + 2] = lightness - amount * ramp((4 + hue) % 12);
+      }
+    }
+
+    /**
+     * Get the direction the component at the given position on the hue circle of twelve sectors
+     * moves from the lightness, as a fraction of the largest amount it can move.
+     */
+    private float ramp(float k) {
+      return Math.max(-1, Math.min(1, Math.min(k - 3, 9 - k)));
+    }
+  },
+  /**
+   * Luma and blue and red chroma differences as in JPEG, with both chroma differences centered on
+   * one half so that grey pixels have chroma components of one half.
+   */
+  YCBCR {
+    @Override
+    public void fromRgb(float[] pixels, int count) {
+      checkBuffer(pixels, count);
+      for (int i = 0; i < 3 * count; i += 3) {
+        float red = pixels[i];
+        float green = pixels[i + 1];
+        float blue = pixels[i + 2];
+        pixels[i] = 0.299f * red + 0.587f * green + 0.114f * blue;
+        pixels[i + 1] = 0.5f - 0.168736f * red - 0.331264f * green + 0.5f * blue;
+        pixels[i + 2] = 0.5f + 0.5f * red - 0.418688f * green - 0.081312f * blue;
+      }
+    }
+
+    @Override
+    public void toRgb(float[] pixels, int count) {
+      checkBuffer(pixels, count);
+      for (int i = 0; i < 3 * count; i += 3) {
+        float luma = pixels[i];
+        float blue = pixels[i + 1] - 0.5f;
+        float red = pixels[i + 2] - 0.5f;
+        pixels[i] = luma + 1.402f * red;
+        pixels[i + 1] = luma - 0.344136f * blue - 0.714136f * red;
+        pixels[i + 2] = luma + 1.772f * blue;
+      }
+    }
+  };
+
+  /**
+   * Convert the given number of pixels at the start of the given buffer from red, green, and blue
+   * components to the components of this color space, in place.
+   *
+   * @param pixels the buffer of three components per pixel, each red, green, and blue in [0, 1].
+   * @param count  the number of pixels to convert.
+   * @throws IllegalArgumentException if the buffer is null or holds fewer pixels than the count.
+   */
+  public abstract void fromRgb(float[] pixels, int count) throws IllegalArgumentException;
+
+  /**
+   * Convert the given number of pixels at the start of the given buffer from the components of
+   * this color space to red, green, and blue components, in place. The red, green, and blue
+   * components may fall outside of [0, 1] for components that do not describe a color, and are
+   * bounded when they are stored.
+   *
+   * @param pixels the buffer of three components per pixel in this color space.
+   * @param count  the number of pixels to convert.
+   * @throws IllegalArgumentException if the buffer is null or holds fewer pixels than the count.
+   */
+  public abstract void toRgb(float[] pixels, int count) throws IllegalArgumentException;
+
+  /**
+   * Check that the given buffer holds the given number of pixels.
+   *
+   * @param pixels the buffer of three components per pixel.
+   * @param count  the number of pixels to convert.
+   * @throws IllegalArgumentException if the buffer is null or too short, or the count negative.
+   */
+  private static void checkBuffer(float[] pixels, int count) throws IllegalArgumentException {
+    if (pixels == null || count < 0 || 3L * count > pixels.length) {
+      throw new IllegalArgumentException("Buffer does not hold that many pixels");
+    }
+  }
+
+  /**
+   * Get the hue of a pixel as a fraction of a full turn, with red at 0, green at one third, and
+   * blue at two thirds, or 0 for a grey pixel.
+   *
+   * @param red    the red component.
+   * @param green  the green component.
+   * @param blue   the blue component.
+   * @param max    the largest component.
+   * @param chroma the largest component minus the smallest one.
+   * @return the hue in [0, 1).
+   */
+  private static float hue(float red, float green, float blue, float max, float chroma) {
+    if (chroma <= 0) {
+      return 0;
+    }
+    float sector;
+    if (max == red) {
+      sector = (green - blue) / chroma;
+    } else if (max == green) {
+      sector = (blue - red) / chroma + 2;
+    } else {
+      sector = (red - green) / chroma + 4;
+    }
+    float hue = sector / 6;
+    return hue < 0 ? hue + 1 : hue;
+  }
+}
@@ -0,0 +1,306 @@
+package model;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * To represent an image processor that many threads can use at once. Every image name is guarded
+ * by one of a fixed set of read/write locks chosen by the hash of the name: an operation holds the
+ * read lock of the image it reads and the write lock of the image it stores, so operations reading
+ * the same image run in parallel, and operations on different names only wait on each other when
+ * their names share a lock. Locks are always taken in the same order, so operations cannot
+ * deadlock. Replaced and dropped images are released once no operation is running, since another
+ * thread may still be reading them until then. An operation that ends while others are running
+ * leaves them for later, unless more than {@value #MAX_PENDING} are waiting, in which case it waits
+ * for the running operations to end and holds off new ones until it has released them, so memory
+ * is freed even if operations keep overlapping.
+ */
+public class ConcurrentImageProcessor extends HistogramImageProcessor {
+
+  private static final int STRIPES = 64;
+
+  /**
+   * The most replaced and dropped images that may wait to be released once an operation ends.
+   */
+  static final int MAX_PENDING = 16;
+
+  private final ConcurrentImageStore store;
+  private final ReentrantReadWriteLock[] stripes;
+  private final ReentrantReadWriteLock inFlight;
+
+  /**
+   * ConcurrentImageProcessor default constructor that stores each image as packed pixels.
+   */
+  public ConcurrentImageProcessor() {
+    this(ProcessorOptions.DEFAULT);
+  }
+
+  /**
+   * ConcurrentImageProcessor constructor that stores and computes its images as the given options
+   * say.
+   *
+   * @param options how images are stored and computed.
+   * @throws IllegalArgumentException if the given options are null.
+   */
+  public ConcurrentImageProcessor(ProcessorOptions options) throws IllegalArgumentException {
+    this(options, new ConcurrentImageStore());
+  }
+
+  private ConcurrentImageProcessor(ProcessorOptions options, ConcurrentImageStore store)
+      throws IllegalArgumentException {
+    super(options, store);
+    this.store = store;
+    this.stripes = new ReentrantReadWriteLock[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      this.stripes[i] = new ReentrantReadWriteLock();
+    }
+    this.inFlight = new ReentrantReadWriteLock();
+  }
+
+  /**
+   * Get the index of the lock guarding the image with the given name.
+   *
+   * @param imageName the name of the image, which may be null.
+   * @return the index of its lock.
+   */
+  private int stripeOf(String imageName) {
+    return imageName == null ? 0 : Math.floorMod(imageName.hashCode(), STRIPES);
+  }
+
+  /**
+   * Run the given operation while no pending images are being released, then release them if no
+   * other operation is running, or once the other operations end if too many are pending. An
+   * operation run from within another one leaves them to the outer one, which could never get the
+   * lock to release them while its own operation holds it.
+   *
+   * @param operation the operation to run.
+   * @param <T>       the type of the result of the operation.
+   * @return the result of the operation.
+   */
+  private <T> T running(Supplier<T> operation) {
+    this.inFlight.readLock().lock();
+    try {
+      return operation.get();
+    } finally {
+      this.inFlight.readLock().unlock();
+      if (this.store.hasPendingReleases() && this.inFlight.getReadHoldCount() == 0
+          && this.lockForRelease()) {
+        try {
+          this.store.releasePending();
+        } finally {
+          this.inFlight.writeLock().unlock();
+        }
+      }
+    }
+  }
+
+  /**
+   * Take the lock that keeps operations from running while pending images are released: right away
+   * if no operation is running, or once they have ended if more than {@value #MAX_PENDING} images
+   * are pending.
+   *
+   * @return true if the lock was taken, false if the pending images are left for later.
+   */
+  private boolean lockForRelease() {
+    if (this.store.countPendingReleases() <= MAX_PENDING) {
+      return this.inFlight.writeLock().tryLock();
+    }
+    this.inFlight.writeLock().lock();
+    return true;
+  }
+
+  /**
+   * Run the given operation holding the read lock of the given image.
+   *
+   * @param imageName the name of the image the operation reads.
+   * @param operation the operation to run.
+   * @param <T>       the type of the result of the operation.
+   * @return the result of the operation.
+   */
+  private <T> T reading(String imageName, Supplier<T> operation) {
+    return this.running(() -> {
+      Lock lock = this.stripes[this.stripeOf(imageName)].readLock();
+      lock.lock();
+      try {
+        return operation.get();
+      } finally {
+        lock.unlock();
+      }
+    });
+  }
+
+  /**
+   * Run the given operation holding the read lock of the image it reads and the write lock of the
+   * image it stores, taking the lock with the lower index first.
+   *
+   * @param imageName    the name of the image the operation reads, or null if it reads none.
+   * @param newImageName the name of the image the operation stores or drops.
+   * @param operation    the operation to run.
+   */
+  private void writing(String imageName, String newImageName, Runnable operation) {
+    this.running(() -> {
+      int target = this.stripeOf(newImageName);
+      int source = imageName == null ? target : this.stripeOf(imageName);
+      Lock first;
+      Lock second = null;
+      if (source < target) {
+        first = this.stripes[source].readLock();
+        second = this.stripes[target].writeLock();
+      } else {
+        first = this.stripes[target].writeLock();
+        if (source > target) {
+          second = this.stripes[source].readLock();
+        }
+      }
+      first.lock();
+      try {
+        if (second != null) {
+          second.lock();
+        }
+        try {
+          operation.run();
+        } finally {
+          if (second != null) {
+            second.unlock();
+          }
+        }
+      } finally {
+        first.unlock();
+      }
+      return null;
+    });
+  }
+
+  @Override
+  public void loadImage(String imageName, ImageRaster image) throws IllegalArgumentException {
+    this.writing(null, imageName, () -> super.loadImage(imageName, image));
+  }
+
+  @Override
+  public void brighten(int increment, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    this.writing(imageName, newImageName, () -> super.brighten(increment, imageName,
+        newImageName));
+  }
+
+  @Override
+  public void greyscaleComponent(Light component, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    this.writing(imageName, newImageName, () -> super.greyscaleComponent(component, imageName,
+        newImageName));
+  }
+
+  @Override
+  public void flipImage(boolean isVerticalFlip, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    this.writing(imageName, newImageName, () -> super.flipImage(isVerticalFlip, imageName,
+        newImageName));
+  }
+
+  @Override
+  public void applyOperator(PixelOperator operator, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    this.writing(imageName, newImageName, () -> super.applyOperator(operator, imageName,
+        newImageName));
+  }
+
+  @Override
+  public void sepiaImage(String imageName, String newImageName) {
+    this.writing(imageName, newImageName, () -> super.sepiaImage(imageName, newImageName));
+  }
+
+  @Override
+  public void colorMatrix(double[][] matrix, double[] offsets, String imageName,
+      String newImageName) throws IllegalArgumentException {
+    this.writing(imageName, newImageName, () -> super.colorMatrix(matrix, offsets, imageName,
+        newImageName));
+  }
+
+  @Override
+  public void rotateHue(double degrees, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    this.writing(imageName, newImageName, () -> super.rotateHue(degrees, imageName,
+        newImageName));
+  }
+
+  @Override
+  public void saturate(double factor, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    this.writing(imageName, newImageName, () -> super.saturate(factor, imageName,
+        newImageName));
+  }
+
+  @Override
+  public void adjustYCbCr(double[] gains, double[] offsets, String imageName,
+      String newImageName) throws IllegalArgumentException {
+    this.writing(imageName, newImageName, () -> super.adjustYCbCr(gains, offsets, imageName,
+        newImageName));
+  }
+
+  @Override
+  public void applyExpression(String expression, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    this.writing(imageName, newImageName, () -> super.applyExpression(expression, imageName,
+        newImageName));
+  }
+
+  @Override
+  public void blurImage(String imageName, String newImageName) throws IllegalArgumentException {
+    this.writing(imageName, newImageName, () -> super.blurImage(imageName, newImageName));
+  }
+
+  @Override
+  public void sharpenImage(String imageName, String newImageName)
+      throws IllegalArgumentException {
+    this.writing(imageName, newImageName, () -> super.sharpenImage(imageName, newImageName));
+  }
+
+  @Override
+  public void dropImage(String imageName) throws IllegalArgumentException {
+    this.writing(null, imageName, () -> super.dropImage(imageName));
+  }
+
+  @Override
+  public Pixel getPixelAt(int row, int col, String imageName) throws IllegalArgumentException {
+    return this.reading(imageName, () -> super.getPixelAt(row, col, imageName));
+  }
+
+  @Override
+  public int getWidth(String imageName) throws IllegalArgumentException {
+    return this.reading(imageName, () -> super.getWidth(imageName));
+  }
+
+  @Override
+  public int getHeight(String imageName) throws IllegalArgumentException {
+    return this.reading(imageName, () -> super.getHeight(imageName));
+  }
+
+  @Override
+  public String convertToPPM(String imageName) throws IllegalArgumentException {
+    return this.reading(imageName, () -> super.convertToPPM(imageName));
+  }
+
+  @Override
+  public BufferedImage getBufferedImage(String imageName) throws IllegalArgumentException {
+    return this.reading(imageName, () -> super.getBufferedImage(imageName));
+  }
+
+  @Override
+  public List<IHistogram> getHistogram(String imageName) {
+    return this.reading(imageName, () -> super.getHistogram(imageName));
+  }
+
+  @Override
+  public Map<String, ImageMemory> getMemoryUsage() {
+    return this.running(super::getMemoryUsage);
+  }
+
+  @Override
+  public long getTotalMemory() {
+    return this.running(super::getTotalMemory);
+  }
+}
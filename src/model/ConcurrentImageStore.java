@@ -0,0 +1,120 @@
+package model;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * To represent an image store that many threads can use at once. Images are kept in a concurrent
+ * map, so getting and putting images never blocks. An image that is replaced or removed may still
+ * be read by an operation running on another thread, so it is only released once
+ * {@link #releasePending} is called while no operation is running. Until then it is not counted in
+ * the memory usage of the store.
+ */
+public class ConcurrentImageStore implements ImageStore {
+
+  private final Map<String, ImageRaster> images;
+  private final Queue<ImageRaster> released;
+
+  /**
+   * ConcurrentImageStore default constructor that initializes the map of images.
+   */
+  public ConcurrentImageStore() {
+    this.images = new ConcurrentHashMap<>();
+    this.released = new ConcurrentLinkedQueue<>();
+  }
+
+  @Override
+  public ImageRaster get(String imageName) {
+    return imageName == null ? null : this.images.get(imageName);
+  }
+
+  @Override
+  public ImageRaster peek(String imageName) {
+    return this.get(imageName);
+  }
+
+  /**
+   * Store the given image under the given name. The image it replaces is released, and the stored
+   * images sharing its pixels copy them, by the next call to {@link #releasePending}.
+   *
+   * @throws IllegalArgumentException if the name or image is null.
+   */
+  @Override
+  public void put(String imageName, ImageRaster image) throws IllegalArgumentException {
+    if (imageName == null) {
+      throw new IllegalArgumentException("Image name cannot be null");
+    }
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    ImageRaster old = this.images.put(imageName, image);
+    if (old != null && old != image) {
+      this.released.add(old);
+    }
+  }
+
+  /**
+   * Remove the image with the given name from this store. The image is released, and the stored
+   * images sharing its pixels copy them, by the next call to {@link #releasePending}.
+   */
+  @Override
+  public boolean remove(String imageName) {
+    ImageRaster old = imageName == null ? null : this.images.remove(imageName);
+    if (old == null) {
+      return false;
+    }
+    this.released.add(old);
+    return true;
+  }
+
+  /**
+   * Check whether any replaced or removed image is waiting to be released.
+   *
+   * @return true if {@link #releasePending} has work to do, false otherwise.
+   */
+  public boolean hasPendingReleases() {
+    return !this.released.isEmpty();
+  }
+
+  /**
+   * Count the replaced or removed images waiting to be released.
+   *
+   * @return the number of images {@link #releasePending} would release.
+   */
+  public int countPendingReleases() {
+    return this.released.size();
+  }
+
+  /**
+   * Release every image replaced or removed since the last call, after letting the images still
+   * stored copy any pixels they share with it. No other thread may use the images of this store
+   * while this runs.
+   */
+  public void releasePending() {
+    ImageRaster image;
+    while ((image = this.released.poll()) != null) {
+      for (ImageRaster other : this.images.values()) {
+        other.detach(image);
+      }
+      image.release();
+    }
+  }
+
+  @Override
+  public Map<String, ImageMemory> getMemoryUsage() {
+    Map<String, ImageMemory> usage = new TreeMap<>();
+    for (Map.Entry<String, ImageRaster> entry : this.images.entrySet()) {
+      ImageRaster image = entry.getValue();
+      usage.put(entry.getKey(), new ImageMemory(image.getByteSize(), image.getStorageKind()));
+    }
+    return usage;
+  }
+
+  @Override
+  public SpillStatistics getSpillStatistics() {
+    return new SpillStatistics(0, 0, 0);
+  }
+}
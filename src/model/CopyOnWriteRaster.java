@@ -0,0 +1,62 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent a copy of an image that shares the pixels of its source until it is first written
+ * to.
+ */
+public class CopyOnWriteRaster extends SharedRaster {
+
+  /**
+   * Constructor to make a copy of the given image that shares its pixels until written to.
+   *
+   * @param source the image to share the pixels of.
+   * @throws IllegalArgumentException if the given source is null.
+   */
+  public CopyOnWriteRaster(ImageRaster source) throws IllegalArgumentException {
+    super(source);
+  }
+
+  /**
+   * Make a copy of the given image that shares its pixels until written to. If the image already
+   * shares the pixels of another image, the copy shares that image too, so copies never form a
+   * chain.
+   *
+   * @param image the image to copy.
+   * @return a copy sharing the pixels of the given image.
+   */
+  public static ImageRaster share(ImageRaster image) {
+    ImageRaster owned = ownedPixels(image);
+    if (owned == null) {
+      return image.copy();
+    }
+    return new CopyOnWriteRaster(owned);
+  }
+
+  @Override
+  protected ImageRaster materialize(IntUnaryOperator operation) {
+    if (operation == null) {
+      return this.source.copy();
+    }
+    return this.source.map(operation);
+  }
+
+  @Override
+  protected int getSharedRGB(int row, int col) {
+    return this.source.getRGB(row, col);
+  }
+
+  @Override
+  public int getComponent(int row, int col, int channel) {
+    if (this.isShared()) {
+      return this.source.getComponent(row, col, channel);
+    }
+    return super.getComponent(row, col, channel);
+  }
+
+  @Override
+  protected SharedRaster share() {
+    return new CopyOnWriteRaster(this.source);
+  }
+}
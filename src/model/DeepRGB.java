@@ -0,0 +1,121 @@
+package model;
+
+/**
+ * Helper methods to transform the red, green, and blue components of a pixel with any maximum
+ * value, held in an array of three. Each transformation changes the array in place and gives the
+ * same result as the matching method of {@link PackedRGB} when the maximum value is 255.
+ */
+final class DeepRGB {
+
+  private DeepRGB() {
+  }
+
+  /**
+   * Change all of the given components by the given amount bounded by [0, maxValue].
+   *
+   * @param rgb       the red, green, and blue components to change.
+   * @param increment the amount to add to each component.
+   * @param maxValue  the value of a component at full intensity.
+   */
+  static void changeAllBy(int[] rgb, int increment, int maxValue) {
+    for (int channel = 0; channel < 3; channel++) {
+      rgb[channel] = Math.max(0, Math.min(maxValue, rgb[channel] + increment));
+    }
+  }
+
+  /**
+   * Set all of the given components to the value of the given light component.
+   *
+   * @param rgb       the red, green, and blue components to grey-scale.
+   * @param component the light component to base the grey-scale on.
+   */
+  static void setLightComponent(int[] rgb, Light component) {
+    int value;
+    switch (component) {
+      case RED:
+        value = rgb[0];
+        break;
+      case BLUE:
+        value = rgb[2];
+        break;
+      case GREEN:
+        value = rgb[1];
+        break;
+      case LUMA:
+        value = (int) Math.round((0.2126 * rgb[0]) + (0.7152 * rgb[1]) + (0.0722 * rgb[2]));
+        break;
+      case VALUE:
+        value = Math.max(rgb[2], Math.max(rgb[0], rgb[1]));
+        break;
+      case INTENSITY:
+        value = (int) Math.round((rgb[0] + rgb[2] + rgb[1]) / 3.0);
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid Light component");
+    }
+    rgb[0] = value;
+    rgb[1] = value;
+    rgb[2] = value;
+  }
+
+  /**
+   * Grey-scale the given components via a matrix color transformation for the given light
+   * component.
+   *
+   * @param rgb       the red, green, and blue components to grey-scale.
+   * @param component the light component to base the grey-scale on.
+   * @param maxValue  the value of a component at full intensity.
+   */
+  static void performMatMult(int[] rgb, Light component, int maxValue) {
+    matrixMult(rgb, PackedRGB.getMatrix(rgb[0], rgb[1], rgb[2], component), maxValue);
+  }
+
+  /**
+   * Turn the given components into a sepia tone via a matrix color transformation.
+   *
+   * @param rgb      the red, green, and blue components to tone.
+   * @param maxValue the value of a component at full intensity.
+   */
+  static void sepia(int[] rgb, int maxValue) {
+    matrixMult(rgb, PackedRGB.SEPIA_MATRIX, maxValue);
+  }
+
+  /**
+   * Multiply the given matrix with the given components and add the given offsets, rounding each
+   * component and bounding it to [0, maxValue].
+   *
+   * @param rgb      the red, green, and blue components to transform.
+   * @param matrix   the 3x3 matrix to multiply with.
+   * @param offsets  the amounts added to the new red, green, and blue components.
+   * @param maxValue the value of a component at full intensity.
+   */
+  static void colorMatrix(int[] rgb, double[][] matrix, double[] offsets, int maxValue) {
+    int red = rgb[0];
+    int green = rgb[1];
+    int blue = rgb[2];
+    for (int channel = 0; channel < 3; channel++) {
+      long value = Math.round(red * matrix[channel][0] + green * matrix[channel][1]
+          + blue * matrix[channel][2] + offsets[channel]);
+      rgb[channel] = (int) Math.max(0, Math.min(maxValue, value));
+    }
+  }
+
+  /**
+   * Multiply the given matrix with the given components, rounding each product and capping it at
+   * the maximum value.
+   *
+   * @param rgb      the red, green, and blue components to multiply.
+   * @param matrix   the 3x3 matrix to multiply with.
+   * @param maxValue the value of a component at full intensity.
+   */
+  private static void matrixMult(int[] rgb, double[][] matrix, int maxValue) {
+    int red = rgb[0];
+    int green = rgb[1];
+    int blue = rgb[2];
+    for (int channel = 0; channel < 3; channel++) {
+      int value = (int) Math.round(red * matrix[channel][0] + green * matrix[channel][1]
+          + blue * matrix[channel][2]);
+      rgb[channel] = Math.min(value, maxValue);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package model;
+
+/**
+ * To represent an image with more than 8 bits per component as three 16-bit components per pixel
+ * stored row by row, each in [0, maxValue]. Components are read and written at full precision
+ * through {@link #getComponent} and {@link #setComponent}, while packed 0xRRGGBB pixels are scaled
+ * to and from 8 bits per component, so operations on packed pixels lose precision.
+ */
+public class DeepRaster implements ImageRaster {
+
+  /**
+   * The largest maximum value a component can have.
+   */
+  public static final int MAX_VALUE = 65535;
+
+  private final int width;
+  private final int height;
+  private final int maxValue;
+  private final char[] samples;
+
+  /**
+   * Constructor to make a black raster of the given size whose components go up to the given
+   * maximum value.
+   *
+   * @param width    the number of pixels in a row.
+   * @param height   the number of pixels in a column.
+   * @param maxValue the value of a component at full intensity, in [1, 65535].
+   * @throws IllegalArgumentException if the width or height is negative or the maximum value is
+   *                                  out of range.
+   */
+  public DeepRaster(int width, int height, int maxValue) throws IllegalArgumentException {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Invalid image size");
+    }
+    if (maxValue < 1 || maxValue > MAX_VALUE) {
+      throw new IllegalArgumentException("Maximum value must be in the range [1, 65535]");
+    }
+    this.width = width;
+    this.height = height;
+    this.maxValue = maxValue;
+    this.samples = new char[Math.multiplyExact(3, Math.multiplyExact(width, height))];
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    int index = 3 * (row * this.width + col);
+    return PackedRGB.pack(this.toByte(this.samples[index]), this.toByte(this.samples[index + 1]),
+        this.toByte(this.samples[index + 2]));
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    int index = 3 * (row * this.width + col);
+    this.samples[index] = this.fromByte(PackedRGB.red(rgb));
+    this.samples[index + 1] = this.fromByte(PackedRGB.green(rgb));
+    this.samples[index + 2] = this.fromByte(PackedRGB.blue(rgb));
+  }
+
+  @Override
+  public int getComponent(int row, int col, int channel) {
+    return this.samples[3 * (row * this.width + col) + channel];
+  }
+
+  @Override
+  public void setComponent(int row, int col, int channel, int value) {
+    this.samples[3 * (row * this.width + col) + channel] = (char) value;
+  }
+
+  /**
+   * Scale the given component of this image to 8 bits, rounding to the nearest value.
+   *
+   * @param value the component in [0, maxValue].
+   * @return the component in [0, 255].
+   */
+  private int toByte(int value) {
+    return (value * 255 + this.maxValue / 2) / this.maxValue;
+  }
+
+  /**
+   * Scale the given 8 bit component to this image's maximum value, rounding to the nearest value.
+   *
+   * @param value the component in [0, 255].
+   * @return the component in [0, maxValue].
+   */
+  private char fromByte(int value) {
+    return (char) ((value * this.maxValue + 127) / 255);
+  }
+
+  @Override
+  public ImageRaster copy() {
+    DeepRaster result = new DeepRaster(this.width, this.height, this.maxValue);
+    System.arraycopy(this.samples, 0, result.samples, 0, this.samples.length);
+    return result;
+  }
+
+  @Override
+  public StorageKind getStorageKind() {
+    return StorageKind.DEEP;
+  }
+
+  @Override
+  public boolean writesRowsIndependently() {
+    return true;
+  }
+
+  @Override
+  public long getByteSize() {
+    return 2L * this.samples.length;
+  }
+}
@@ -0,0 +1,178 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent an image derived from a parent image as the runs of pixels in which it differs
+ * from the parent. Pixels outside of every run are read from the parent. The pixels of the image
+ * are only copied once it is written to or its parent is released.
+ */
+public class DeltaRaster extends SharedRaster {
+
+  private final int[] runStarts;
+  private final int[] runOffsets;
+  private final int[] values;
+
+  /**
+   * Constructor to make an image from the given parent and runs of changed pixels.
+   *
+   * @param parent     the image the runs are applied to.
+   * @param runStarts  the index of the first pixel of each run, counted row by row, in order.
+   * @param runOffsets the index in the values of the first pixel of each run, followed by the
+   *                   number of values.
+   * @param values     the packed colors of the changed pixels of every run, one after another.
+   */
+  private DeltaRaster(ImageRaster parent, int[] runStarts, int[] runOffsets, int[] values) {
+    super(parent);
+    this.runStarts = runStarts;
+    this.runOffsets = runOffsets;
+    this.values = values;
+  }
+
+  /**
+   * Encode the given image as its changes against the given parent if those changes take at most
+   * the given fraction of the memory of the full image. An image derived from a delta image is
+   * encoded against that image's parent, so deltas never form a chain. Images with more than 8
+   * bits per component are not encoded.
+   *
+   * @param parent      the image the given image was derived from.
+   * @param image       the derived image.
+   * @param maxFraction the largest size of the delta as a fraction of the size of the image.
+   * @return a delta image with the same pixels as the given image, or the given image itself if
+   *         it cannot be encoded against the parent or its delta would be too large.
+   * @throws IllegalArgumentException if either image is null.
+   */
+  public static ImageRaster encode(ImageRaster parent, ImageRaster image, double maxFraction)
+      throws IllegalArgumentException {
+    if (parent == null || image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    ImageRaster base;
+    if (parent instanceof DeltaRaster && ((DeltaRaster) parent).isShared()) {
+      base = ((DeltaRaster) parent).source;
+    } else {
+      base = ownedPixels(parent);
+    }
+    if (base == null || base == image || base.getWidth() != image.getWidth()
+        || base.getHeight() != image.getHeight() || image.getMaxValue() != 255
+        || base.getMaxValue() != 255) {
+      return image;
+    }
+    // every run costs its start and offset, and every changed pixel its value
+    long maxInts = (long) (maxFraction * image.getByteSize() / 4);
+    int[] starts = new int[16];
+    int[] offsets = new int[17];
+    int[] changed = new int[16];
+    int runs = 0;
+    int count = 0;
+    int index = 0;
+    boolean inRun = false;
+    for (int i = 0; i < image.getHeight(); i++) {
+      for (int j = 0; j < image.getWidth(); j++) {
+        int rgb = image.getRGB(i, j);
+        if (rgb == base.getRGB(i, j)) {
+          inRun = false;
+        } else {
+          if (!inRun) {
+            if (runs + 1 == starts.length) {
+              starts = Arrays.copyOf(starts, 2 * starts.length);
+              offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+            }
+            starts[runs] = index;
+            offsets[runs] = count;
+            runs++;
+            inRun = true;
+          }
+          if (count == changed.length) {
+            changed = Arrays.copyOf(changed, 2 * changed.length);
+          }
+          changed[count++] = rgb;
+          if (2L * runs + 1 + count > maxInts) {
+            return image;
+          }
+        }
+        index++;
+      }
+    }
+    offsets[runs] = count;
+    return new DeltaRaster(base, Arrays.copyOf(starts, runs), Arrays.copyOf(offsets, runs + 1),
+        Arrays.copyOf(changed, count));
+  }
+
+  /**
+   * Get the number of pixels in which this image differs from its parent.
+   *
+   * @return the number of changed pixels.
+   */
+  public int getChangedPixelCount() {
+    return this.values.length;
+  }
+
+  @Override
+  protected ImageRaster materialize(IntUnaryOperator operation) {
+    ImageRaster result = this.source.copy();
+    int width = this.getWidth();
+    for (int k = 0; k < this.runStarts.length; k++) {
+      for (int v = this.runOffsets[k]; v < this.runOffsets[k + 1]; v++) {
+        int index = this.runStarts[k] + v - this.runOffsets[k];
+        result.setRGB(index / width, index % width, this.values[v]);
+      }
+    }
+    if (operation != null) {
+      result.transform(operation);
+    }
+    return result;
+  }
+
+  @Override
+  protected int getSharedRGB(int row, int col) {
+    int index = row * this.getWidth() + col;
+    int k = Arrays.binarySearch(this.runStarts, index);
+    if (k < 0) {
+      k = -k - 2;
+    }
+    if (k >= 0) {
+      int value = this.runOffsets[k] + index - this.runStarts[k];
+      if (value < this.runOffsets[k + 1]) {
+        return this.values[value];
+      }
+    }
+    return this.source.getRGB(row, col);
+  }
+
+  @Override
+  protected SharedRaster share() {
+    return new DeltaRaster(this.source, this.runStarts, this.runOffsets, this.values);
+  }
+
+  @Override
+  public boolean isGreyScale() {
+    if (!this.isShared()) {
+      return super.isGreyScale();
+    }
+    if (!this.source.isGreyScale()) {
+      return false;
+    }
+    for (int rgb : this.values) {
+      if (PackedRGB.red(rgb) != PackedRGB.blue(rgb)
+          || PackedRGB.green(rgb) != PackedRGB.blue(rgb)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public StorageKind getStorageKind() {
+    return this.isShared() ? StorageKind.DELTA : super.getStorageKind();
+  }
+
+  @Override
+  public long getByteSize() {
+    if (!this.isShared()) {
+      return super.getByteSize();
+    }
+    return 4L * (this.runStarts.length + this.runOffsets.length + this.values.length);
+  }
+}
@@ -0,0 +1,52 @@
+package model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Helper to free the memory of direct and memory-mapped buffers as soon as they are no longer
+ * needed instead of waiting for garbage collection.
+ */
+final class DirectBuffers {
+
+  private static final Object UNSAFE;
+  private static final Method INVOKE_CLEANER;
+
+  static {
+    Object unsafe = null;
+    Method invokeCleaner = null;
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      unsafe = theUnsafe.get(null);
+      invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // without it, released buffers are freed by the garbage collector instead
+      unsafe = null;
+      invokeCleaner = null;
+    }
+    UNSAFE = unsafe;
+    INVOKE_CLEANER = invokeCleaner;
+  }
+
+  private DirectBuffers() {
+  }
+
+  /**
+   * Free the memory of the given direct buffer, or unmap it if it is memory-mapped. The buffer
+   * must not be used afterwards.
+   *
+   * @param buffer the direct buffer to free.
+   */
+  static void free(ByteBuffer buffer) {
+    if (INVOKE_CLEANER != null) {
+      try {
+        INVOKE_CLEANER.invoke(UNSAFE, buffer);
+      } catch (ReflectiveOperationException e) {
+        // the buffer is unreachable now, so the garbage collector frees it instead
+      }
+    }
+  }
+}
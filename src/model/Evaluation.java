@@ -0,0 +1,23 @@
+package model;
+
+/**
+ * An enumerated type to represent when a model computes the pixels of the images its operations
+ * produce.
+ */
+public enum Evaluation {
+  /**
+   * Every operation computes its whole result right away.
+   */
+  EAGER,
+  /**
+   * Brighten, grey-scale, and sepia are deferred so that chains of them are fused into one pass,
+   * and every other operation computes its whole result right away.
+   */
+  FUSED,
+  /**
+   * Every operation on an image with 8 bits per component only records how its result is computed
+   * from its source. A single pixel read from a result is computed on its own, and a result is
+   * computed in full the first time it is saved, shown, or counted in a histogram.
+   */
+  LAZY
+}
@@ -0,0 +1,719 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * To compile a formula for the components of each pixel into a {@link PixelOperator}. The formula
+ * is a list of assignments separated by semicolons, such as {@code r' = min(255, r * 1.1 + 5);
+ * b' = (r + g + b) / 3}, that give the new red, green, or blue component of a pixel from its old
+ * components {@code r}, {@code g}, and {@code b} and its position {@code x} (the column) and
+ * {@code y} (the row). Components that are not assigned keep their value. Expressions combine
+ * numbers and names with {@code + - * /}, parentheses, and the functions {@code min}, {@code max},
+ * {@code clamp}, {@code abs}, {@code sqrt}, {@code pow}, {@code exp}, {@code log}, {@code floor},
+ * and {@code ceil}, all computed in double precision. The result is rounded to the nearest integer
+ * and bounded to [0, maxValue] when the operator is applied.
+ *
+ * <p>Instead of walking a parse tree for every component, the formula is translated once into the
+ * bytecode of a hidden class implementing {@link PixelOperator}, which the JIT compiles like any
+ * other operator and can inline into the loop applying it. The class is unloaded once the operator
+ * is no longer used.
+ */
+final class ExpressionCompiler {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final String CLASS_NAME = "model/CompiledExpression";
+  private static final String OPERATOR = "model/PixelOperator";
+  private static final String CURSOR = "model/PixelCursor";
+  private static final String MATH = "java/lang/Math";
+  private static final String[] CHANNELS = {"r", "g", "b"};
+  private static final int MAX_CODE_LENGTH = 65535;
+  // each level of nesting takes a few frames of the parser, so deeper formulas would overflow it
+  private static final int MAX_NESTING = 256;
+
+  // opcodes used by the generated code
+  private static final int ICONST_0 = 0x03;
+  private static final int DCONST_0 = 0x0e;
+  private static final int DCONST_1 = 0x0f;
+  private static final int LDC2_W = 0x14;
+  private static final int ILOAD_2 = 0x1c;
+  private static final int ALOAD_0 = 0x2a;
+  private static final int ALOAD_1 = 0x2b;
+  private static final int DADD = 0x63;
+  private static final int DSUB = 0x67;
+  private static final int DMUL = 0x6b;
+  private static final int DDIV = 0x6f;
+  private static final int DNEG = 0x77;
+  private static final int I2D = 0x87;
+  private static final int D2I = 0x8e;
+  private static final int TABLESWITCH = 0xaa;
+  private static final int IRETURN = 0xac;
+  private static final int RETURN = 0xb1;
+  private static final int INVOKESPECIAL = 0xb7;
+  private static final int INVOKESTATIC = 0xb8;
+  private static final int INVOKEINTERFACE = 0xb9;
+
+  private final String source;
+  private final ConstantPool pool = new ConstantPool();
+  private final ByteArrayOutputStream[] channelCode = new ByteArrayOutputStream[3];
+  private ByteArrayOutputStream code;
+  private int position;
+  private int depth;
+  private int maxDepth;
+  private int nesting;
+
+  /**
+   * Constructor to make a compiler for the given formula.
+   *
+   * @param source the formula to compile.
+   */
+  private ExpressionCompiler(String source) {
+    this.source = source;
+  }
+
+  /**
+   * Compile the given formula into an operator computing the new components of each pixel.
+   *
+   * @param formula the assignments to the new components of a pixel.
+   * @return the compiled operator.
+   * @throws IllegalArgumentException if the formula is null or not a valid list of assignments.
+   * @throws IllegalStateException    if the compiled class cannot be loaded.
+   */
+  static PixelOperator compile(String formula)
+      throws IllegalArgumentException, IllegalStateException {
+    if (formula == null) {
+      throw new IllegalArgumentException("Invalid expression: expression cannot be null");
+    }
+    byte[] classFile = new ExpressionCompiler(formula).translate();
+    try {
+      MethodHandles.Lookup hidden = LOOKUP.defineHiddenClass(classFile, true);
+      return (PixelOperator) hidden.lookupClass().getConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      throw new IllegalStateException("Expression cannot be compiled: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Parse the formula of this compiler and write the class file of the operator computing it.
+   *
+   * @return the bytes of the class file.
+   * @throws IllegalArgumentException if the formula is not a valid list of assignments.
+   */
+  private byte[] translate() throws IllegalArgumentException {
+    this.skipSpaces();
+    if (this.position == this.source.length()) {
+      throw this.error("expected an assignment");
+    }
+    while (this.position < this.source.length()) {
+      this.parseAssignment();
+      if (this.position < this.source.length() && !this.accept(';')) {
+        throw this.error("expected ';'");
+      }
+    }
+    for (int channel = 0; channel < 3; channel++) {
+      if (this.channelCode[channel] == null) {
+        // a component that is not assigned returns its old value
+        this.code = new ByteArrayOutputStream();
+        this.depth = 0;
+        this.emitCursorCall(channel);
+        this.emit(IRETURN);
+        this.channelCode[channel] = this.code;
+      }
+    }
+    try {
+      return this.writeClass();
+    } catch (IOException e) {
+      throw new IllegalStateException("Expression cannot be compiled: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Parse an assignment of an expression to a new component and generate the code returning it.
+   */
+  private void parseAssignment() {
+    String name = this.parseName();
+    int channel = indexOf(name);
+    if (channel < 0 || !this.accept('\'')) {
+      throw this.error("expected r', g', or b'");
+    }
+    if (this.channelCode[channel] != null) {
+      throw this.error(name + "' is assigned twice");
+    }
+    if (!this.accept('=')) {
+      throw this.error("expected '='");
+    }
+    this.code = new ByteArrayOutputStream();
+    this.depth = 0;
+    this.parseSum();
+    // round half up the way Math.round does; d2i saturates values outside of the int range
+    this.emitConstant(0.5);
+    this.emitArithmetic(DADD);
+    this.emitMath("floor", 1);
+    this.emit(D2I);
+    this.pop(1);
+    this.emit(IRETURN);
+    this.channelCode[channel] = this.code;
+  }
+
+  /**
+   * Parse terms joined by additions and subtractions.
+   */
+  private void parseSum() {
+    this.parseProduct();
+    while (true) {
+      if (this.accept('+')) {
+        this.parseProduct();
+        this.emitArithmetic(DADD);
+      } else if (this.accept('-')) {
+        this.parseProduct();
+        this.emitArithmetic(DSUB);
+      } else {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Parse factors joined by multiplications and divisions.
+   */
+  private void parseProduct() {
+    this.parseFactor();
+    while (true) {
+      if (this.accept('*')) {
+        this.parseFactor();
+        this.emitArithmetic(DMUL);
+      } else if (this.accept('/')) {
+        this.parseFactor();
+        this.emitArithmetic(DDIV);
+      } else {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Parse a signed number, name, function call, or parenthesized expression.
+   *
+   * @throws IllegalArgumentException if signs, parentheses, and calls are nested too deeply.
+   */
+  private void parseFactor() throws IllegalArgumentException {
+    if (this.nesting == MAX_NESTING) {
+      throw this.error("expression is nested more than " + MAX_NESTING + " levels deep");
+    }
+    this.nesting++;
+    try {
+      this.parseNestedFactor();
+    } finally {
+      this.nesting--;
+    }
+  }
+
+  /**
+   * Parse a signed number, name, function call, or parenthesized expression one level deeper than
+   * the expression it is part of.
+   */
+  private void parseNestedFactor() {
+    if (this.accept('-')) {
+      this.parseFactor();
+      this.emit(DNEG);
+      return;
+    }
+    if (this.accept('+')) {
+      this.parseFactor();
+      return;
+    }
+    if (this.accept('(')) {
+      this.parseSum();
+      this.expect(')');
+      return;
+    }
+    this.skipSpaces();
+    if (this.position < this.source.length()
+        && (Character.isDigit(this.peek()) || this.peek() == '.')) {
+      this.emitConstant(this.parseNumber());
+      return;
+    }
+    String name = this.parseName();
+    if (this.accept('(')) {
+      this.parseCall(name);
+      return;
+    }
+    int channel = indexOf(name);
+    if (channel >= 0) {
+      this.emitComponent(channel);
+    } else if (name.equals("x") || name.equals("y")) {
+      this.emit(ALOAD_1);
+      this.push(1);
+      this.emitInterfaceCall(name.equals("x") ? "getCol" : "getRow", "()I", 1);
+      this.emit(I2D);
+      this.push(1);
+    } else {
+      throw this.error("unknown name '" + name + "'");
+    }
+  }
+
+  /**
+   * Parse the arguments of a call to the given function, whose opening parenthesis has been read,
+   * and generate the code calling it.
+   *
+   * @param name the name of the function.
+   */
+  private void parseCall(String name) {
+    int arguments = 0;
+    do {
+      this.parseSum();
+      arguments++;
+      // min and max fold each argument after the first into the result so far, and clamp is
+      // max with its low bound followed by min with its high bound
+      if (arguments > 1 && (name.equals("min") || name.equals("max"))) {
+        this.emitMath(name, 2);
+      } else if (name.equals("clamp") && (arguments == 2 || arguments == 3)) {
+        this.emitMath(arguments == 2 ? "max" : "min", 2);
+      }
+    } while (this.accept(','));
+    this.expect(')');
+    switch (name) {
+      case "min":
+      case "max":
+        this.checkArguments(name, arguments >= 2);
+        break;
+      case "clamp":
+        this.checkArguments(name, arguments == 3);
+        break;
+      case "pow":
+        this.checkArguments(name, arguments == 2);
+        this.emitMath(name, 2);
+        break;
+      case "abs":
+      case "sqrt":
+      case "exp":
+      case "log":
+      case "floor":
+      case "ceil":
+        this.checkArguments(name, arguments == 1);
+        this.emitMath(name, 1);
+        break;
+      default:
+        throw this.error("unknown function '" + name + "'");
+    }
+  }
+
+  /**
+   * Check that a call to the given function has the right number of arguments.
+   *
+   * @param name  the name of the function.
+   * @param valid whether the number of arguments is right.
+   */
+  private void checkArguments(String name, boolean valid) {
+    if (!valid) {
+      throw this.error("wrong number of arguments to '" + name + "'");
+    }
+  }
+
+  /**
+   * Parse a name made of letters.
+   *
+   * @return the name.
+   */
+  private String parseName() {
+    this.skipSpaces();
+    int start = this.position;
+    while (this.position < this.source.length() && Character.isLetter(this.peek())) {
+      this.position++;
+    }
+    if (start == this.position) {
+      throw this.error(this.position == this.source.length() ? "unexpected end"
+          : "unexpected '" + this.peek() + "'");
+    }
+    return this.source.substring(start, this.position);
+  }
+
+  /**
+   * Parse a decimal number without a sign.
+   *
+   * @return the number.
+   */
+  private double parseNumber() {
+    int start = this.position;
+    while (this.position < this.source.length()
+        && (Character.isDigit(this.peek()) || this.peek() == '.')) {
+      this.position++;
+    }
+    try {
+      return Double.parseDouble(this.source.substring(start, this.position));
+    } catch (NumberFormatException e) {
+      throw this.error("invalid number '" + this.source.substring(start, this.position) + "'");
+    }
+  }
+
+  /**
+   * Get the channel of the given component name.
+   *
+   * @param name the name to look up.
+   * @return 0 for r, 1 for g, 2 for b, or -1 for any other name.
+   */
+  private static int indexOf(String name) {
+    for (int channel = 0; channel < 3; channel++) {
+      if (CHANNELS[channel].equals(name)) {
+        return channel;
+      }
+    }
+    return -1;
+  }
+
+  private char peek() {
+    return this.source.charAt(this.position);
+  }
+
+  private void skipSpaces() {
+    while (this.position < this.source.length() && Character.isWhitespace(this.peek())) {
+      this.position++;
+    }
+  }
+
+  /**
+   * Read the given character if it is the next one after any spaces.
+   *
+   * @param c the character to read.
+   * @return true if it was read, false otherwise.
+   */
+  private boolean accept(char c) {
+    this.skipSpaces();
+    if (this.position < this.source.length() && this.peek() == c) {
+      this.position++;
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(char c) {
+    if (!this.accept(c)) {
+      throw this.error("expected '" + c + "'");
+    }
+  }
+
+  /**
+   * Make the exception for a mistake at the current position of the formula.
+   *
+   * @param message what is wrong.
+   * @return the exception to throw.
+   */
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException("Invalid expression: " + message + " at position "
+        + this.position);
+  }
+
+  private void emit(int opcode) {
+    this.code.write(opcode);
+  }
+
+  private void emitShort(int value) {
+    this.code.write(value >> 8);
+    this.code.write(value);
+  }
+
+  private void push(int slots) {
+    this.depth += slots;
+    this.maxDepth = Math.max(this.maxDepth, this.depth);
+  }
+
+  private void pop(int slots) {
+    this.depth -= slots;
+  }
+
+  /**
+   * Generate the code pushing the given double.
+   *
+   * @param value the constant to push.
+   */
+  private void emitConstant(double value) {
+    if (Double.doubleToRawLongBits(value) == 0L) {
+      this.emit(DCONST_0);
+    } else if (value == 1.0) {
+      this.emit(DCONST_1);
+    } else {
+      this.emit(LDC2_W);
+      this.emitShort(this.pool.doubleConstant(value));
+    }
+    this.push(2);
+  }
+
+  /**
+   * Generate the code pushing the given component of the pixel under the cursor as a double.
+   *
+   * @param channel 0 for red, 1 for green, or 2 for blue.
+   */
+  private void emitComponent(int channel) {
+    this.emitCursorCall(channel);
+    this.emit(I2D);
+    this.push(1);
+  }
+
+  /**
+   * Generate the code pushing the given component of the pixel under the cursor as an int.
+   *
+   * @param channel 0 for red, 1 for green, or 2 for blue.
+   */
+  private void emitCursorCall(int channel) {
+    this.emit(ALOAD_1);
+    this.emit(ICONST_0);
+    this.emit(ICONST_0);
+    this.emit(ICONST_0 + channel);
+    this.push(4);
+    this.emitInterfaceCall("getComponent", "(III)I", 4);
+  }
+
+  /**
+   * Generate a call to a method of the cursor returning an int, which pops the cursor and the
+   * arguments and pushes the result.
+   *
+   * @param name       the name of the method.
+   * @param descriptor the descriptor of the method.
+   * @param slots      the number of stack slots taken by the cursor and the arguments.
+   */
+  private void emitInterfaceCall(String name, String descriptor, int slots) {
+    this.emit(INVOKEINTERFACE);
+    this.emitShort(this.pool.interfaceMethod(CURSOR, name, descriptor));
+    this.emit(slots);
+    this.emit(0);
+    this.pop(slots);
+    this.push(1);
+  }
+
+  /**
+   * Generate an arithmetic instruction taking two doubles and pushing one.
+   *
+   * @param opcode the instruction.
+   */
+  private void emitArithmetic(int opcode) {
+    this.emit(opcode);
+    this.pop(2);
+  }
+
+  /**
+   * Generate a call to the method of {@link Math} with the given name taking the given number of
+   * doubles and returning a double.
+   *
+   * @param name      the name of the method.
+   * @param arguments the number of double arguments.
+   */
+  private void emitMath(String name, int arguments) {
+    this.emit(INVOKESTATIC);
+    this.emitShort(this.pool.method(MATH, name,
+        "(" + "D".repeat(arguments) + ")D"));
+    this.pop(2 * arguments);
+    this.push(2);
+  }
+
+  /**
+   * Write the class file of a final class implementing {@link PixelOperator} whose apply method
+   * switches on the channel to the code generated for it.
+   *
+   * @return the bytes of the class file.
+   * @throws IOException if the bytes cannot be written.
+   * @throws IllegalArgumentException if the generated code is too long for one method.
+   */
+  private byte[] writeClass() throws IOException, IllegalArgumentException {
+    ByteArrayOutputStream apply = new ByteArrayOutputStream();
+    // iload_2, tableswitch, and padding up to the next multiple of 4
+    apply.write(ILOAD_2);
+    apply.write(TABLESWITCH);
+    apply.write(0);
+    apply.write(0);
+    int[] targets = new int[3];
+    int offset = 4 + 6 * 4;
+    for (int channel = 0; channel < 3; channel++) {
+      targets[channel] = offset;
+      offset += this.channelCode[channel].size();
+    }
+    if (offset > MAX_CODE_LENGTH) {
+      throw new IllegalArgumentException("Invalid expression: expression is too long");
+    }
+    DataOutputStream table = new DataOutputStream(apply);
+    // offsets are relative to the tableswitch at position 1; anything but 1 or 2 reads as red
+    table.writeInt(targets[0] - 1);
+    table.writeInt(0);
+    table.writeInt(2);
+    for (int target : targets) {
+      table.writeInt(target - 1);
+    }
+    for (ByteArrayOutputStream channel : this.channelCode) {
+      channel.writeTo(apply);
+    }
+
+    // every branch target has the same locals as the start of the method and an empty stack
+    ByteArrayOutputStream frames = new ByteArrayOutputStream();
+    DataOutputStream frameData = new DataOutputStream(frames);
+    frameData.writeShort(targets.length);
+    int previous = -1;
+    for (int target : targets) {
+      frameData.write(251); // same_frame_extended
+      frameData.writeShort(target - previous - 1);
+      previous = target;
+    }
+
+    int thisClass = this.pool.classEntry(CLASS_NAME);
+    int objectClass = this.pool.classEntry("java/lang/Object");
+    int operatorClass = this.pool.classEntry(OPERATOR);
+    int objectInit = this.pool.method("java/lang/Object", "<init>", "()V");
+    int initName = this.pool.utf8("<init>");
+    int initType = this.pool.utf8("()V");
+    int applyName = this.pool.utf8("apply");
+    int applyType = this.pool.utf8("(L" + CURSOR + ";I)I");
+    int codeName = this.pool.utf8("Code");
+    int framesName = this.pool.utf8("StackMapTable");
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(0xcafebabe);
+    out.writeShort(0);
+    out.writeShort(61);
+    this.pool.writeTo(out);
+    out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+    out.writeShort(thisClass);
+    out.writeShort(objectClass);
+    out.writeShort(1);
+    out.writeShort(operatorClass);
+    out.writeShort(0); // fields
+    out.writeShort(2); // methods
+
+    byte[] init = {(byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8),
+        (byte) objectInit, (byte) RETURN};
+    out.writeShort(0x0001);
+    out.writeShort(initName);
+    out.writeShort(initType);
+    out.writeShort(1);
+    writeCode(out, codeName, 1, 1, init, -1, null);
+
+    out.writeShort(0x0001);
+    out.writeShort(applyName);
+    out.writeShort(applyType);
+    out.writeShort(1);
+    writeCode(out, codeName, this.maxDepth, 3, apply.toByteArray(), framesName,
+        frames.toByteArray());
+
+    out.writeShort(0); // class attributes
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Write the Code attribute of a method.
+   *
+   * @param out        where to write it.
+   * @param codeName   the constant naming the Code attribute.
+   * @param maxStack   the deepest the operand stack gets, in slots.
+   * @param maxLocals  the number of local variable slots.
+   * @param code       the instructions.
+   * @param framesName the constant naming the StackMapTable attribute, unused without frames.
+   * @param frames     the body of the StackMapTable attribute, or null if the code has no branches.
+   * @throws IOException if the bytes cannot be written.
+   */
+  private static void writeCode(DataOutputStream out, int codeName, int maxStack, int maxLocals,
+      byte[] code, int framesName, byte[] frames) throws IOException {
+    int framesLength = frames == null ? 0 : 6 + frames.length;
+    out.writeShort(codeName);
+    out.writeInt(2 + 2 + 4 + code.length + 2 + 2 + framesLength);
+    out.writeShort(maxStack);
+    out.writeShort(maxLocals);
+    out.writeInt(code.length);
+    out.write(code);
+    out.writeShort(0); // exception table
+    if (frames == null) {
+      out.writeShort(0);
+      return;
+    }
+    out.writeShort(1);
+    out.writeShort(framesName);
+    out.writeInt(frames.length);
+    out.write(frames);
+  }
+
+  /**
+   * To represent the constant pool of a class file being written, which gives every distinct
+   * constant one index.
+   */
+  private static final class ConstantPool {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final Map<String, Integer> indices = new HashMap<>();
+    private int count = 1;
+
+    /**
+     * Get the index of the constant with the given key, adding it with the given tag and body if
+     * it is not in the pool yet.
+     *
+     * @param key   the key identifying the constant.
+     * @param tag   the tag of the constant.
+     * @param slots the number of indices the constant takes.
+     * @param body  the bytes following the tag.
+     * @return the index of the constant.
+     */
+    private int entry(String key, int tag, int slots, byte[] body) {
+      Integer index = this.indices.get(key);
+      if (index != null) {
+        return index;
+      }
+      this.bytes.write(tag);
+      this.bytes.writeBytes(body);
+      this.indices.put(key, this.count);
+      this.count += slots;
+      return this.count - slots;
+    }
+
+    private int utf8(String value) {
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      try {
+        new DataOutputStream(body).writeUTF(value);
+      } catch (IOException e) {
+        throw new IllegalStateException(e.getMessage());
+      }
+      return this.entry("utf8:" + value, 1, 1, body.toByteArray());
+    }
+
+    private int doubleConstant(double value) {
+      long bits = Double.doubleToRawLongBits(value);
+      byte[] body = new byte[8];
+      for (int i = 0; i < 8; i++) {
+        body[i] = (byte) (bits >>> (56 - 8 * i));
+      }
+      return this.entry("double:" + bits, 6, 2, body);
+    }
+
+    private int classEntry(String name) {
+      return this.entry("class:" + name, 7, 1, shorts(this.utf8(name)));
+    }
+
+    private int nameAndType(String name, String descriptor) {
+      return this.entry("nameAndType:" + name + ":" + descriptor, 12, 1,
+          shorts(this.utf8(name), this.utf8(descriptor)));
+    }
+
+    private int method(String owner, String name, String descriptor) {
+      return this.entry("method:" + owner + "." + name + descriptor, 10, 1,
+          shorts(this.classEntry(owner), this.nameAndType(name, descriptor)));
+    }
+
+    private int interfaceMethod(String owner, String name, String descriptor) {
+      return this.entry("interfaceMethod:" + owner + "." + name + descriptor, 11, 1,
+          shorts(this.classEntry(owner), this.nameAndType(name, descriptor)));
+    }
+
+    private static byte[] shorts(int... values) {
+      byte[] body = new byte[2 * values.length];
+      for (int i = 0; i < values.length; i++) {
+        body[2 * i] = (byte) (values[i] >> 8);
+        body[2 * i + 1] = (byte) values[i];
+      }
+      return body;
+    }
+
+    private void writeTo(DataOutputStream out) throws IOException {
+      out.writeShort(this.count);
+      this.bytes.writeTo(out);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent an image flipped vertically, horizontally, or both, as a view that reads the
+ * pixels of its source at remapped positions. The flipped pixels are only copied once the view is
+ * written to or its source is released.
+ */
+public class FlippedRaster extends SharedRaster {
+
+  private final boolean vertical;
+  private final boolean horizontal;
+
+  /**
+   * Constructor to make a flipped view of the given image.
+   *
+   * @param source     the image to flip.
+   * @param vertical   whether the rows are flipped.
+   * @param horizontal whether the columns are flipped.
+   * @throws IllegalArgumentException if the given source is null.
+   */
+  private FlippedRaster(ImageRaster source, boolean vertical, boolean horizontal)
+      throws IllegalArgumentException {
+    super(source);
+    this.vertical = vertical;
+    this.horizontal = horizontal;
+  }
+
+  /**
+   * Flip the given image without copying its pixels. Flipping a flipped view gives a single view
+   * of the original source with both flips combined.
+   *
+   * @param image          the image to flip.
+   * @param isVerticalFlip whether to flip the rows instead of the columns.
+   * @return a flipped view of the image.
+   * @throws IllegalArgumentException if the given image is null.
+   */
+  public static ImageRaster flip(ImageRaster image, boolean isVerticalFlip)
+      throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (image instanceof FlippedRaster && ((FlippedRaster) image).isShared()) {
+      FlippedRaster flipped = (FlippedRaster) image;
+      return new FlippedRaster(flipped.source, flipped.vertical ^ isVerticalFlip,
+          flipped.horizontal ^ !isVerticalFlip);
+    }
+    if (image instanceof CopyOnWriteRaster && ((CopyOnWriteRaster) image).isShared()) {
+      image = ((CopyOnWriteRaster) image).source;
+    }
+    ImageRaster owned = ownedPixels(image);
+    return new FlippedRaster(owned == null ? image : owned, isVerticalFlip, !isVerticalFlip);
+  }
+
+  @Override
+  protected ImageRaster materialize(IntUnaryOperator operation) {
+    ImageRaster result = this.source.copy();
+    if (operation == null && this.source.getMaxValue() != 255) {
+      // copy each component so that images with more than 8 bits keep their precision
+      for (int i = 0; i < this.getHeight(); i++) {
+        for (int j = 0; j < this.getWidth(); j++) {
+          for (int channel = 0; channel < 3; channel++) {
+            result.setComponent(i, j, channel, this.getComponent(i, j, channel));
+          }
+        }
+      }
+      return result;
+    }
+    for (int i = 0; i < this.getHeight(); i++) {
+      for (int j = 0; j < this.getWidth(); j++) {
+        int rgb = this.getSharedRGB(i, j);
+        result.setRGB(i, j, operation == null ? rgb : operation.applyAsInt(rgb));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  protected int getSharedRGB(int row, int col) {
+    return this.source.getRGB(this.vertical ? this.getHeight() - 1 - row : row,
+        this.horizontal ? this.getWidth() - 1 - col : col);
+  }
+
+  @Override
+  public int getComponent(int row, int col, int channel) {
+    if (this.isShared()) {
+      return this.source.getComponent(this.vertical ? this.getHeight() - 1 - row : row,
+          this.horizontal ? this.getWidth() - 1 - col : col, channel);
+    }
+    return super.getComponent(row, col, channel);
+  }
+
+  @Override
+  protected SharedRaster share() {
+    return new FlippedRaster(this.source, this.vertical, this.horizontal);
+  }
+}
@@ -0,0 +1,126 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent the result of one or more operations on every pixel of a source image that have not
+ * been applied yet. Each pixel is computed from the source when it is read, and an operation on
+ * every pixel of this image is composed with the ones before it instead of being applied, so a
+ * chain of such operations only makes one pass over the pixels once the result is needed in
+ * full. The source is only another view in a lazy model, which defers operations on any image.
+ * Since reading a pixel goes through every composed operation, at most {@value #MAX_OPERATIONS}
+ * operations are composed; a longer chain computes the image it is applied to first.
+ */
+public class FusedRaster extends SharedRaster {
+
+  /**
+   * The most operations that reading one pixel of a deferred result may compute through.
+   */
+  static final int MAX_OPERATIONS = 16;
+
+  private final IntUnaryOperator operation;
+  private final int operations;
+  private final boolean grey;
+  private final StorageLayout greyLayout;
+
+  /**
+   * Constructor to make the result of the given operation on the given source.
+   *
+   * @param source     the image to apply the operation to.
+   * @param operation  the operation taking and returning a packed 0xRRGGBB pixel.
+   * @param operations the number of operations composed into the given operation.
+   * @param grey       whether the operation gives only grey pixels for this source.
+   * @param greyLayout the layout a grey result copies itself into once a pixel that is not grey
+   *                   is written.
+   */
+  private FusedRaster(ImageRaster source, IntUnaryOperator operation, int operations,
+      boolean grey, StorageLayout greyLayout) {
+    super(source);
+    this.operation = operation;
+    this.operations = operations;
+    this.grey = grey;
+    this.greyLayout = greyLayout;
+  }
+
+  /**
+   * Check whether the given operation can be deferred on the given image: it must hold 8 bits per
+   * component and either be a deferred result itself or own its pixels.
+   *
+   * @param image the image the operation would be applied to.
+   * @return true if {@link #fuse} can defer an operation on the image, false otherwise.
+   */
+  public static boolean canFuse(ImageRaster image) {
+    if (image == null || image.getMaxValue() != 255) {
+      return false;
+    }
+    return image instanceof FusedRaster || ownedPixels(image) != null;
+  }
+
+  /**
+   * Get the result of the given operation on every pixel of the given image without applying it.
+   * If the image is itself a deferred result, the operation is composed with the ones it defers,
+   * unless it already defers {@value #MAX_OPERATIONS} of them, in which case the image computes its
+   * pixels first and the operation is deferred on them. If the image is another view that
+   * {@link #canFuse} does not accept, the result reads through it.
+   *
+   * @param image      the image to apply the operation to, with 8 bits per component.
+   * @param operation  the operation taking and returning a packed 0xRRGGBB pixel.
+   * @param grey       whether the result only holds grey pixels.
+   * @param greyLayout the layout a grey result copies itself into once a pixel that is not grey
+   *                   is written.
+   * @return the deferred result.
+   * @throws IllegalArgumentException if an argument is null or the image has more than 8 bits per
+   *                                  component.
+   */
+  public static FusedRaster fuse(ImageRaster image, IntUnaryOperator operation, boolean grey,
+      StorageLayout greyLayout) throws IllegalArgumentException {
+    if (operation == null || greyLayout == null || image == null || image.getMaxValue() != 255) {
+      throw new IllegalArgumentException("Operation cannot be fused");
+    }
+    if (image instanceof FusedRaster && ((FusedRaster) image).isShared()) {
+      FusedRaster fused = (FusedRaster) image;
+      if (fused.operations < MAX_OPERATIONS) {
+        return new FusedRaster(fused.source, fused.operation.andThen(operation),
+            fused.operations + 1, grey, greyLayout);
+      }
+      fused.evaluate();
+    }
+    ImageRaster owned = ownedPixels(image);
+    return new FusedRaster(owned == null ? image : owned, operation, 1, grey, greyLayout);
+  }
+
+  @Override
+  protected ImageRaster materialize(IntUnaryOperator operation) {
+    if (operation == null && this.grey) {
+      return GreyRaster.of(this.source, this.operation, this.greyLayout);
+    }
+    return this.source.map(operation == null ? this.operation
+        : this.operation.andThen(operation));
+  }
+
+  @Override
+  protected boolean computesPixels() {
+    return true;
+  }
+
+  @Override
+  protected int getSharedRGB(int row, int col) {
+    return this.operation.applyAsInt(this.source.getRGB(row, col));
+  }
+
+  @Override
+  protected SharedRaster share() {
+    return new FusedRaster(this.source, this.operation, this.operations, this.grey,
+        this.greyLayout);
+  }
+
+  @Override
+  public boolean isGreyScale() {
+    return this.isShared() ? this.grey : super.isGreyScale();
+  }
+
+  @Override
+  public StorageKind getStorageKind() {
+    return this.isShared() ? StorageKind.FUSED : super.getStorageKind();
+  }
+}
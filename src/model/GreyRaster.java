@@ -0,0 +1,298 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent an image whose pixels all have equal red, green, and blue components as one byte
+ * per pixel stored row by row. Operations on every pixel are applied once to each of the 256 grey
+ * values and then looked up per pixel. If a pixel that is not grey is written, the raster copies
+ * itself into a full color raster of the given layout and keeps using that from then on.
+ */
+public class GreyRaster implements ImageRaster {
+
+  private final int width;
+  private final int height;
+  private final StorageLayout colorLayout;
+  private byte[] grey;
+  private ImageRaster color;
+
+  /**
+   * Constructor to make a black grey-scale raster of the given size.
+   *
+   * @param width       the number of pixels in a row.
+   * @param height      the number of pixels in a column.
+   * @param colorLayout the layout to copy the image into once a pixel that is not grey is written.
+   * @throws IllegalArgumentException if the width or height is negative or the layout is null.
+   */
+  public GreyRaster(int width, int height, StorageLayout colorLayout)
+      throws IllegalArgumentException {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Invalid image size");
+    }
+    if (colorLayout == null) {
+      throw new IllegalArgumentException("Storage layout cannot be null");
+    }
+    this.width = width;
+    this.height = height;
+    this.colorLayout = colorLayout;
+    this.grey = new byte[Math.multiplyExact(width, height)];
+  }
+
+  /**
+   * Make a grey-scale raster holding the result of the given operation on every pixel of the given
+   * image. The operation must turn every pixel into a grey one, and only its red component is
+   * kept.
+   *
+   * @param image       the image to grey-scale.
+   * @param operation   the operation taking a packed 0xRRGGBB pixel and returning a grey one.
+   * @param colorLayout the layout to copy the result into once a pixel that is not grey is
+   *                    written.
+   * @return the grey-scale raster.
+   * @throws IllegalArgumentException if the image or layout is null.
+   */
+  public static GreyRaster of(ImageRaster image, IntUnaryOperator operation,
+      StorageLayout colorLayout) throws IllegalArgumentException {
+    return of(image, operation, colorLayout, RowBands.SERIAL);
+  }
+
+  /**
+   * Make a grey-scale raster holding the result of the given operation on every pixel of the given
+   * image, splitting its rows into bands computed in parallel if the given bands do so for images
+   * of its size. The operation must turn every pixel into a grey one, and only its red component
+   * is kept.
+   *
+   * @param image       the image to grey-scale.
+   * @param operation   the operation taking a packed 0xRRGGBB pixel and returning a grey one.
+   * @param colorLayout the layout to copy the result into once a pixel that is not grey is
+   *                    written.
+   * @param rows        how the rows of the image are split between threads.
+   * @return the grey-scale raster.
+   * @throws IllegalArgumentException if the image or layout is null.
+   */
+  public static GreyRaster of(ImageRaster image, IntUnaryOperator operation,
+      StorageLayout colorLayout, RowBands rows) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    int width = image.getWidth();
+    GreyRaster result = new GreyRaster(width, image.getHeight(), colorLayout);
+    if (image.isGreyScale()) {
+      int[] table = lookupTable(operation);
+      rows.forEachRow(width, image.getHeight(), i -> {
+        for (int j = 0, index = i * width; j < width; j++) {
+          result.grey[index++] = (byte) PackedRGB.red(table[image.getComponent(i, j, 0)]);
+        }
+      });
+    } else {
+      rows.forEachRow(width, image.getHeight(), i -> {
+        for (int j = 0, index = i * width; j < width; j++) {
+          result.grey[index++] = (byte) PackedRGB.red(operation.applyAsInt(image.getRGB(i, j)));
+        }
+      });
+    }
+    return result;
+  }
+
+  /**
+   * Check whether every pixel of the given image has equal red, green, and blue components,
+   * without scanning images that already know they are grey-scale.
+   *
+   * @param image the image to check.
+   * @return true if the image only has grey pixels, false otherwise.
+   */
+  public static boolean isAllGrey(ImageRaster image) {
+    if (image.isGreyScale()) {
+      return true;
+    }
+    for (int i = 0; i < image.getHeight(); i++) {
+      for (int j = 0; j < image.getWidth(); j++) {
+        if (!isGrey(image.getRGB(i, j))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean isGrey(int rgb) {
+    int blue = PackedRGB.blue(rgb);
+    return PackedRGB.red(rgb) == blue && PackedRGB.green(rgb) == blue;
+  }
+
+  /**
+   * Apply the given operation to each of the 256 grey pixels.
+   *
+   * @param operation the operation taking and returning a packed 0xRRGGBB pixel.
+   * @return the result of the operation indexed by grey value.
+   */
+  private static int[] lookupTable(IntUnaryOperator operation) {
+    int[] table = new int[256];
+    for (int value = 0; value < 256; value++) {
+      table[value] = operation.applyAsInt(value * 0x010101);
+    }
+    return table;
+  }
+
+  /**
+   * Check whether every entry of the given lookup table is a grey pixel.
+   *
+   * @param table the lookup table to check.
+   * @return true if the table only holds grey pixels, false otherwise.
+   */
+  private static boolean isGreyTable(int[] table) {
+    for (int rgb : table) {
+      if (!isGrey(rgb)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Get the raster that should be stored for this image: the color copy once a pixel that is not
+   * grey has been written, or this raster otherwise.
+   *
+   * @return the raster to store.
+   */
+  ImageRaster resolve() {
+    return this.color == null ? this : this.color;
+  }
+
+  /**
+   * Make a raster of the color layout holding the given lookup table applied to every pixel.
+   *
+   * @param table the colors indexed by grey value.
+   * @return the color raster.
+   */
+  private ImageRaster toColor(int[] table) {
+    ImageRaster result = this.colorLayout.create(this.width, this.height);
+    int index = 0;
+    for (int i = 0; i < this.height; i++) {
+      for (int j = 0; j < this.width; j++) {
+        result.setRGB(i, j, table[this.grey[index++] & 0xff]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Copy this image into the color layout so pixels that are not grey can be written.
+   */
+  private void expand() {
+    this.color = this.toColor(lookupTable(IntUnaryOperator.identity()));
+    this.grey = null;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    if (this.color != null) {
+      return this.color.getRGB(row, col);
+    }
+    return (this.grey[row * this.width + col] & 0xff) * 0x010101;
+  }
+
+  @Override
+  public int getComponent(int row, int col, int channel) {
+    if (this.color != null) {
+      return this.color.getComponent(row, col, channel);
+    }
+    return this.grey[row * this.width + col] & 0xff;
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    if (this.color == null && isGrey(rgb)) {
+      this.grey[row * this.width + col] = (byte) rgb;
+      return;
+    }
+    if (this.color == null) {
+      this.expand();
+    }
+    this.color.setRGB(row, col, rgb);
+  }
+
+  @Override
+  public void transform(IntUnaryOperator operation) {
+    if (this.color != null) {
+      this.color.transform(operation);
+      return;
+    }
+    int[] table = lookupTable(operation);
+    if (isGreyTable(table)) {
+      for (int i = 0; i < this.grey.length; i++) {
+        this.grey[i] = (byte) table[this.grey[i] & 0xff];
+      }
+    } else {
+      this.color = this.toColor(table);
+      this.grey = null;
+    }
+  }
+
+  @Override
+  public ImageRaster map(IntUnaryOperator operation) {
+    if (this.color != null) {
+      return this.color.map(operation);
+    }
+    int[] table = lookupTable(operation);
+    if (!isGreyTable(table)) {
+      return this.toColor(table);
+    }
+    GreyRaster result = new GreyRaster(this.width, this.height, this.colorLayout);
+    for (int i = 0; i < this.grey.length; i++) {
+      result.grey[i] = (byte) table[this.grey[i] & 0xff];
+    }
+    return result;
+  }
+
+  @Override
+  public ImageRaster copy() {
+    if (this.color != null) {
+      return this.color.copy();
+    }
+    GreyRaster result = new GreyRaster(this.width, this.height, this.colorLayout);
+    System.arraycopy(this.grey, 0, result.grey, 0, this.grey.length);
+    return result;
+  }
+
+  @Override
+  public boolean isGreyScale() {
+    return this.color == null;
+  }
+
+  @Override
+  public StorageKind getStorageKind() {
+    return this.color == null ? StorageKind.GREYSCALE : this.color.getStorageKind();
+  }
+
+  /**
+   * Check whether different threads can write to different rows of this raster at the same time,
+   * which holds for one byte per pixel as long as only grey pixels are written, since writing
+   * another color switches the whole raster to full color.
+   */
+  @Override
+  public boolean writesRowsIndependently() {
+    return this.color == null || this.color.writesRowsIndependently();
+  }
+
+  @Override
+  public long getByteSize() {
+    return this.color == null ? this.grey.length : this.color.getByteSize();
+  }
+
+  @Override
+  public void release() {
+    if (this.color != null) {
+      this.color.release();
+    }
+  }
+}
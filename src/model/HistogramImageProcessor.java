@@ -4,86 +4,133 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * To represent an image processor that represents each image as its individual pixels and supports
- * the additional methods of getting the histograms of an image.
+ * To represent an image processor that represents each image as a raster of packed pixels and
+ * supports the additional methods of getting the histograms of an image.
  */
 public class HistogramImageProcessor extends BetterImageProcessor implements
     HistogramImageProcessorModel {
 
+  /**
+   * HistogramImageProcessor default constructor that stores each image as packed pixels.
+   */
+  public HistogramImageProcessor() {
+    this(ProcessorOptions.DEFAULT);
+  }
+
+  /**
+   * HistogramImageProcessor constructor that stores and computes its images as the given options
+   * say.
+   *
+   * @param options how images are stored and computed.
+   * @throws IllegalArgumentException if the given options are null.
+   */
+  public HistogramImageProcessor(ProcessorOptions options) throws IllegalArgumentException {
+    this(options, new SimpleImageStore());
+  }
+
+  /**
+   * HistogramImageProcessor constructor that keeps its images in the given store and stores and
+   * computes them as the given options say.
+   *
+   * @param options how images are stored and computed.
+   * @param store   where the named images are kept.
+   * @throws IllegalArgumentException if the given options or store are null.
+   */
+  public HistogramImageProcessor(ProcessorOptions options, ImageStore store)
+      throws IllegalArgumentException {
+    super(options, store);
+  }
+
   @Override
   public List<IHistogram> getHistogram(String imageName) {
-    if (!this.rgbValues.containsKey(imageName)) {
-      throw new IllegalArgumentException("Image cannot be found");
-    }
+    ImageRaster image = this.getOutputImage(imageName);
     List<IHistogram> histograms = new ArrayList<IHistogram>();
-    if (this.isGreyScale(imageName)) {
-      histograms.add(new ImageHistogram(this.getComponent(imageName, "red")));
+    if (this.isGreyScale(image)) {
+      histograms.add(new ImageHistogram(this.getComponent(image, "red")));
     } else {
-      histograms.add(new ImageHistogram(this.getComponent(imageName, "red")));
-      histograms.add(new ImageHistogram(this.getComponent(imageName, "green")));
-      histograms.add(new ImageHistogram(this.getComponent(imageName, "blue")));
-      histograms.add(new ImageHistogram(this.getComponent(imageName, "intensity")));
+      histograms.add(new ImageHistogram(this.getComponent(image, "red")));
+      histograms.add(new ImageHistogram(this.getComponent(image, "green")));
+      histograms.add(new ImageHistogram(this.getComponent(image, "blue")));
+      histograms.add(new ImageHistogram(this.getComponent(image, "intensity")));
     }
     return histograms;
   }
 
   /**
-   * Get an image representation of the given image component.
+   * Count how often each value of the given image component occurs.
    *
-   * @param imageName the image to get the representation of.
-   * @param component the component to get the image representation of.
-   * @return a 2d list of the value of the given component.
+   * @param image     the image to count the values of.
+   * @param component the component to count the values of.
+   * @return an array of frequencies indexed by component value.
    * @throws IllegalArgumentException if the given component is invalid.
    */
-  private List<List<Integer>> getComponent(String imageName, String component) {
-    List<List<Integer>> toBeReturned = new ArrayList<>();
-    List<List<Pixel>> image = this.rgbValues.get(imageName);
-    for (int i = 0; i < image.size(); i++) {
-      toBeReturned.add(new ArrayList<Integer>());
-      for (int j = 0; j < image.get(i).size(); j++) {
-        String pixelValues = image.get(i).get(j).toString();
-        int red = Integer.parseInt(pixelValues.split(" ")[0]);
-        int green = Integer.parseInt(pixelValues.split(" ")[1]);
-        int blue = Integer.parseInt(pixelValues.split(" ")[2]);
-        switch (component.toLowerCase()) {
-          case "red":
-            toBeReturned.get(i).add(red);
-            break;
-          case "green":
-            toBeReturned.get(i).add(green);
-            break;
-          case "blue":
-            toBeReturned.get(i).add(blue);
-            break;
-          case "intensity":
-            int average = (int) Math.round((red + green + blue) / 3.0);
-            toBeReturned.get(i).add(average);
-            break;
-          default:
-            throw new IllegalArgumentException("Invalid component");
+  private int[] getComponent(ImageRaster image, String component) {
+    int[] frequency = new int[256];
+    switch (component.toLowerCase()) {
+      case "red":
+        this.countChannel(image, 0, frequency);
+        break;
+      case "green":
+        this.countChannel(image, 1, frequency);
+        break;
+      case "blue":
+        this.countChannel(image, 2, frequency);
+        break;
+      case "intensity":
+        for (int i = 0; i < image.getHeight(); i++) {
+          for (int j = 0; j < image.getWidth(); j++) {
+            int sum = this.binOf(image, i, j, 0) + this.binOf(image, i, j, 1)
+                + this.binOf(image, i, j, 2);
+            frequency[(int) Math.round(sum / 3.0)]++;
+          }
         }
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid component");
+    }
+    return frequency;
+  }
+
+  /**
+   * Add the number of times each value of the given channel occurs in the image to the given
+   * frequencies.
+   *
+   * @param image     the image to count the values of.
+   * @param channel   the channel to count, 0 for red, 1 for green, and 2 for blue.
+   * @param frequency the frequencies to add to, indexed by component value.
+   */
+  private void countChannel(ImageRaster image, int channel, int[] frequency) {
+    for (int i = 0; i < image.getHeight(); i++) {
+      for (int j = 0; j < image.getWidth(); j++) {
+        frequency[this.binOf(image, i, j, channel)]++;
       }
     }
-    return toBeReturned;
+  }
+
+  /**
+   * Get the histogram bin of one component of the pixel at the given position, which is the
+   * component scaled to 8 bits for images with more than 8 bits per component.
+   *
+   * @param image   the image to read.
+   * @param row     the row of the pixel starting at 0.
+   * @param col     the column of the pixel starting at 0.
+   * @param channel the component to read, 0 for red, 1 for green, and 2 for blue.
+   * @return the bin of the component in [0, 255].
+   */
+  private int binOf(ImageRaster image, int row, int col, int channel) {
+    if (image.getMaxValue() == 255) {
+      return image.getComponent(row, col, channel);
+    }
+    return (image.getRGB(row, col) >> (16 - 8 * channel)) & 0xff;
   }
 
   /**
    * Check to see if the given image is a grey-scale image.
    *
-   * @param imageName the image to check
+   * @param image the image to check
    * @return true if the image is grey-scale image, false otherwise.
    */
-  private boolean isGreyScale(String imageName) {
-    for (List<Pixel> lp : this.rgbValues.get(imageName)) {
-      for (Pixel p : lp) {
-        int red = Integer.parseInt(p.toString().split(" ")[0]);
-        int green = Integer.parseInt(p.toString().split(" ")[1]);
-        int blue = Integer.parseInt(p.toString().split(" ")[2]);
-        if (!(red == green && green == blue)) {
-          return false;
-        }
-      }
-    }
-    return true;
+  private boolean isGreyScale(ImageRaster image) {
+    return GreyRaster.isAllGrey(image);
   }
 }
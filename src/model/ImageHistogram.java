@@ -22,6 +22,18 @@ public class ImageHistogram implements IHistogram {
     }
   }
 
+  /**
+   * Construct the histogram given the already counted frequency of each value.
+   * @param frequency the number of occurrences of each value from 0 to 255.
+   * @throws IllegalArgumentException if the given array does not have 256 entries.
+   */
+  public ImageHistogram(int[] frequency) throws IllegalArgumentException {
+    if (frequency == null || frequency.length != 256) {
+      throw new IllegalArgumentException("Frequency must have 256 entries");
+    }
+    this.frequency = frequency.clone();
+  }
+
   @Override
   public int[] getFrequency() {
     int[] toBeReturned = new int[256];
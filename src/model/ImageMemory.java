@@ -0,0 +1,65 @@
+package model;
+
+import java.util.Objects;
+
+/**
+ * To represent how many bytes of memory a stored image holds and how its pixels are held.
+ */
+public class ImageMemory {
+
+  private final long bytes;
+  private final StorageKind kind;
+
+  /**
+   * Constructor to make the memory usage of an image.
+   *
+   * @param bytes the number of bytes of memory the image holds.
+   * @param kind  how the pixels of the image are held.
+   * @throws IllegalArgumentException if the bytes are negative or the kind is null.
+   */
+  public ImageMemory(long bytes, StorageKind kind) throws IllegalArgumentException {
+    if (bytes < 0 || kind == null) {
+      throw new IllegalArgumentException("Invalid memory usage");
+    }
+    this.bytes = bytes;
+    this.kind = kind;
+  }
+
+  /**
+   * Get the number of bytes of memory the image holds. Pixels shared with another image are only
+   * counted for the image that owns them, and spilled images hold none.
+   *
+   * @return the size of the image in bytes.
+   */
+  public long getBytes() {
+    return this.bytes;
+  }
+
+  /**
+   * Get how the pixels of the image are held.
+   *
+   * @return the storage kind of the image.
+   */
+  public StorageKind getKind() {
+    return this.kind;
+  }
+
+  @Override
+  public String toString() {
+    return this.bytes + " bytes (" + this.kind + ")";
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof ImageMemory)) {
+      return false;
+    }
+    ImageMemory that = (ImageMemory) obj;
+    return this.bytes == that.bytes && this.kind == that.kind;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.bytes, this.kind);
+  }
+}
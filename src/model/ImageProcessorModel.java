@@ -16,6 +16,18 @@ public interface ImageProcessorModel extends ImageProcessorModelState {
    */
   void loadImage(String imageName, List<List<Pixel>> ppmList);
 
+  /**
+   * Load the given raster to the given destination. The model takes ownership of the raster, so it
+   * must not be changed by the caller afterwards. If the model stores its images in a different
+   * layout, the raster is converted to that layout, and if every pixel is grey it may be stored
+   * with a single component per pixel.
+   *
+   * @param imageName the destination of the image
+   * @param image     the raster of packed pixels representing the image
+   * @throws IllegalArgumentException if the given raster is null
+   */
+  void loadImage(String imageName, ImageRaster image) throws IllegalArgumentException;
+
   /**
    * Brightens the given image by the given increment and stores the result in the given
    * destination.
@@ -53,4 +65,27 @@ public interface ImageProcessorModel extends ImageProcessorModelState {
    */
   void flipImage(boolean isVerticalFlip, String imageName, String newImageName);
 
+  /**
+   * Applies the given operator to every component of every pixel of the given image and stores
+   * the result in the given destination. The operator reads the image through a cursor, so no
+   * object is created per pixel.
+   *
+   * @param operator     the operator computing each component of the new image.
+   * @param imageName    the destination of the file to be read
+   * @param newImageName the new destination of the file to save the new image to
+   * @throws IllegalArgumentException if the given operator is null or the given image cannot be
+   *                                  found
+   */
+  void applyOperator(PixelOperator operator, String imageName, String newImageName)
+      throws IllegalArgumentException;
+
+  /**
+   * Remove the given image from the model and free the memory it holds. Images that still share
+   * its pixels take their own copy of them, so the images derived from it are not affected.
+   *
+   * @param imageName the image to remove.
+   * @throws IllegalArgumentException if the given image cannot be found
+   */
+  void dropImage(String imageName) throws IllegalArgumentException;
+
 }
@@ -1,5 +1,7 @@
 package model;
 
+import java.util.Map;
+
 /**
  * This interface represents operations that can be used to monitor the state of an image processor
  * model, without changing it.
@@ -35,6 +37,28 @@ public interface ImageProcessorModelState {
    */
   int getHeight(String imageName) throws IllegalArgumentException;
 
+  /**
+   * Get how many times images have been spilled to disk, reloaded, and evicted from memory to keep
+   * the images of this model within its memory budget.
+   *
+   * @return the spill statistics of the images of this model.
+   */
+  SpillStatistics getSpillStatistics();
+
+  /**
+   * Get how many bytes of memory each image holds and how its pixels are held.
+   *
+   * @return the memory usage of each image by name, sorted by name.
+   */
+  Map<String, ImageMemory> getMemoryUsage();
+
+  /**
+   * Get the number of bytes of memory held by all of the images.
+   *
+   * @return the total size of the images in bytes.
+   */
+  long getTotalMemory();
+
   /**
    * Convert the given image to its ppm format.
    *
@@ -0,0 +1,183 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent the pixel data of a single image as a grid of packed 0xRRGGBB integers with a
+ * width and a height. Rows and columns are both indexed from 0 starting at the top left.
+ */
+public interface ImageRaster {
+
+  /**
+   * Get the width of the image represented by the number of pixels in a row.
+   *
+   * @return the width of the image.
+   */
+  int getWidth();
+
+  /**
+   * Get the height of the image represented by the number of pixels in a column.
+   *
+   * @return the height of the image.
+   */
+  int getHeight();
+
+  /**
+   * Get the packed 0xRRGGBB value of the pixel at the given position.
+   *
+   * @param row the row of the pixel starting at 0.
+   * @param col the column of the pixel starting at 0.
+   * @return the packed color of the pixel.
+   */
+  int getRGB(int row, int col);
+
+  /**
+   * Set the pixel at the given position to the given packed 0xRRGGBB value.
+   *
+   * @param row the row of the pixel starting at 0.
+   * @param col the column of the pixel starting at 0.
+   * @param rgb the packed color to set the pixel to.
+   */
+  void setRGB(int row, int col, int rgb);
+
+  /**
+   * Get the value of a component at full intensity, which is 255 unless this raster holds more
+   * than 8 bits per component.
+   *
+   * @return the maximum value of a component.
+   */
+  default int getMaxValue() {
+    return 255;
+  }
+
+  /**
+   * Get one component of the pixel at the given position.
+   *
+   * @param row     the row of the pixel starting at 0.
+   * @param col     the column of the pixel starting at 0.
+   * @param channel the component to get, 0 for red, 1 for green, and 2 for blue.
+   * @return the value of the component in [0, maxValue].
+   */
+  default int getComponent(int row, int col, int channel) {
+    return (this.getRGB(row, col) >> (16 - 8 * channel)) & 0xff;
+  }
+
+  /**
+   * Set one component of the pixel at the given position, leaving the others unchanged.
+   *
+   * @param row     the row of the pixel starting at 0.
+   * @param col     the column of the pixel starting at 0.
+   * @param channel the component to set, 0 for red, 1 for green, and 2 for blue.
+   * @param value   the value of the component in [0, maxValue].
+   */
+  default void setComponent(int row, int col, int channel, int value) {
+    int shift = 16 - 8 * channel;
+    this.setRGB(row, col, (this.getRGB(row, col) & ~(0xff << shift)) | (value << shift));
+  }
+
+  /**
+   * Replace every pixel of this raster with the result of the given operation on it. Rasters may
+   * apply the operation to different parts of the image in parallel, so it must not depend on the
+   * order in which pixels are visited.
+   *
+   * @param operation the operation taking and returning a packed 0xRRGGBB pixel.
+   */
+  default void transform(IntUnaryOperator operation) {
+    for (int i = 0; i < this.getHeight(); i++) {
+      for (int j = 0; j < this.getWidth(); j++) {
+        this.setRGB(i, j, operation.applyAsInt(this.getRGB(i, j)));
+      }
+    }
+  }
+
+  /**
+   * Get a new raster holding the result of the given operation on every pixel of this raster,
+   * leaving this raster unchanged.
+   *
+   * @param operation the operation taking and returning a packed 0xRRGGBB pixel.
+   * @return the transformed raster.
+   */
+  default ImageRaster map(IntUnaryOperator operation) {
+    ImageRaster result = this.copy();
+    result.transform(operation);
+    return result;
+  }
+
+  /**
+   * Write the result of the given operation on every pixel of one row of the given image into the
+   * same row of this raster. Rows can be written this way by different threads at once if
+   * {@link #writesRowsIndependently} says so.
+   *
+   * @param source    the image to read, of the same size as this raster.
+   * @param row       the row to write.
+   * @param operation the operation taking and returning a packed 0xRRGGBB pixel.
+   */
+  default void mapRow(ImageRaster source, int row, IntUnaryOperator operation) {
+    for (int j = 0; j < this.getWidth(); j++) {
+      this.setRGB(row, j, operation.applyAsInt(source.getRGB(row, j)));
+    }
+  }
+
+  /**
+   * Get a copy of this raster that can be changed without changing this raster.
+   *
+   * @return a copy of this raster.
+   */
+  ImageRaster copy();
+
+  /**
+   * Check whether this raster is known to only hold grey pixels, with equal red, green, and blue
+   * components, without scanning them.
+   *
+   * @return true if every pixel is known to be grey, false if it is not known.
+   */
+  default boolean isGreyScale() {
+    return false;
+  }
+
+  /**
+   * Check whether different threads can write to different rows of this raster at the same time,
+   * which holds when every pixel is kept in its own place and writing it changes nothing else.
+   *
+   * @return true if rows can be written in parallel, false otherwise.
+   */
+  default boolean writesRowsIndependently() {
+    return false;
+  }
+
+  /**
+   * Get the number of bytes of memory this raster holds for its own pixels, not counting pixels
+   * it shares with another raster.
+   *
+   * @return the size of the pixel data in bytes.
+   */
+  default long getByteSize() {
+    return 4L * this.getWidth() * this.getHeight();
+  }
+
+  /**
+   * Get how this raster holds its pixels.
+   *
+   * @return the storage kind of this raster.
+   */
+  default StorageKind getStorageKind() {
+    return StorageKind.FULL;
+  }
+
+  /**
+   * Free any memory this raster holds outside of the Java heap. The raster must not be used after
+   * it has been released. Rasters that live on the heap have nothing to free.
+   */
+  default void release() {
+  }
+
+  /**
+   * Stop sharing pixels with the given raster because it is about to be released or is no longer
+   * stored, copying them first if this raster still reads from it. Rasters that never share pixels
+   * have nothing to do.
+   *
+   * @param released the raster that is about to be released.
+   */
+  default void detach(ImageRaster released) {
+  }
+}
@@ -0,0 +1,61 @@
+package model;
+
+import java.util.Map;
+
+/**
+ * This interface represents where a model keeps its named images. A store owns the images put in
+ * it: when an image is replaced, the store releases it after letting any image that shares its
+ * pixels copy them.
+ */
+public interface ImageStore {
+
+  /**
+   * Get the image with the given name.
+   *
+   * @param imageName the name of the image.
+   * @return the image, or null if there is no image with the given name.
+   */
+  ImageRaster get(String imageName);
+
+  /**
+   * Get the image with the given name if it is in memory, without reloading it if it was spilled
+   * and without counting it as used.
+   *
+   * @param imageName the name of the image.
+   * @return the image, or null if there is no image with the given name in memory.
+   */
+  ImageRaster peek(String imageName);
+
+  /**
+   * Store the given image under the given name, replacing and releasing any image already stored
+   * under it.
+   *
+   * @param imageName the name to store the image under.
+   * @param image     the image to store.
+   */
+  void put(String imageName, ImageRaster image);
+
+  /**
+   * Remove the image with the given name from this store and release it. Stored images that still
+   * share its pixels copy them first, so its memory is only held by the images that need it.
+   *
+   * @param imageName the name of the image to remove.
+   * @return true if an image was removed, false if there is no image with the given name.
+   */
+  boolean remove(String imageName);
+
+  /**
+   * Get the memory usage of every image in this store without reloading any that were spilled.
+   *
+   * @return the memory usage of each image by name, sorted by name.
+   */
+  Map<String, ImageMemory> getMemoryUsage();
+
+  /**
+   * Get how many times images have been spilled out of memory, reloaded, and evicted by this
+   * store to stay within a memory budget.
+   *
+   * @return the spill statistics of this store.
+   */
+  SpillStatistics getSpillStatistics();
+}
@@ -0,0 +1,50 @@
+package model;
+
+/**
+ * To represent the operation of multiplying a kernel with the neighbors of every pixel, one
+ * component at a time. Neighbors that fall outside of the image count as 0, and the total is
+ * bounded to [0, maxValue] with any fraction dropped.
+ */
+final class KernelOperator implements PixelOperator {
+
+  private final double[][] kernel;
+  private final int rowOffset;
+  private final int colOffset;
+
+  /**
+   * Constructor to make the operation for the given kernel, centered on each pixel.
+   *
+   * @param kernel the kernel with an odd number of rows and columns.
+   */
+  KernelOperator(double[][] kernel) {
+    this.kernel = kernel;
+    this.rowOffset = kernel.length / 2;
+    this.colOffset = kernel[0].length / 2;
+  }
+
+  @Override
+  public int apply(PixelCursor cursor, int channel) {
+    double total = 0.0;
+    for (int ki = 0; ki < this.kernel.length; ki++) {
+      int row = ki - this.rowOffset;
+      for (int kj = 0; kj < this.kernel[ki].length; kj++) {
+        int col = kj - this.colOffset;
+        if (cursor.contains(row, col)) {
+          total += this.kernel[ki][kj] * cursor.getComponent(row, col, channel);
+        }
+      }
+    }
+    if (total > cursor.getMaxValue()) {
+      return cursor.getMaxValue();
+    }
+    if (total < 0) {
+      return 0;
+    }
+    return (int) total;
+  }
+
+  @Override
+  public boolean keepsGrey() {
+    return true;
+  }
+}
@@ -0,0 +1,130 @@
+package model;
+
+/**
+ * To represent an image processor that works on linear light instead of gamma-encoded sRGB values,
+ * so that brightening, blurring, and the luma grey-scale mix intensities of light the way the eye
+ * sees them mixed. Images are converted to 12-bit linear-light components once when they are
+ * loaded and back to 8-bit sRGB once when they are saved, shown, or measured, and every operation
+ * in between works on the linear components, so a chain of operations only converts twice however
+ * long it is. Brightening increments and color matrix offsets are given in 8-bit steps as in any
+ * other model and scaled to the 12-bit components, while expressions see the components in
+ * [0, 4095].
+ */
+public class LinearLightImageProcessor extends HistogramImageProcessor {
+
+  /**
+   * LinearLightImageProcessor default constructor.
+   */
+  public LinearLightImageProcessor() {
+    this(ProcessorOptions.DEFAULT);
+  }
+
+  /**
+   * LinearLightImageProcessor constructor that stores and computes its images as the given options
+   * say. Linear-light images keep their 12-bit components whatever the layout.
+   *
+   * @param options how images are stored and computed.
+   * @throws IllegalArgumentException if the given options are null.
+   */
+  public LinearLightImageProcessor(ProcessorOptions options) throws IllegalArgumentException {
+    this(options, new SimpleImageStore());
+  }
+
+  /**
+   * LinearLightImageProcessor constructor that keeps its images in the given store and stores and
+   * computes them as the given options say.
+   *
+   * @param options how images are stored and computed.
+   * @param store   where the named images are kept.
+   * @throws IllegalArgumentException if the given options or store are null.
+   */
+  public LinearLightImageProcessor(ProcessorOptions options, ImageStore store)
+      throws IllegalArgumentException {
+    super(options, store);
+  }
+
+  /**
+   * Load the given sRGB image under the given name, converting every component to linear light
+   * with 12 bits.
+   */
+  @Override
+  public void loadImage(String imageName, ImageRaster image) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    int maxValue = image.getMaxValue();
+    ImageRaster linear = new DeepRaster(image.getWidth(), image.getHeight(),
+        SrgbTransfer.LINEAR_MAX);
+    this.forEachRow(linear, i -> {
+      for (int j = 0; j < image.getWidth(); j++) {
+        for (int channel = 0; channel < 3; channel++) {
+          linear.setComponent(i, j, channel,
+              SrgbTransfer.decode(image.getComponent(i, j, channel), maxValue));
+        }
+      }
+    });
+    super.loadImage(imageName, linear);
+  }
+
+  /**
+   * Get the stored image with the given name converted back to 8-bit sRGB. The converted image is
+   * only read once by the caller, so it is kept on the heap whatever the layout of this model, and
+   * nothing is left to release once the caller is done with it.
+   */
+  @Override
+  protected ImageRaster getOutputImage(String imageName) throws IllegalArgumentException {
+    ImageRaster linear = super.getOutputImage(imageName);
+    ImageRaster output = new PackedRaster(linear.getWidth(), linear.getHeight());
+    this.forEachRow(output, i -> {
+      for (int j = 0; j < linear.getWidth(); j++) {
+        output.setRGB(i, j, encode(linear, i, j));
+      }
+    });
+    return output;
+  }
+
+  @Override
+  public Pixel getPixelAt(int row, int col, String imageName) throws IllegalArgumentException {
+    ImageRaster image = this.getImageByName(imageName);
+    if (col >= image.getWidth() || row >= image.getHeight() || row < 0 || col < 0) {
+      throw new IllegalArgumentException("Position not in the image");
+    }
+    return Pixel.fromRGB(encode(image, row, col));
+  }
+
+  @Override
+  public void brighten(int increment, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    super.brighten((int) Math.round(increment * (double) SrgbTransfer.LINEAR_MAX / 255),
+        imageName, newImageName);
+  }
+
+  @Override
+  public void colorMatrix(double[][] matrix, double[] offsets, String imageName,
+      String newImageName) throws IllegalArgumentException {
+    double[] scaled = offsets;
+    if (offsets != null) {
+      scaled = new double[offsets.length];
+      for (int i = 0; i < offsets.length; i++) {
+        scaled[i] = offsets[i] * SrgbTransfer.LINEAR_MAX / 255;
+      }
+    }
+    super.colorMatrix(matrix, scaled, imageName, newImageName);
+  }
+
+  /**
+   * Convert the pixel at the given position of the given linear-light image to a packed 8-bit sRGB
+   * pixel.
+   *
+   * @param image the linear-light image.
+   * @param row   the row of the pixel starting at 0.
+   * @param col   the column of the pixel starting at 0.
+   * @return the packed 0xRRGGBB pixel.
+   */
+  private static int encode(ImageRaster image, int row, int col) {
+    int maxValue = image.getMaxValue();
+    return PackedRGB.pack(SrgbTransfer.encode(image.getComponent(row, col, 0), maxValue),
+        SrgbTransfer.encode(image.getComponent(row, col, 1), maxValue),
+        SrgbTransfer.encode(image.getComponent(row, col, 2), maxValue));
+  }
+}
@@ -0,0 +1,165 @@
+package model;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * To represent an image store that keeps every image in a memory-mapped file in a workspace
+ * directory, named after the image. The operating system decides how much of each image stays in
+ * memory, and a new store on the same directory maps the images left there by an earlier one
+ * instead of loading them again. Images are written to a temporary file first and then moved over
+ * the old one, so an image file is never left half written. Copies of the images are made in the
+ * layout the store is given.
+ */
+public class MappedImageStore implements ImageStore {
+
+  private static final String SUFFIX = ".img";
+  private static final String PARTIAL_SUFFIX = ".part";
+
+  private final Path workspace;
+  private final StorageLayout layout;
+  private final Map<String, MappedRaster> images;
+
+  /**
+   * Constructor to make a store on the given workspace directory, creating it if needed and
+   * mapping every image already in it, that copies its images into the packed layout.
+   *
+   * @param workspace the directory to keep the image files in.
+   * @throws IllegalArgumentException if the workspace is null, cannot be created or read, or
+   *                                  holds an image file that is not valid.
+   */
+  public MappedImageStore(Path workspace) throws IllegalArgumentException {
+    this(workspace, StorageLayout.PACKED);
+  }
+
+  /**
+   * Constructor to make a store on the given workspace directory, creating it if needed and
+   * mapping every image already in it, that copies its images into the given layout.
+   *
+   * @param workspace the directory to keep the image files in.
+   * @param layout    the layout to copy mapped images into.
+   * @throws IllegalArgumentException if the workspace or layout is null, the workspace cannot be
+   *                                  created or read, or it holds an image file that is not valid.
+   */
+  public MappedImageStore(Path workspace, StorageLayout layout) throws IllegalArgumentException {
+    if (workspace == null || layout == null) {
+      throw new IllegalArgumentException("Invalid workspace or layout");
+    }
+    this.workspace = workspace;
+    this.layout = layout;
+    this.images = new HashMap<>();
+    try {
+      Files.createDirectories(workspace);
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(workspace)) {
+        for (Path file : files) {
+          String fileName = file.getFileName().toString();
+          if (fileName.endsWith(PARTIAL_SUFFIX)) {
+            // left behind by a store that stopped while writing it
+            Files.deleteIfExists(file);
+          } else if (fileName.endsWith(SUFFIX)) {
+            String imageName = URLDecoder.decode(
+                fileName.substring(0, fileName.length() - SUFFIX.length()),
+                StandardCharsets.UTF_8);
+            this.images.put(imageName, MappedRaster.open(file, this.layout));
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("IOException: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Get the file the image with the given name is kept in.
+   *
+   * @param imageName the name of the image.
+   * @return the path of its file in the workspace.
+   */
+  private Path fileOf(String imageName) {
+    return this.workspace.resolve(URLEncoder.encode(imageName, StandardCharsets.UTF_8) + SUFFIX);
+  }
+
+  @Override
+  public ImageRaster get(String imageName) {
+    return this.images.get(imageName);
+  }
+
+  @Override
+  public ImageRaster peek(String imageName) {
+    return this.images.get(imageName);
+  }
+
+  /**
+   * Write the given image to the file of the given name and map it, replacing and unmapping the
+   * image stored under that name before.
+   *
+   * @throws IllegalArgumentException if the name is null.
+   * @throws IllegalStateException    if the file cannot be written.
+   */
+  @Override
+  public void put(String imageName, ImageRaster image)
+      throws IllegalArgumentException, IllegalStateException {
+    if (imageName == null) {
+      throw new IllegalArgumentException("Image name cannot be null");
+    }
+    if (image == this.images.get(imageName)) {
+      return;
+    }
+    Path file = this.fileOf(imageName);
+    Path partial = file.resolveSibling(file.getFileName() + PARTIAL_SUFFIX);
+    try {
+      MappedRaster mapped = MappedRaster.create(partial, image, this.layout);
+      MappedRaster replaced = this.images.put(imageName, mapped);
+      if (replaced != null) {
+        replaced.release();
+      }
+      Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to write image to workspace: " + e.getMessage());
+    }
+    if (!this.images.containsValue(image)) {
+      image.release();
+    }
+  }
+
+  @Override
+  public boolean remove(String imageName) {
+    MappedRaster removed = this.images.remove(imageName);
+    if (removed == null) {
+      return false;
+    }
+    removed.release();
+    try {
+      Files.deleteIfExists(this.fileOf(imageName));
+    } catch (IOException e) {
+      // the image is gone from the store, so only the file is left behind
+      this.fileOf(imageName).toFile().deleteOnExit();
+    }
+    return true;
+  }
+
+  @Override
+  public Map<String, ImageMemory> getMemoryUsage() {
+    Map<String, ImageMemory> usage = new TreeMap<>();
+    for (Map.Entry<String, MappedRaster> entry : this.images.entrySet()) {
+      ImageRaster image = entry.getValue();
+      usage.put(entry.getKey(), new ImageMemory(image.getByteSize(), image.getStorageKind()));
+    }
+    return usage;
+  }
+
+  @Override
+  public SpillStatistics getSpillStatistics() {
+    return new SpillStatistics(0, 0, 0);
+  }
+}
@@ -0,0 +1,289 @@
+package model;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent an image whose pixels live in a memory-mapped file, so the operating system keeps
+ * as much of it in memory as it sees fit and the file can be mapped again after a restart. Each
+ * file starts with five ints: a marker, the width and height of the image, its number of
+ * components, and their maximum value. The components of each pixel follow row by row: one for
+ * grey-scale images and three otherwise, each taking one byte, or two if the maximum value is
+ * above 255. A mapped image cannot be changed once it is written; copying it gives an image in
+ * memory, in the layout the image was mapped with, that can.
+ */
+public class MappedRaster implements ImageRaster {
+
+  private static final int MARKER = 0x494d4731;
+  private static final int HEADER = 20;
+
+  private final int width;
+  private final int height;
+  private final int channels;
+  private final int maxValue;
+  private final int sampleBytes;
+  private final StorageLayout layout;
+  private MappedByteBuffer buffer;
+
+  /**
+   * Constructor to make an image from the given mapped file, whose header has been checked.
+   *
+   * @param buffer the mapping of the whole file.
+   * @param layout the layout to copy the image into.
+   */
+  private MappedRaster(MappedByteBuffer buffer, StorageLayout layout) {
+    this.buffer = buffer;
+    this.layout = layout;
+    this.width = buffer.getInt(4);
+    this.height = buffer.getInt(8);
+    this.channels = buffer.getInt(12);
+    this.maxValue = buffer.getInt(16);
+    this.sampleBytes = this.maxValue > 255 ? 2 : 1;
+  }
+
+  /**
+   * Write the given image to the given file, replacing anything in it, and map it. The pixels are
+   * forced to the storage device before this returns, so the file can be moved into place without
+   * a crash leaving it half written.
+   *
+   * @param file   the file to write.
+   * @param image  the image to write.
+   * @param layout the layout to copy the mapped image into.
+   * @return the mapped image.
+   * @throws IOException              if the file cannot be written.
+   * @throws IllegalArgumentException if the image is too large to map as one file.
+   */
+  public static MappedRaster create(Path file, ImageRaster image, StorageLayout layout)
+      throws IOException, IllegalArgumentException {
+    int maxValue = image.getMaxValue();
+    int channels = maxValue == 255 && image.isGreyScale() ? 1 : 3;
+    long size = HEADER + (long) image.getWidth() * image.getHeight() * channels
+        * (maxValue > 255 ? 2 : 1);
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Image is too large to map");
+    }
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+    buffer.putInt(0, MARKER);
+    buffer.putInt(4, image.getWidth());
+    buffer.putInt(8, image.getHeight());
+    buffer.putInt(12, channels);
+    buffer.putInt(16, maxValue);
+    MappedRaster result = new MappedRaster(buffer, layout);
+    for (int i = 0; i < image.getHeight(); i++) {
+      for (int j = 0; j < image.getWidth(); j++) {
+        for (int k = 0; k < channels; k++) {
+          result.putSample(result.position(i, j, k), image.getComponent(i, j, k));
+        }
+      }
+    }
+    buffer.force();
+    return result;
+  }
+
+  /**
+   * Map an image written by {@link #create} without reading its pixels.
+   *
+   * @param file   the file to map.
+   * @param layout the layout to copy the mapped image into.
+   * @return the mapped image.
+   * @throws IOException              if the file cannot be read.
+   * @throws IllegalArgumentException if the file does not hold a mapped image.
+   */
+  public static MappedRaster open(Path file, StorageLayout layout)
+      throws IOException, IllegalArgumentException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      long size = channel.size();
+      if (size < HEADER || size > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Invalid image file: " + file);
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+    int width = buffer.getInt(4);
+    int height = buffer.getInt(8);
+    int channels = buffer.getInt(12);
+    int maxValue = buffer.getInt(16);
+    if (buffer.getInt(0) != MARKER || width < 0 || height < 0
+        || (channels != 1 && channels != 3) || maxValue < 1 || maxValue > DeepRaster.MAX_VALUE
+        || buffer.capacity() != HEADER + (long) width * height * channels
+        * (maxValue > 255 ? 2 : 1)) {
+      DirectBuffers.free(buffer);
+      throw new IllegalArgumentException("Invalid image file: " + file);
+    }
+    return new MappedRaster(buffer, layout);
+  }
+
+  /**
+   * Get the mapping of this image's file.
+   *
+   * @return the mapped buffer.
+   * @throws IllegalStateException if this raster has been released.
+   */
+  private MappedByteBuffer buffer() throws IllegalStateException {
+    if (this.buffer == null) {
+      throw new IllegalStateException("Image has been released");
+    }
+    return this.buffer;
+  }
+
+  /**
+   * Get the byte offset of the given component of the pixel at the given position.
+   *
+   * @param row     the row of the pixel starting at 0.
+   * @param col     the column of the pixel starting at 0.
+   * @param channel the component, which is ignored for grey-scale images.
+   * @return the offset of the component in the file.
+   */
+  private int position(int row, int col, int channel) {
+    int sample = (row * this.width + col) * this.channels + (this.channels == 1 ? 0 : channel);
+    return HEADER + sample * this.sampleBytes;
+  }
+
+  /**
+   * Read the component at the given offset.
+   *
+   * @param position the offset of the component in the file.
+   * @return the component in [0, maxValue].
+   */
+  private int getSample(int position) {
+    if (this.sampleBytes == 2) {
+      return this.buffer().getChar(position);
+    }
+    return this.buffer().get(position) & 0xff;
+  }
+
+  /**
+   * Write the component at the given offset.
+   *
+   * @param position the offset of the component in the file.
+   * @param value    the component in [0, maxValue].
+   */
+  private void putSample(int position, int value) {
+    if (this.sampleBytes == 2) {
+      this.buffer().putChar(position, (char) value);
+    } else {
+      this.buffer().put(position, (byte) value);
+    }
+  }
+
+  /**
+   * Scale the given component of this image to 8 bits, rounding to the nearest value.
+   *
+   * @param value the component in [0, maxValue].
+   * @return the component in [0, 255].
+   */
+  private int toByte(int value) {
+    return (value * 255 + this.maxValue / 2) / this.maxValue;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getMaxValue() {
+    return this.maxValue;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    if (this.channels == 1) {
+      return this.getSample(this.position(row, col, 0)) * 0x010101;
+    }
+    int red = this.getComponent(row, col, 0);
+    int green = this.getComponent(row, col, 1);
+    int blue = this.getComponent(row, col, 2);
+    if (this.maxValue != 255) {
+      return PackedRGB.pack(this.toByte(red), this.toByte(green), this.toByte(blue));
+    }
+    return PackedRGB.pack(red, green, blue);
+  }
+
+  @Override
+  public int getComponent(int row, int col, int channel) {
+    return this.getSample(this.position(row, col, channel));
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) throws IllegalStateException {
+    throw new IllegalStateException("Mapped images cannot be changed");
+  }
+
+  @Override
+  public void setComponent(int row, int col, int channel, int value)
+      throws IllegalStateException {
+    throw new IllegalStateException("Mapped images cannot be changed");
+  }
+
+  @Override
+  public void transform(IntUnaryOperator operation)
+      throws IllegalStateException {
+    throw new IllegalStateException("Mapped images cannot be changed");
+  }
+
+  @Override
+  public ImageRaster copy() {
+    ImageRaster result;
+    if (this.maxValue != 255) {
+      result = new DeepRaster(this.width, this.height, this.maxValue);
+    } else if (this.channels == 1) {
+      result = new GreyRaster(this.width, this.height, this.layout);
+    } else {
+      result = this.layout.create(this.width, this.height);
+    }
+    for (int i = 0; i < this.height; i++) {
+      for (int j = 0; j < this.width; j++) {
+        if (this.maxValue != 255) {
+          for (int channel = 0; channel < 3; channel++) {
+            result.setComponent(i, j, channel, this.getComponent(i, j, channel));
+          }
+        } else {
+          result.setRGB(i, j, this.getRGB(i, j));
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean isGreyScale() {
+    return this.channels == 1;
+  }
+
+  @Override
+  public StorageKind getStorageKind() {
+    return StorageKind.MAPPED;
+  }
+
+  @Override
+  public long getByteSize() {
+    return this.buffer == null ? 0 : this.buffer.capacity() - HEADER;
+  }
+
+  /**
+   * Unmap the file of this image, leaving the file itself in place.
+   */
+  @Override
+  public void release() {
+    if (this.buffer != null) {
+      DirectBuffers.free(this.buffer);
+      this.buffer = null;
+    }
+  }
+}
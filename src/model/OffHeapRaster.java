@@ -0,0 +1,138 @@
+package model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * To represent an image stored outside of the Java heap as packed 0x00RRGGBB values, four bytes
+ * per pixel row by row. Pixels are addressed with long indices and split over several direct
+ * buffers, so an image is not limited by the heap size or by the size of a single array. The
+ * memory is freed as soon as the raster is released instead of waiting for garbage collection.
+ */
+public class OffHeapRaster implements ImageRaster {
+
+  private static final int CHUNK_SHIFT = 28;
+  private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+  private final int width;
+  private final int height;
+  private ByteBuffer[] chunks;
+
+  /**
+   * Constructor to make a black raster of the given size.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @throws IllegalArgumentException if the width or height is negative.
+   */
+  public OffHeapRaster(int width, int height) throws IllegalArgumentException {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Invalid image size");
+    }
+    this.width = width;
+    this.height = height;
+    long size = (long) width * height;
+    int count = (int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT);
+    this.chunks = new ByteBuffer[count];
+    for (int i = 0; i < count; i++) {
+      long pixels = Math.min(size - ((long) i << CHUNK_SHIFT), 1L << CHUNK_SHIFT);
+      this.chunks[i] = ByteBuffer.allocateDirect((int) (pixels * 4));
+    }
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Get the buffer holding the pixel at the given index.
+   *
+   * @param index the index of the pixel counted row by row.
+   * @return the buffer containing the pixel.
+   * @throws IllegalStateException if this raster has been released.
+   */
+  private ByteBuffer chunk(long index) throws IllegalStateException {
+    if (this.chunks == null) {
+      throw new IllegalStateException("Image has been released");
+    }
+    return this.chunks[(int) (index >>> CHUNK_SHIFT)];
+  }
+
+  /**
+   * Get the byte offset of the pixel at the given index within its buffer.
+   *
+   * @param index the index of the pixel counted row by row.
+   * @return the offset of the pixel's first byte.
+   */
+  private static int offset(long index) {
+    return (int) (index & CHUNK_MASK) << 2;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    long index = (long) row * this.width + col;
+    return this.chunk(index).getInt(offset(index));
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    long index = (long) row * this.width + col;
+    this.chunk(index).putInt(offset(index), rgb & 0xffffff);
+  }
+
+  @Override
+  public int getComponent(int row, int col, int channel) {
+    long index = (long) row * this.width + col;
+    return this.chunk(index).get(offset(index) + 1 + channel) & 0xff;
+  }
+
+  @Override
+  public void setComponent(int row, int col, int channel, int value) {
+    long index = (long) row * this.width + col;
+    this.chunk(index).put(offset(index) + 1 + channel, (byte) value);
+  }
+
+  @Override
+  public ImageRaster copy() {
+    if (this.chunks == null) {
+      throw new IllegalStateException("Image has been released");
+    }
+    OffHeapRaster copy = new OffHeapRaster(this.width, this.height);
+    for (int i = 0; i < this.chunks.length; i++) {
+      copy.chunks[i].put(0, this.chunks[i], 0, this.chunks[i].capacity());
+    }
+    return copy;
+  }
+
+  @Override
+  public StorageKind getStorageKind() {
+    return StorageKind.OFF_HEAP;
+  }
+
+  @Override
+  public boolean writesRowsIndependently() {
+    return true;
+  }
+
+  @Override
+  public long getByteSize() {
+    return this.chunks == null ? 0 : 4L * this.width * this.height;
+  }
+
+  @Override
+  public void release() {
+    if (this.chunks == null) {
+      return;
+    }
+    ByteBuffer[] released = this.chunks;
+    this.chunks = null;
+    for (ByteBuffer chunk : released) {
+      DirectBuffers.free(chunk);
+    }
+  }
+}
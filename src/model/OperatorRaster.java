@@ -0,0 +1,190 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent the result of a {@link PixelOperator} on a source image that has not been applied
+ * yet. Each pixel read from it is computed from the pixels around it in the source, so reading a
+ * few pixels only computes those, and the whole result is only computed once it is written to or
+ * asked to compute itself. Since every operator reads several pixels of its source, reading one
+ * pixel through a chain of deferred operators costs the product of their neighborhoods, so an
+ * operator is only deferred on top of at most {@value #MAX_CHAIN} others; a longer chain computes
+ * the image it is applied to first.
+ */
+public class OperatorRaster extends SharedRaster {
+
+  /**
+   * The most deferred operators that reading one pixel of a deferred result may compute through.
+   */
+  static final int MAX_CHAIN = 2;
+
+  private final PixelOperator operator;
+  private final boolean grey;
+  private final StorageLayout layout;
+  private final RowBands rows;
+
+  /**
+   * Constructor to make the result of the given operator on the given source.
+   *
+   * @param source   the image to read from.
+   * @param operator the operator computing each component of the result.
+   * @param grey     whether the result only holds grey pixels.
+   * @param layout   the layout the result is stored in once it is computed.
+   * @param rows     how the rows of the result are split between threads once it is computed.
+   */
+  private OperatorRaster(ImageRaster source, PixelOperator operator, boolean grey,
+      StorageLayout layout, RowBands rows) {
+    super(source);
+    this.operator = operator;
+    this.grey = grey;
+    this.layout = layout;
+    this.rows = rows;
+  }
+
+  /**
+   * Get the result of the given operator applied at every pixel of the given image without
+   * applying it.
+   *
+   * @param image    the image to read from, with 8 bits per component.
+   * @param operator the operator computing each component of the result.
+   * @param layout   the layout the result is stored in once it is computed.
+   * @param rows     how the rows of the result are split between threads once it is computed.
+   * @return the deferred result.
+   * @throws IllegalArgumentException if an argument is null or the image has more than 8 bits per
+   *                                  component.
+   */
+  public static OperatorRaster defer(ImageRaster image, PixelOperator operator,
+      StorageLayout layout, RowBands rows) throws IllegalArgumentException {
+    if (operator == null || layout == null || rows == null || image == null
+        || image.getMaxValue() != 255) {
+      throw new IllegalArgumentException("Operator cannot be deferred");
+    }
+    if (image instanceof SharedRaster && chainLength(image) >= MAX_CHAIN) {
+      ((SharedRaster) image).evaluate();
+    }
+    ImageRaster owned = ownedPixels(image);
+    return new OperatorRaster(owned == null ? image : owned, operator,
+        operator.keepsGrey() && image.isGreyScale(), layout, rows);
+  }
+
+  /**
+   * Count the deferred operators that reading a pixel of the given image computes through.
+   *
+   * @param image the image to read.
+   * @return the number of operator results along its chain of sources that are not computed yet.
+   */
+  private static int chainLength(ImageRaster image) {
+    int length = 0;
+    while (image instanceof SharedRaster && ((SharedRaster) image).isShared()) {
+      if (image instanceof OperatorRaster) {
+        length++;
+      }
+      image = ((SharedRaster) image).source;
+    }
+    return length;
+  }
+
+  /**
+   * Write the result of the given operator applied at every pixel of the given image to the given
+   * image of the same size, bounding each component to [0, maxValue]. The rows are split into
+   * bands computed in parallel if the given bands do so for images of this size and the result
+   * can be written by different threads at once.
+   *
+   * @param image    the image to read from.
+   * @param operator the operator computing each component of the result.
+   * @param result   the image to write to.
+   * @param grey     whether to compute a single channel and write it as a grey pixel.
+   * @param rows     how the rows of the image are split between threads.
+   */
+  static void apply(ImageRaster image, PixelOperator operator, ImageRaster result,
+      boolean grey, RowBands rows) {
+    int maxValue = image.getMaxValue();
+    RowBands bands = result.writesRowsIndependently() ? rows : RowBands.SERIAL;
+    bands.forEachRow(image.getWidth(), image.getHeight(), i -> {
+      RasterCursor cursor = new RasterCursor(image);
+      for (int j = 0; j < image.getWidth(); j++) {
+        cursor.moveTo(i, j);
+        if (grey) {
+          result.setRGB(i, j, bound(operator.apply(cursor, 0), maxValue) * 0x010101);
+          continue;
+        }
+        for (int channel = 0; channel < 3; channel++) {
+          result.setComponent(i, j, channel, bound(operator.apply(cursor, channel), maxValue));
+        }
+      }
+    });
+  }
+
+  /**
+   * Bound the given component value to [0, maxValue].
+   *
+   * @param value    the value to bound.
+   * @param maxValue the value of a component at full intensity.
+   * @return the bounded value.
+   */
+  private static int bound(int value, int maxValue) {
+    return Math.max(0, Math.min(maxValue, value));
+  }
+
+  @Override
+  protected ImageRaster materialize(IntUnaryOperator operation) {
+    int width = this.getWidth();
+    int height = this.getHeight();
+    ImageRaster result = this.grey ? new GreyRaster(width, height, this.layout)
+        : this.layout.create(width, height);
+    apply(readable(this.source), this.operator, result, this.grey, this.rows);
+    if (operation != null) {
+      result.transform(operation);
+    }
+    return result;
+  }
+
+  /**
+   * Compute the given channel of the pixel at the given position from the source.
+   *
+   * @param row     the row of the pixel starting at 0.
+   * @param col     the column of the pixel starting at 0.
+   * @param channel 0 for red, 1 for green, or 2 for blue.
+   * @return the bounded component.
+   */
+  private int compute(int row, int col, int channel) {
+    RasterCursor cursor = new RasterCursor(this.source);
+    cursor.moveTo(row, col);
+    return bound(this.operator.apply(cursor, this.grey ? 0 : channel), 255);
+  }
+
+  @Override
+  protected int getSharedRGB(int row, int col) {
+    if (this.grey) {
+      return this.compute(row, col, 0) * 0x010101;
+    }
+    return PackedRGB.pack(this.compute(row, col, 0), this.compute(row, col, 1),
+        this.compute(row, col, 2));
+  }
+
+  @Override
+  public int getComponent(int row, int col, int channel) {
+    return this.isShared() ? this.compute(row, col, channel)
+        : super.getComponent(row, col, channel);
+  }
+
+  @Override
+  protected SharedRaster share() {
+    return new OperatorRaster(this.source, this.operator, this.grey, this.layout, this.rows);
+  }
+
+  @Override
+  protected boolean computesPixels() {
+    return true;
+  }
+
+  @Override
+  public boolean isGreyScale() {
+    return this.isShared() ? this.grey : super.isGreyScale();
+  }
+
+  @Override
+  public StorageKind getStorageKind() {
+    return this.isShared() ? StorageKind.DEFERRED : super.getStorageKind();
+  }
+}
@@ -0,0 +1,223 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Helper methods to read and transform a pixel packed into one integer as 0xRRGGBB. Each
+ * transformation gives the same result as the matching operation on an {@link RGBPixel}. Matrix
+ * transformations go through the product tables of a {@link ColorMatrix}.
+ */
+final class PackedRGB {
+
+  private static final double[][] RED_MATRIX = {{1.0, 0.0, 0.0}, {1.0, 0.0, 0.0},
+      {1.0, 0.0, 0.0}};
+  private static final double[][] GREEN_MATRIX = {{0.0, 1.0, 0.0}, {0.0, 1.0, 0.0},
+      {0.0, 1.0, 0.0}};
+  private static final double[][] BLUE_MATRIX = {{0.0, 0.0, 1.0}, {0.0, 0.0, 1.0},
+      {0.0, 0.0, 1.0}};
+  private static final double[][] LUMA_MATRIX = {{0.2126, 0.7152, 0.0722},
+      {0.2126, 0.7152, 0.0722}, {0.2126, 0.7152, 0.0722}};
+  private static final double[][] INTENSITY_MATRIX = {{1.0 / 3.0, 1.0 / 3.0, 1.0 / 3.0},
+      {1.0 / 3.0, 1.0 / 3.0, 1.0 / 3.0}, {1.0 / 3.0, 1.0 / 3.0, 1.0 / 3.0}};
+  static final double[][] SEPIA_MATRIX = {{0.393, 0.769, 0.189},
+      {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}};
+  private static final ColorMatrix RED_TABLES = new ColorMatrix(RED_MATRIX);
+  private static final ColorMatrix GREEN_TABLES = new ColorMatrix(GREEN_MATRIX);
+  private static final ColorMatrix BLUE_TABLES = new ColorMatrix(BLUE_MATRIX);
+  private static final ColorMatrix LUMA_TABLES = new ColorMatrix(LUMA_MATRIX);
+  private static final ColorMatrix INTENSITY_TABLES = new ColorMatrix(INTENSITY_MATRIX);
+  private static final ColorMatrix SEPIA_TABLES = new ColorMatrix(SEPIA_MATRIX);
+
+  private PackedRGB() {
+  }
+
+  static int red(int rgb) {
+    return (rgb >> 16) & 0xff;
+  }
+
+  static int green(int rgb) {
+    return (rgb >> 8) & 0xff;
+  }
+
+  static int blue(int rgb) {
+    return rgb & 0xff;
+  }
+
+  static int pack(int red, int green, int blue) {
+    return (red << 16) | (green << 8) | blue;
+  }
+
+  /**
+   * Bound the given component value to the range [0, 255].
+   *
+   * @param value the value to bound.
+   * @return the value bounded by [0, 255].
+   */
+  static int clamp(int value) {
+    if (value < 0) {
+      return 0;
+    } else if (value > 255) {
+      return 255;
+    }
+    return value;
+  }
+
+  /**
+   * Get the maximum value of the components of the given pixel.
+   *
+   * @param rgb the packed pixel.
+   * @return the largest of its red, green, and blue values.
+   */
+  static int getMaxComponentValue(int rgb) {
+    return Math.max(blue(rgb), Math.max(red(rgb), green(rgb)));
+  }
+
+  /**
+   * Change all components of the given pixel by the given amount bounded by [0, 255].
+   *
+   * @param rgb       the packed pixel.
+   * @param increment the amount to add to each component.
+   * @return the changed packed pixel.
+   */
+  static int changeAllBy(int rgb, int increment) {
+    return pack(clamp(red(rgb) + increment), clamp(green(rgb) + increment),
+        clamp(blue(rgb) + increment));
+  }
+
+  /**
+   * Set all components of the given pixel to the value of the given light component.
+   *
+   * @param rgb       the packed pixel.
+   * @param component the light component to base the grey-scale on.
+   * @return the grey-scaled packed pixel.
+   * @throws IllegalArgumentException if the given component is null.
+   */
+  static int setLightComponent(int rgb, Light component) throws IllegalArgumentException {
+    if (component == null) {
+      throw new IllegalArgumentException("Invalid Light component");
+    }
+    int red = red(rgb);
+    int green = green(rgb);
+    int blue = blue(rgb);
+    int value;
+    switch (component) {
+      case RED:
+        value = red;
+        break;
+      case BLUE:
+        value = blue;
+        break;
+      case GREEN:
+        value = green;
+        break;
+      case LUMA:
+        value = (int) Math.round((0.2126 * red) + (0.7152 * green) + (0.0722 * blue));
+        break;
+      case VALUE:
+        value = getMaxComponentValue(rgb);
+        break;
+      case INTENSITY:
+        value = (int) Math.round((red + blue + green) / 3.0);
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid Light component");
+    }
+    return pack(value, value, value);
+  }
+
+  /**
+   * Grey-scale the given pixel via a matrix color transformation for the given light component.
+   *
+   * @param rgb       the packed pixel.
+   * @param component the light component to base the grey-scale on.
+   * @return the grey-scaled packed pixel.
+   * @throws IllegalArgumentException if the given component is null.
+   */
+  static int performMatMult(int rgb, Light component) throws IllegalArgumentException {
+    return greyscaleMatrix(component).applyAsInt(rgb);
+  }
+
+  /**
+   * Turn the given pixel into a sepia tone via a matrix color transformation.
+   *
+   * @param rgb the packed pixel.
+   * @return the sepia toned packed pixel.
+   */
+  static int sepia(int rgb) {
+    return SEPIA_TABLES.applyAsInt(rgb);
+  }
+
+  /**
+   * Get the matrix color transformation that grey-scales a pixel by the given light component.
+   * The value transformation picks the matrix of the largest component of each pixel, so it is
+   * not a single matrix.
+   *
+   * @param component the light component to base the grey-scale on.
+   * @return the transformation taking and returning a packed pixel.
+   * @throws IllegalArgumentException if the given component is null.
+   */
+  static IntUnaryOperator greyscaleMatrix(Light component) throws IllegalArgumentException {
+    if (component == null) {
+      throw new IllegalArgumentException("Invalid Light component");
+    }
+    switch (component) {
+      case RED:
+        return RED_TABLES;
+      case BLUE:
+        return BLUE_TABLES;
+      case GREEN:
+        return GREEN_TABLES;
+      case LUMA:
+        return LUMA_TABLES;
+      case VALUE:
+        return rgb -> {
+          int max = getMaxComponentValue(rgb);
+          if (max == red(rgb)) {
+            return RED_TABLES.applyAsInt(rgb);
+          } else if (max == blue(rgb)) {
+            return BLUE_TABLES.applyAsInt(rgb);
+          }
+          return GREEN_TABLES.applyAsInt(rgb);
+        };
+      case INTENSITY:
+        return INTENSITY_TABLES;
+      default:
+        throw new IllegalArgumentException("Invalid Light component");
+    }
+  }
+
+  /**
+   * Get the grey-scale matrix of the given light component for the pixel with the given
+   * components.
+   *
+   * @param red       the red component of the pixel.
+   * @param green     the green component of the pixel.
+   * @param blue      the blue component of the pixel.
+   * @param component the light component to get the matrix of.
+   * @return the 3x3 matrix to multiply the pixel by.
+   */
+  static double[][] getMatrix(int red, int green, int blue, Light component) {
+    switch (component) {
+      case RED:
+        return RED_MATRIX;
+      case BLUE:
+        return BLUE_MATRIX;
+      case GREEN:
+        return GREEN_MATRIX;
+      case LUMA:
+        return LUMA_MATRIX;
+      case VALUE:
+        int toBeSet = Math.max(blue, Math.max(red, green));
+        if (toBeSet == red) {
+          return RED_MATRIX;
+        } else if (toBeSet == blue) {
+          return BLUE_MATRIX;
+        }
+        return GREEN_MATRIX;
+      case INTENSITY:
+        return INTENSITY_MATRIX;
+      default:
+        throw new IllegalArgumentException("Invalid Light component");
+    }
+  }
+}
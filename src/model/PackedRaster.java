@@ -0,0 +1,142 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent an image as one array of packed 0xRRGGBB integers stored row by row, which uses
+ * four bytes per pixel instead of one object per pixel.
+ */
+public class PackedRaster implements ImageRaster {
+
+  private final int width;
+  private final int height;
+  private final int[] rgb;
+
+  /**
+   * Constructor to make a black raster of the given size.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @throws IllegalArgumentException if the width or height is negative.
+   */
+  public PackedRaster(int width, int height) throws IllegalArgumentException {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Invalid image size");
+    }
+    this.width = width;
+    this.height = height;
+    this.rgb = new int[Math.multiplyExact(width, height)];
+  }
+
+  /**
+   * Constructor to make a raster backed by the given row by row array of packed colors. The array
+   * is not copied, so later changes to it are seen by this raster.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @param rgb    the packed colors of the image stored row by row.
+   * @throws IllegalArgumentException if the size is negative or does not match the array.
+   */
+  public PackedRaster(int width, int height, int[] rgb) throws IllegalArgumentException {
+    if (width < 0 || height < 0 || rgb == null || rgb.length != (long) width * height) {
+      throw new IllegalArgumentException("Invalid image size");
+    }
+    this.width = width;
+    this.height = height;
+    this.rgb = rgb;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    return this.rgb[row * this.width + col];
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    this.rgb[row * this.width + col] = rgb;
+  }
+
+  /**
+   * Replace every pixel of this raster with the result of the given operation on it. Adding the
+   * same amount to every component runs as a loop of its own over the pixels.
+   */
+  @Override
+  public void transform(IntUnaryOperator operation) {
+    if (operation instanceof ChannelOffset) {
+      ((ChannelOffset) operation).applyToPixels(this.rgb);
+      return;
+    }
+    for (int i = 0; i < this.rgb.length; i++) {
+      this.rgb[i] = operation.applyAsInt(this.rgb[i]);
+    }
+  }
+
+  /**
+   * Get a new raster holding the result of the given operation on every pixel of this raster.
+   * Adding the same amount to every component runs as a loop of its own over the pixels.
+   */
+  @Override
+  public ImageRaster map(IntUnaryOperator operation) {
+    int[] result = new int[this.rgb.length];
+    if (operation instanceof ChannelOffset) {
+      ((ChannelOffset) operation).applyToPixels(this.rgb, result, 0, result.length);
+    } else {
+      for (int i = 0; i < this.rgb.length; i++) {
+        result[i] = operation.applyAsInt(this.rgb[i]);
+      }
+    }
+    return new PackedRaster(this.width, this.height, result);
+  }
+
+  /**
+   * Write the result of the given operation on one row of the given image into the same row of
+   * this raster. Adding the same amount to every component of a packed source runs as a loop of
+   * its own over the row.
+   */
+  @Override
+  public void mapRow(ImageRaster source, int row, IntUnaryOperator operation) {
+    int start = row * this.width;
+    if (source instanceof PackedRaster && operation instanceof ChannelOffset) {
+      ((ChannelOffset) operation).applyToPixels(((PackedRaster) source).rgb, this.rgb, start,
+          start + this.width);
+      return;
+    }
+    for (int j = 0; j < this.width; j++) {
+      this.rgb[start + j] = operation.applyAsInt(source.getRGB(row, j));
+    }
+  }
+
+  @Override
+  public boolean writesRowsIndependently() {
+    return true;
+  }
+
+  @Override
+  public long getByteSize() {
+    return 4L * this.rgb.length;
+  }
+
+  @Override
+  public ImageRaster copy() {
+    return new PackedRaster(this.width, this.height, this.rgb.clone());
+  }
+
+  /**
+   * Get the array backing this raster so whole image operations can run over it directly.
+   *
+   * @return the packed colors of the image stored row by row.
+   */
+  int[] getData() {
+    return this.rgb;
+  }
+}
@@ -0,0 +1,385 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent an image with few distinct colors as a palette of packed 0xRRGGBB colors and one
+ * palette index per pixel stored row by row. Indices take one byte while the palette has at most
+ * 256 colors and two bytes otherwise. Operations on every pixel only rewrite the palette, and
+ * mapping or copying the image shares the indices until one of the images is written to. Shared
+ * indices are counted in the size of only one of the rasters sharing them, which hands them on to
+ * another one once it stops using them or is released. If more than {@link #MAX_COLORS} colors are
+ * written, the raster copies itself into a full color raster of the given layout and keeps using
+ * that from then on.
+ */
+public class PaletteRaster implements ImageRaster {
+
+  /**
+   * The largest number of colors a palette can hold.
+   */
+  public static final int MAX_COLORS = 1 << 16;
+
+  private final int width;
+  private final int height;
+  private final StorageLayout colorLayout;
+  private int[] palette;
+  private int colors;
+  private byte[] byteIndex;
+  private short[] shortIndex;
+  private boolean sharedIndex;
+  private IndexOwner indexOwner;
+  private Map<Integer, Integer> lookup;
+  private ImageRaster color;
+
+  /**
+   * Constructor to make a black raster of the given size with a palette of one color.
+   *
+   * @param width       the number of pixels in a row.
+   * @param height      the number of pixels in a column.
+   * @param colorLayout the layout to copy the image into once the palette is full.
+   * @throws IllegalArgumentException if the width or height is negative or the layout is null.
+   */
+  public PaletteRaster(int width, int height, StorageLayout colorLayout)
+      throws IllegalArgumentException {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Invalid image size");
+    }
+    if (colorLayout == null) {
+      throw new IllegalArgumentException("Storage layout cannot be null");
+    }
+    this.width = width;
+    this.height = height;
+    this.colorLayout = colorLayout;
+    this.palette = new int[16];
+    this.colors = 1;
+    this.byteIndex = new byte[Math.multiplyExact(width, height)];
+    this.indexOwner = new IndexOwner(this);
+  }
+
+  /**
+   * Constructor to make a raster that shares the indices of the given raster with a new palette.
+   *
+   * @param other   the raster to share the indices of.
+   * @param palette the palette of the new raster, which must have as many colors as the other.
+   */
+  private PaletteRaster(PaletteRaster other, int[] palette) {
+    this.width = other.width;
+    this.height = other.height;
+    this.colorLayout = other.colorLayout;
+    this.palette = palette;
+    this.colors = other.colors;
+    this.byteIndex = other.byteIndex;
+    this.shortIndex = other.shortIndex;
+    this.sharedIndex = true;
+    this.indexOwner = other.indexOwner;
+    other.sharedIndex = true;
+  }
+
+  /**
+   * Make a palette raster holding the pixels of the given image if it has at most the given number
+   * of distinct colors.
+   *
+   * @param image       the image to index.
+   * @param maxColors   the largest palette to allow, at most {@link #MAX_COLORS}.
+   * @param colorLayout the layout to copy the result into once its palette is full.
+   * @return the palette raster, or null if the image has more colors than allowed.
+   * @throws IllegalArgumentException if the image or layout is null or the limit is invalid.
+   */
+  public static PaletteRaster of(ImageRaster image, int maxColors, StorageLayout colorLayout)
+      throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (maxColors < 1 || maxColors > MAX_COLORS) {
+      throw new IllegalArgumentException("Invalid palette size");
+    }
+    PaletteRaster result = new PaletteRaster(image.getWidth(), image.getHeight(), colorLayout);
+    if (result.byteIndex.length == 0) {
+      return result;
+    }
+    // start from the first pixel so that the black placeholder color does not take a slot
+    result.palette[0] = image.getRGB(0, 0);
+    int index = 0;
+    for (int i = 0; i < image.getHeight(); i++) {
+      for (int j = 0; j < image.getWidth(); j++) {
+        int rgb = image.getRGB(i, j);
+        Integer known = result.getLookup().get(rgb);
+        if (known == null && result.colors == maxColors) {
+          return null;
+        }
+        result.setIndex(index++, known == null ? result.addColor(rgb) : known);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the number of colors in the palette of this image, which may include colors no pixel uses
+   * anymore and the same color more than once.
+   *
+   * @return the palette size, or 0 if the image no longer uses a palette.
+   */
+  public int getPaletteSize() {
+    return this.color == null ? this.colors : 0;
+  }
+
+  /**
+   * Get the raster that should be stored for this image: the color copy once the palette has
+   * overflowed, or this raster otherwise.
+   *
+   * @return the raster to store.
+   */
+  ImageRaster resolve() {
+    return this.color == null ? this : this.color;
+  }
+
+  private int getIndex(int index) {
+    if (this.byteIndex != null) {
+      return this.byteIndex[index] & 0xff;
+    }
+    return this.shortIndex[index] & 0xffff;
+  }
+
+  private void setIndex(int index, int value) {
+    if (this.byteIndex != null) {
+      this.byteIndex[index] = (byte) value;
+    } else {
+      this.shortIndex[index] = (short) value;
+    }
+  }
+
+  /**
+   * Get the map from each color to its first index in the palette, building it if the palette has
+   * changed since it was last used.
+   *
+   * @return the map from color to palette index.
+   */
+  private Map<Integer, Integer> getLookup() {
+    if (this.lookup == null) {
+      this.lookup = new HashMap<>();
+      for (int k = 0; k < this.colors; k++) {
+        this.lookup.putIfAbsent(this.palette[k], k);
+      }
+    }
+    return this.lookup;
+  }
+
+  /**
+   * Add the given color to the end of the palette, widening the indices to two bytes once the
+   * palette no longer fits in one. The palette must not be full.
+   *
+   * @param rgb the packed color to add.
+   * @return the index of the new color.
+   */
+  private int addColor(int rgb) {
+    if (this.colors == 256 && this.byteIndex != null) {
+      this.shortIndex = new short[this.byteIndex.length];
+      for (int i = 0; i < this.byteIndex.length; i++) {
+        this.shortIndex[i] = (short) (this.byteIndex[i] & 0xff);
+      }
+      this.byteIndex = null;
+      this.sharedIndex = false;
+      this.leaveIndex();
+      this.indexOwner = new IndexOwner(this);
+    }
+    if (this.colors == this.palette.length) {
+      int[] grown = new int[Math.min(2 * this.colors, MAX_COLORS)];
+      System.arraycopy(this.palette, 0, grown, 0, this.colors);
+      this.palette = grown;
+    }
+    this.palette[this.colors] = rgb;
+    this.getLookup().put(rgb, this.colors);
+    return this.colors++;
+  }
+
+  /**
+   * Copy the indices if they are shared with another raster so they can be written to.
+   */
+  private void ownIndex() {
+    if (this.sharedIndex) {
+      if (this.byteIndex != null) {
+        this.byteIndex = this.byteIndex.clone();
+      } else {
+        this.shortIndex = this.shortIndex.clone();
+      }
+      this.sharedIndex = false;
+      this.leaveIndex();
+      this.indexOwner = new IndexOwner(this);
+    }
+  }
+
+  /**
+   * Stop counting the indices this raster uses, so that the next of the rasters still sharing them
+   * to be asked for its size counts them instead.
+   */
+  private void leaveIndex() {
+    if (this.indexOwner != null && this.indexOwner.raster == this) {
+      this.indexOwner.raster = null;
+    }
+  }
+
+  /**
+   * Check whether this raster counts its indices in its size, taking them over if the raster that
+   * counted them no longer does.
+   *
+   * @return true if the indices are counted in the size of this raster, false otherwise.
+   */
+  private boolean countsIndex() {
+    if (this.indexOwner.raster == null) {
+      this.indexOwner.raster = this;
+    }
+    return this.indexOwner.raster == this;
+  }
+
+  /**
+   * Copy this image into the color layout once its palette cannot hold another color.
+   */
+  private void expand() {
+    ImageRaster result = this.colorLayout.create(this.width, this.height);
+    int index = 0;
+    for (int i = 0; i < this.height; i++) {
+      for (int j = 0; j < this.width; j++) {
+        result.setRGB(i, j, this.palette[this.getIndex(index++)]);
+      }
+    }
+    this.color = result;
+    this.palette = null;
+    this.byteIndex = null;
+    this.shortIndex = null;
+    this.lookup = null;
+    this.leaveIndex();
+    this.indexOwner = null;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    if (this.color != null) {
+      return this.color.getRGB(row, col);
+    }
+    return this.palette[this.getIndex(row * this.width + col)];
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    if (this.color == null) {
+      Integer known = this.getLookup().get(rgb);
+      if (known != null || this.colors < MAX_COLORS) {
+        int value = known == null ? this.addColor(rgb) : known;
+        this.ownIndex();
+        this.setIndex(row * this.width + col, value);
+        return;
+      }
+      this.expand();
+    }
+    this.color.setRGB(row, col, rgb);
+  }
+
+  @Override
+  public void transform(IntUnaryOperator operation) {
+    if (this.color != null) {
+      this.color.transform(operation);
+      return;
+    }
+    for (int k = 0; k < this.colors; k++) {
+      this.palette[k] = operation.applyAsInt(this.palette[k]);
+    }
+    this.lookup = null;
+  }
+
+  @Override
+  public ImageRaster map(IntUnaryOperator operation) {
+    if (this.color != null) {
+      return this.color.map(operation);
+    }
+    int[] mapped = new int[this.palette.length];
+    for (int k = 0; k < this.colors; k++) {
+      mapped[k] = operation.applyAsInt(this.palette[k]);
+    }
+    return new PaletteRaster(this, mapped);
+  }
+
+  @Override
+  public ImageRaster copy() {
+    if (this.color != null) {
+      return this.color.copy();
+    }
+    return new PaletteRaster(this, this.palette.clone());
+  }
+
+  @Override
+  public boolean isGreyScale() {
+    if (this.color != null) {
+      return false;
+    }
+    for (int k = 0; k < this.colors; k++) {
+      int rgb = this.palette[k];
+      if (PackedRGB.red(rgb) != PackedRGB.blue(rgb)
+          || PackedRGB.green(rgb) != PackedRGB.blue(rgb)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public StorageKind getStorageKind() {
+    return this.color == null ? StorageKind.PALETTE : this.color.getStorageKind();
+  }
+
+  /**
+   * Get the number of bytes of the palette of this raster, and of its indices if it is the one of
+   * the rasters sharing them that counts them.
+   */
+  @Override
+  public long getByteSize() {
+    if (this.color != null) {
+      return this.color.getByteSize();
+    }
+    long palette = 4L * this.palette.length;
+    if (!this.countsIndex()) {
+      return palette;
+    }
+    long indices = this.byteIndex != null ? this.byteIndex.length : 2L * this.shortIndex.length;
+    return indices + palette;
+  }
+
+  /**
+   * Release this raster, handing the indices it shares on to another raster sharing them.
+   */
+  @Override
+  public void release() {
+    if (this.color != null) {
+      this.color.release();
+    }
+    this.leaveIndex();
+  }
+
+  /**
+   * To represent which of the rasters sharing the same indices counts them in its size.
+   */
+  private static final class IndexOwner {
+
+    private PaletteRaster raster;
+
+    /**
+     * Constructor to make the owner of new indices.
+     *
+     * @param raster the raster counting the indices.
+     */
+    private IndexOwner(PaletteRaster raster) {
+      this.raster = raster;
+    }
+  }
+}
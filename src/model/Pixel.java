@@ -5,6 +5,45 @@ package model;
  */
 public interface Pixel {
 
+  /**
+   * Create a pixel from a color packed into one integer as 0xRRGGBB. Any bits above the blue,
+   * green, and red bytes are ignored.
+   *
+   * @param rgb the packed color of the pixel.
+   * @return a new pixel with the given color.
+   */
+  static Pixel fromRGB(int rgb) {
+    return new RGBPixel((rgb >> 16) & 0xff, (rgb >> 8) & 0xff, rgb & 0xff);
+  }
+
+  /**
+   * Get the red value of the pixel.
+   *
+   * @return the red component of the pixel.
+   */
+  int getRed();
+
+  /**
+   * Get the green value of the pixel.
+   *
+   * @return the green component of the pixel.
+   */
+  int getGreen();
+
+  /**
+   * Get the blue value of the pixel.
+   *
+   * @return the blue component of the pixel.
+   */
+  int getBlue();
+
+  /**
+   * Get the color of the pixel packed into one integer as 0xRRGGBB.
+   *
+   * @return the packed color of the pixel.
+   */
+  int toRGB();
+
   /**
    * Changes all values by the given amount.
    *
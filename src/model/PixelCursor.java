@@ -0,0 +1,75 @@
+package model;
+
+/**
+ * This interface represents a read-only position in an image that a {@link PixelOperator} is
+ * applied at. The pixel under the cursor and its neighbors are read as primitive values, so
+ * operations can walk an image without creating an object per pixel. Neighbors are addressed by
+ * their offset from the cursor.
+ */
+public interface PixelCursor {
+
+  /**
+   * Get the row of the pixel under this cursor.
+   *
+   * @return the row starting at 0.
+   */
+  int getRow();
+
+  /**
+   * Get the column of the pixel under this cursor.
+   *
+   * @return the column starting at 0.
+   */
+  int getCol();
+
+  /**
+   * Get the number of pixels in a row of the image.
+   *
+   * @return the width of the image.
+   */
+  int getWidth();
+
+  /**
+   * Get the number of pixels in a column of the image.
+   *
+   * @return the height of the image.
+   */
+  int getHeight();
+
+  /**
+   * Get the value of a component of the image at full intensity.
+   *
+   * @return the maximum value of a component.
+   */
+  int getMaxValue();
+
+  /**
+   * Check whether the pixel at the given offset from this cursor is inside of the image.
+   *
+   * @param rowOffset the number of rows below the cursor, negative for rows above it.
+   * @param colOffset the number of columns right of the cursor, negative for columns left of it.
+   * @return true if the pixel is in the image, false otherwise.
+   */
+  boolean contains(int rowOffset, int colOffset);
+
+  /**
+   * Get a component of the pixel at the given offset from this cursor, which must be inside of
+   * the image.
+   *
+   * @param rowOffset the number of rows below the cursor, negative for rows above it.
+   * @param colOffset the number of columns right of the cursor, negative for columns left of it.
+   * @param channel   0 for red, 1 for green, or 2 for blue.
+   * @return the component in [0, maxValue].
+   */
+  int getComponent(int rowOffset, int colOffset, int channel);
+
+  /**
+   * Get the pixel at the given offset from this cursor as a packed 0xRRGGBB color, scaled to 8
+   * bits per component. The pixel must be inside of the image.
+   *
+   * @param rowOffset the number of rows below the cursor, negative for rows above it.
+   * @param colOffset the number of columns right of the cursor, negative for columns left of it.
+   * @return the packed color of the pixel.
+   */
+  int getRGB(int rowOffset, int colOffset);
+}
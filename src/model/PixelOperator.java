@@ -0,0 +1,32 @@
+package model;
+
+/**
+ * This interface represents an operation that computes each component of a new image from the
+ * pixels around the same position in a source image, read through a {@link PixelCursor}. It works
+ * on primitive values only, so applying it allocates nothing per pixel. A model may apply it to
+ * different rows from several threads at once, so it must not keep state between calls.
+ */
+@FunctionalInterface
+public interface PixelOperator {
+
+  /**
+   * Compute a component of the new pixel at the position of the given cursor. Results outside of
+   * [0, maxValue] are bounded to that range.
+   *
+   * @param cursor  the source image positioned at the pixel to compute.
+   * @param channel 0 for red, 1 for green, or 2 for blue.
+   * @return the new value of the component.
+   */
+  int apply(PixelCursor cursor, int channel);
+
+  /**
+   * Check whether this operator turns a grey-scale image into a grey-scale image by computing
+   * every channel the same way, in which case grey-scale images only need one pass and are stored
+   * with one byte per pixel.
+   *
+   * @return true if every channel is computed the same way, false otherwise.
+   */
+  default boolean keepsGrey() {
+    return false;
+  }
+}
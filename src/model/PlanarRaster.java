@@ -0,0 +1,127 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent an image as three separate planes of red, green, and blue bytes stored row by row,
+ * so that work on a single component reads one contiguous array.
+ */
+public class PlanarRaster implements ImageRaster {
+
+  private final int width;
+  private final int height;
+  private final byte[][] planes;
+
+  /**
+   * Constructor to make a black raster of the given size.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @throws IllegalArgumentException if the width or height is negative.
+   */
+  public PlanarRaster(int width, int height) throws IllegalArgumentException {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Invalid image size");
+    }
+    this.width = width;
+    this.height = height;
+    int size = Math.multiplyExact(width, height);
+    this.planes = new byte[][]{new byte[size], new byte[size], new byte[size]};
+  }
+
+  /**
+   * Constructor to make a raster with a copy of the given planes.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @param planes the red, green, and blue planes to copy.
+   */
+  private PlanarRaster(int width, int height, byte[][] planes) {
+    this.width = width;
+    this.height = height;
+    this.planes = new byte[][]{planes[0].clone(), planes[1].clone(), planes[2].clone()};
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    int index = row * this.width + col;
+    return PackedRGB.pack(this.planes[0][index] & 0xff, this.planes[1][index] & 0xff,
+        this.planes[2][index] & 0xff);
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    int index = row * this.width + col;
+    this.planes[0][index] = (byte) PackedRGB.red(rgb);
+    this.planes[1][index] = (byte) PackedRGB.green(rgb);
+    this.planes[2][index] = (byte) PackedRGB.blue(rgb);
+  }
+
+  @Override
+  public int getComponent(int row, int col, int channel) {
+    return this.planes[channel][row * this.width + col] & 0xff;
+  }
+
+  @Override
+  public void setComponent(int row, int col, int channel, int value) {
+    this.planes[channel][row * this.width + col] = (byte) value;
+  }
+
+  /**
+   * Replace every pixel of this raster with the result of the given operation on it. Adding the
+   * same amount to every component changes each plane eight components at a time.
+   */
+  @Override
+  public void transform(IntUnaryOperator operation) {
+    if (operation instanceof ChannelOffset) {
+      for (byte[] plane : this.planes) {
+        ((ChannelOffset) operation).applyToComponents(plane);
+      }
+      return;
+    }
+    ImageRaster.super.transform(operation);
+  }
+
+  /**
+   * Write the result of the given operation on one row of the given image into the same row of
+   * this raster. Adding the same amount to every component of a planar source changes each plane
+   * of the row eight components at a time.
+   */
+  @Override
+  public void mapRow(ImageRaster source, int row, IntUnaryOperator operation) {
+    if (source instanceof PlanarRaster && operation instanceof ChannelOffset) {
+      int start = row * this.width;
+      for (int channel = 0; channel < 3; channel++) {
+        ((ChannelOffset) operation).applyToComponents(((PlanarRaster) source).planes[channel],
+            this.planes[channel], start, start + this.width);
+      }
+      return;
+    }
+    ImageRaster.super.mapRow(source, row, operation);
+  }
+
+  @Override
+  public boolean writesRowsIndependently() {
+    return true;
+  }
+
+  @Override
+  public long getByteSize() {
+    return 3L * this.planes[0].length;
+  }
+
+  @Override
+  public ImageRaster copy() {
+    return new PlanarRaster(this.width, this.height, this.planes);
+  }
+}
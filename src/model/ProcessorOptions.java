@@ -0,0 +1,130 @@
+package model;
+
+/**
+ * To represent how an image processor stores and computes its images: how the pixels of each image
+ * are laid out in memory, when images derived from another image are stored as the pixels in which
+ * they differ from it, when the pixels of the results of operations are computed, and how the rows
+ * of an image are split between threads. Options cannot be changed; each {@code with} method gives
+ * new options that differ in one setting, starting from {@link #DEFAULT}, as in
+ * {@code ProcessorOptions.DEFAULT.withLayout(StorageLayout.PLANAR)}.
+ */
+public final class ProcessorOptions {
+
+  /**
+   * Store each image as packed pixels and derived images in full, compute the result of every
+   * operation right away, and process every row on the calling thread.
+   */
+  public static final ProcessorOptions DEFAULT = new ProcessorOptions(StorageLayout.PACKED, 0,
+      Evaluation.EAGER, RowBands.SERIAL);
+
+  private final StorageLayout layout;
+  private final double deltaThreshold;
+  private final Evaluation evaluation;
+  private final RowBands rows;
+
+  private ProcessorOptions(StorageLayout layout, double deltaThreshold, Evaluation evaluation,
+      RowBands rows) {
+    this.layout = layout;
+    this.deltaThreshold = deltaThreshold;
+    this.evaluation = evaluation;
+    this.rows = rows;
+  }
+
+  /**
+   * Get these options with each image stored in the given layout.
+   *
+   * @param layout how the pixels of each image are laid out in memory.
+   * @return the new options.
+   * @throws IllegalArgumentException if the given layout is null.
+   */
+  public ProcessorOptions withLayout(StorageLayout layout) throws IllegalArgumentException {
+    if (layout == null) {
+      throw new IllegalArgumentException("Storage layout cannot be null");
+    }
+    return new ProcessorOptions(layout, this.deltaThreshold, this.evaluation, this.rows);
+  }
+
+  /**
+   * Get these options with images derived from another image stored as the pixels in which they
+   * differ from it whenever that takes at most the given fraction of the memory of the full image.
+   * Deferred results are never stored as deltas, since that would compute them right away.
+   *
+   * @param deltaThreshold the largest size of a delta as a fraction of the size of the full image
+   *                       in [0, 1], or 0 to always store derived images in full.
+   * @return the new options.
+   * @throws IllegalArgumentException if the threshold is outside of [0, 1].
+   */
+  public ProcessorOptions withDeltaThreshold(double deltaThreshold)
+      throws IllegalArgumentException {
+    if (!(deltaThreshold >= 0 && deltaThreshold <= 1)) {
+      throw new IllegalArgumentException("Delta threshold must be in [0, 1]");
+    }
+    return new ProcessorOptions(this.layout, deltaThreshold, this.evaluation, this.rows);
+  }
+
+  /**
+   * Get these options with the pixels of the results of operations computed when the given
+   * evaluation says so.
+   *
+   * @param evaluation when the pixels of the results of operations are computed.
+   * @return the new options.
+   * @throws IllegalArgumentException if the given evaluation is null.
+   */
+  public ProcessorOptions withEvaluation(Evaluation evaluation) throws IllegalArgumentException {
+    if (evaluation == null) {
+      throw new IllegalArgumentException("Evaluation cannot be null");
+    }
+    return new ProcessorOptions(this.layout, this.deltaThreshold, evaluation, this.rows);
+  }
+
+  /**
+   * Get these options with the rows of large enough images split into the given bands computed in
+   * parallel.
+   *
+   * @param rows how the rows of an image are split between threads.
+   * @return the new options.
+   * @throws IllegalArgumentException if the given rows is null.
+   */
+  public ProcessorOptions withRows(RowBands rows) throws IllegalArgumentException {
+    if (rows == null) {
+      throw new IllegalArgumentException("Row bands cannot be null");
+    }
+    return new ProcessorOptions(this.layout, this.deltaThreshold, this.evaluation, rows);
+  }
+
+  /**
+   * Get how the pixels of each image are laid out in memory.
+   *
+   * @return the storage layout.
+   */
+  public StorageLayout getLayout() {
+    return this.layout;
+  }
+
+  /**
+   * Get the largest size of a delta as a fraction of the size of the full image.
+   *
+   * @return the threshold in [0, 1], or 0 if derived images are always stored in full.
+   */
+  public double getDeltaThreshold() {
+    return this.deltaThreshold;
+  }
+
+  /**
+   * Get when the pixels of the results of operations are computed.
+   *
+   * @return the evaluation.
+   */
+  public Evaluation getEvaluation() {
+    return this.evaluation;
+  }
+
+  /**
+   * Get how the rows of an image are split between threads.
+   *
+   * @return the row bands.
+   */
+  public RowBands getRows() {
+    return this.rows;
+  }
+}
@@ -1,8 +1,5 @@
 package model;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -96,179 +93,49 @@ public class RGBPixel implements Pixel {
   }
 
   @Override
-  public int getMaxComponentValue() {
-    return Math.max(this.blueValue, Math.max(this.redValue, this.greenValue));
+  public int getRed() {
+    return this.redValue;
   }
 
   @Override
-  public void performMatMult(Light component) {
-    if (component == null) {
-      throw new IllegalArgumentException("Invalid Light component");
-    }
-    List<List<Double>> matrix;
-    switch (component) {
-      case RED:
-        matrix = this.setRedMatrix();
-        break;
-      case BLUE:
-        matrix = this.setBlueMatrix();
-        break;
-      case GREEN:
-        matrix = this.setGreenMatrix();
-        break;
-      case LUMA:
-        matrix = this.setLumaMatrix();
-        break;
-      case VALUE:
-        int toBeSet = this.getMaxComponentValue();
-        if (toBeSet == this.redValue) {
-          matrix = this.setRedMatrix();
-        } else if (toBeSet == this.blueValue) {
-          matrix = this.setBlueMatrix();
-        } else {
-          matrix = this.setGreenMatrix();
-        }
-        break;
-      case INTENSITY:
-        matrix = this.setIntensityMatrix();
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid Light component");
-    }
-    this.matrixMult(matrix);
+  public int getGreen() {
+    return this.greenValue;
   }
 
   @Override
-  public void sepia() {
-    List<List<Double>> matrix = new ArrayList<>();
-    matrix.add(Arrays.asList(0.393, 0.769, 0.189));
-    matrix.add(Arrays.asList(0.349, 0.686, 0.168));
-    matrix.add(Arrays.asList(0.272, 0.534, 0.131));
-    this.matrixMult(matrix);
-  }
-
-  /**
-   * Get the matrix to be multiplied for a red value grey-scale.
-   *
-   * @return the matrix for a red value grey-scale.
-   */
-  private List<List<Double>> setRedMatrix() {
-    List<List<Double>> matrix = new ArrayList<>();
-    for (int i = 0; i < 3; i++) {
-      matrix.add(new ArrayList<Double>());
-      for (int j = 0; j < 3; j++) {
-        if (j == 0) {
-          matrix.get(i).add(1.0);
-        } else {
-          matrix.get(i).add(0.0);
-        }
-      }
-    }
-    return matrix;
+  public int getBlue() {
+    return this.blueValue;
   }
 
-  /**
-   * Get the matrix to be multiplied for a blue value grey-scale.
-   *
-   * @return the matrix for a blue value grey-scale.
-   */
-  private List<List<Double>> setBlueMatrix() {
-    List<List<Double>> matrix = new ArrayList<>();
-    for (int i = 0; i < 3; i++) {
-      matrix.add(new ArrayList<Double>());
-      for (int j = 0; j < 3; j++) {
-        if (j == 2) {
-          matrix.get(i).add(1.0);
-        } else {
-          matrix.get(i).add(0.0);
-        }
-      }
-    }
-    return matrix;
+  @Override
+  public int toRGB() {
+    return PackedRGB.pack(this.redValue, this.greenValue, this.blueValue);
   }
 
-  /**
-   * Get the matrix to be multiplied for a green value grey-scale.
-   *
-   * @return the matrix for a green value grey-scale.
-   */
-  private List<List<Double>> setGreenMatrix() {
-    List<List<Double>> matrix = new ArrayList<>();
-    for (int i = 0; i < 3; i++) {
-      matrix.add(new ArrayList<Double>());
-      for (int j = 0; j < 3; j++) {
-        if (j == 1) {
-          matrix.get(i).add(1.0);
-        } else {
-          matrix.get(i).add(0.0);
-        }
-      }
-    }
-    return matrix;
+  @Override
+  public int getMaxComponentValue() {
+    return Math.max(this.blueValue, Math.max(this.redValue, this.greenValue));
   }
 
-  /**
-   * Get the matrix to be multiplied for a luma value grey-scale.
-   *
-   * @return the matrix for a luma value grey-scale.
-   */
-  private List<List<Double>> setLumaMatrix() {
-    List<List<Double>> matrix = new ArrayList<>();
-    for (int i = 0; i < 3; i++) {
-      matrix.add(new ArrayList<Double>());
-      for (int j = 0; j < 3; j++) {
-        if (j == 0) {
-          matrix.get(i).add(0.2126);
-        } else if (j == 1) {
-          matrix.get(i).add(0.7152);
-        } else {
-          matrix.get(i).add(0.0722);
-        }
-      }
-    }
-    return matrix;
+  @Override
+  public void performMatMult(Light component) {
+    this.setAllFrom(PackedRGB.performMatMult(this.toRGB(), component));
   }
 
-  /**
-   * Get the matrix to be multiplied for an intensity value grey-scale.
-   *
-   * @return the matrix for an intensity value grey-scale.
-   */
-  private List<List<Double>> setIntensityMatrix() {
-    List<List<Double>> matrix = new ArrayList<>();
-    for (int i = 0; i < 3; i++) {
-      matrix.add(new ArrayList<Double>());
-      for (int j = 0; j < 3; j++) {
-        matrix.get(i).add(1.0 / 3.0);
-      }
-    }
-    return matrix;
+  @Override
+  public void sepia() {
+    this.setAllFrom(PackedRGB.sepia(this.toRGB()));
   }
 
   /**
-   * Multiply the given matrix with the RGB values and set the new RGB values as the product.
+   * Set the rgb components to those of the given packed pixel.
    *
-   * @param matrix the matrix to multiply with.
+   * @param rgb the packed 0xRRGGBB pixel to take the components of.
    */
-  private void matrixMult(List<List<Double>> matrix) {
-    int oldRedValue = this.redValue;
-    int oldBlueValue = this.blueValue;
-    int oldGreenValue = this.greenValue;
-    this.redValue = (int) Math.round(oldRedValue * matrix.get(0).get(0)
-        + oldGreenValue * matrix.get(0).get(1) + oldBlueValue * matrix.get(0).get(2));
-    if (this.redValue > 255) {
-      this.redValue = 255;
-    }
-    this.greenValue = (int) Math.round(oldRedValue * matrix.get(1).get(0)
-        + oldGreenValue * matrix.get(1).get(1) + oldBlueValue * matrix.get(1).get(2));
-    if (this.greenValue > 255) {
-      this.greenValue = 255;
-    }
-    this.blueValue = (int) Math.round(oldRedValue * matrix.get(2).get(0)
-        + oldGreenValue * matrix.get(2).get(1) + oldBlueValue * matrix.get(2).get(2));
-    if (this.blueValue > 255) {
-      this.blueValue = 255;
-    }
+  private void setAllFrom(int rgb) {
+    this.redValue = PackedRGB.red(rgb);
+    this.greenValue = PackedRGB.green(rgb);
+    this.blueValue = PackedRGB.blue(rgb);
   }
 
   /**
@@ -0,0 +1,74 @@
+package model;
+
+/**
+ * To represent a cursor that is moved over the pixels of a raster and reads them directly from
+ * it.
+ */
+final class RasterCursor implements PixelCursor {
+
+  private final ImageRaster image;
+  private int row;
+  private int col;
+
+  /**
+   * Constructor to make a cursor at the first pixel of the given image.
+   *
+   * @param image the image to read from.
+   */
+  RasterCursor(ImageRaster image) {
+    this.image = image;
+  }
+
+  /**
+   * Move this cursor to the given pixel.
+   *
+   * @param row the row of the pixel starting at 0.
+   * @param col the column of the pixel starting at 0.
+   */
+  void moveTo(int row, int col) {
+    this.row = row;
+    this.col = col;
+  }
+
+  @Override
+  public int getRow() {
+    return this.row;
+  }
+
+  @Override
+  public int getCol() {
+    return this.col;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.image.getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    return this.image.getHeight();
+  }
+
+  @Override
+  public int getMaxValue() {
+    return this.image.getMaxValue();
+  }
+
+  @Override
+  public boolean contains(int rowOffset, int colOffset) {
+    int r = this.row + rowOffset;
+    int c = this.col + colOffset;
+    return r >= 0 && r < this.image.getHeight() && c >= 0 && c < this.image.getWidth();
+  }
+
+  @Override
+  public int getComponent(int rowOffset, int colOffset, int channel) {
+    return this.image.getComponent(this.row + rowOffset, this.col + colOffset, channel);
+  }
+
+  @Override
+  public int getRGB(int rowOffset, int colOffset) {
+    return this.image.getRGB(this.row + rowOffset, this.col + colOffset);
+  }
+}
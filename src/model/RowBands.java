@@ -0,0 +1,160 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * To represent how a model splits the rows of an image into bands that are processed in parallel
+ * on a fork/join pool. Row bands with the same number of threads share one pool, so making many
+ * of them does not start more threads. Images with fewer pixels than a minimum are processed on the
+ * calling thread, since splitting them costs more than it saves. Every row is computed the same
+ * way whichever thread computes it, so results do not depend on the number of threads.
+ */
+public final class RowBands {
+
+  /**
+   * Process every row on the calling thread.
+   */
+  public static final RowBands SERIAL = new RowBands(1, 0);
+
+  /**
+   * The number of pixels below which splitting an image between threads usually costs more than it
+   * saves.
+   */
+  public static final long DEFAULT_MINIMUM_PIXELS = 1 << 16;
+
+  // enough bands per thread that a thread finishing early can take work from a slower one
+  private static final int BANDS_PER_THREAD = 4;
+
+  // the pool of each number of threads, made the first time row bands with that many need it
+  private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+  private final int parallelism;
+  private final long minimumPixels;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructor to make bands processed by the given number of threads for images with at least
+   * the given number of pixels.
+   *
+   * @param parallelism   the number of threads in the shared pool, or 1 to process every row on
+   *                      the calling thread.
+   * @param minimumPixels the smallest number of pixels an image must have to be split.
+   * @throws IllegalArgumentException if the parallelism is not positive or the minimum is
+   *                                  negative.
+   */
+  public RowBands(int parallelism, long minimumPixels) throws IllegalArgumentException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    if (minimumPixels < 0) {
+      throw new IllegalArgumentException("Minimum image size cannot be negative");
+    }
+    this.parallelism = parallelism;
+    this.minimumPixels = minimumPixels;
+    this.pool = parallelism == 1 ? null : POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+  }
+
+  /**
+   * Get the number of threads the rows of an image are split between.
+   *
+   * @return the number of threads in the pool.
+   */
+  public int getParallelism() {
+    return this.parallelism;
+  }
+
+  /**
+   * Get the smallest number of pixels an image must have for its rows to be split.
+   *
+   * @return the minimum number of pixels.
+   */
+  public long getMinimumPixels() {
+    return this.minimumPixels;
+  }
+
+  /**
+   * Check whether the rows of an image of the given size are split between threads.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @return true if the rows are processed in parallel, false otherwise.
+   */
+  public boolean isParallel(int width, int height) {
+    return this.pool != null && height > 1 && (long) width * height >= this.minimumPixels;
+  }
+
+  /**
+   * Run the given task once for every row of an image of the given size, splitting the rows into
+   * bands processed in parallel if the image is large enough, and return once every row is done.
+   * The task must only write to the row it is given. If the task fails on any row, the failure
+   * is thrown here as it was thrown by the task.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @param row    the task taking the index of the row to process.
+   */
+  public void forEachRow(int width, int height, IntConsumer row) {
+    if (!this.isParallel(width, height)) {
+      for (int i = 0; i < height; i++) {
+        row.accept(i);
+      }
+      return;
+    }
+    int bandHeight = Math.max(1, height / (this.parallelism * BANDS_PER_THREAD));
+    try {
+      this.pool.invoke(new Band(row, 0, height, bandHeight));
+    } catch (RuntimeException e) {
+      // a failure on another thread is rethrown as a copy wrapping it at every join it passes
+      RuntimeException failure = e;
+      while (failure.getCause() != null && failure.getCause().getClass() == failure.getClass()) {
+        failure = (RuntimeException) failure.getCause();
+      }
+      throw failure;
+    }
+  }
+
+  /**
+   * To represent a band of rows that is split in half until it is no taller than a given height.
+   */
+  private static final class Band extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final IntConsumer row;
+    private final int start;
+    private final int end;
+    private final int bandHeight;
+
+    /**
+     * Constructor to make the band of the rows in [start, end).
+     *
+     * @param row        the task taking the index of the row to process.
+     * @param start      the first row of the band.
+     * @param end        the row after the last row of the band.
+     * @param bandHeight the number of rows below which the band is processed without splitting.
+     */
+    private Band(IntConsumer row, int start, int end, int bandHeight) {
+      this.row = row;
+      this.start = start;
+      this.end = end;
+      this.bandHeight = bandHeight;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.end - this.start <= this.bandHeight) {
+        for (int i = this.start; i < this.end; i++) {
+          this.row.accept(i);
+        }
+        return;
+      }
+      int middle = (this.start + this.end) >>> 1;
+      invokeAll(new Band(this.row, this.start, middle, this.bandHeight),
+          new Band(this.row, middle, this.end, this.bandHeight));
+    }
+  }
+}
@@ -0,0 +1,270 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * To represent an image that reads its pixels from a source image until it is first written to,
+ * at which point it materializes its own copy. The source must not change while it is shared,
+ * which holds for every image stored in a model since operations always write their results to a
+ * new image. A view may use another view as its source, as when flipping a {@link DeltaRaster} or
+ * when a lazy model records one operation on the deferred result of another, so a view copies the
+ * pixels it reads once any image along its chain of sources is removed or released.
+ */
+public abstract class SharedRaster implements ImageRaster {
+
+  protected final ImageRaster source;
+  private volatile ImageRaster own;
+
+  /**
+   * Constructor to make an image that shares the pixels of the given source.
+   *
+   * @param source the image to share the pixels of.
+   * @throws IllegalArgumentException if the given source is null.
+   */
+  protected SharedRaster(ImageRaster source) throws IllegalArgumentException {
+    if (source == null) {
+      throw new IllegalArgumentException("Source image cannot be null");
+    }
+    this.source = source;
+    this.own = null;
+  }
+
+  /**
+   * Build this image's own copy of its pixels from the source with the given operation applied to
+   * every pixel.
+   *
+   * @param operation the operation taking and returning a packed 0xRRGGBB pixel, or null to copy
+   *                  the pixels unchanged.
+   * @return a new raster owned by this image.
+   */
+  protected abstract ImageRaster materialize(IntUnaryOperator operation);
+
+  /**
+   * Get the packed pixel at the given position while this image still shares its source.
+   *
+   * @param row the row of the pixel starting at 0.
+   * @param col the column of the pixel starting at 0.
+   * @return the packed color of the pixel.
+   */
+  protected abstract int getSharedRGB(int row, int col);
+
+  /**
+   * Get a new image sharing the same source in the same way as this one.
+   *
+   * @return another view of the source.
+   */
+  protected abstract SharedRaster share();
+
+  /**
+   * Get the raster that another view should read from to share this image's pixels: the copy it
+   * owns once written to, or null while it still shares its source.
+   *
+   * @param image the image to share.
+   * @return the raster owned by the image, the image itself if it is not a shared raster, or null.
+   */
+  protected static ImageRaster ownedPixels(ImageRaster image) {
+    if (image instanceof SharedRaster) {
+      return ((SharedRaster) image).own;
+    }
+    return image;
+  }
+
+  /**
+   * Check whether reading a pixel of this image while it is shared computes it from other pixels
+   * rather than only reading a pixel of its source.
+   *
+   * @return true if this image defers the computation of its pixels, false otherwise.
+   */
+  protected boolean computesPixels() {
+    return false;
+  }
+
+  /**
+   * Check whether reading a pixel of this image computes it, either in this image or in one of the
+   * shared views it reads from.
+   *
+   * @return true if reading this image computes its pixels, false otherwise.
+   */
+  boolean defersWork() {
+    if (this.own != null) {
+      return false;
+    }
+    return this.computesPixels() || (this.source instanceof SharedRaster
+        && ((SharedRaster) this.source).defersWork());
+  }
+
+  /**
+   * Get a raster holding the pixels of the given image that can be read more than once without
+   * computing them again, leaving the given image as it is.
+   *
+   * @param image the image to read.
+   * @return the image itself, or a new raster with its deferred pixels computed.
+   */
+  static ImageRaster readable(ImageRaster image) {
+    if (image instanceof SharedRaster && ((SharedRaster) image).defersWork()) {
+      return ((SharedRaster) image).materialize(null);
+    }
+    return image;
+  }
+
+  /**
+   * Compute this image's own copy of its pixels now if reading them would compute them, so that
+   * reading every pixel more than once only computes them once.
+   */
+  synchronized void evaluate() {
+    if (this.defersWork()) {
+      this.own = this.materialize(null);
+    }
+  }
+
+  /**
+   * Check whether this image still reads its pixels from the given image, directly or through the
+   * views it reads from.
+   *
+   * @param image the image to look for.
+   * @return true if this image shares the pixels of the given image, false otherwise.
+   */
+  boolean readsFrom(ImageRaster image) {
+    if (this.own != null) {
+      return false;
+    }
+    if (this.source == image || this.source == ownedPixels(image)) {
+      return true;
+    }
+    return this.source instanceof SharedRaster && ((SharedRaster) this.source).readsFrom(image);
+  }
+
+  /**
+   * Check whether this raster still shares the pixels of its source.
+   *
+   * @return true if nothing has been written to this raster yet, false otherwise.
+   */
+  public boolean isShared() {
+    return this.own == null;
+  }
+
+  /**
+   * Get the raster that should be stored for this image: the copy it owns once written to, or
+   * this raster while it still shares the source.
+   *
+   * @return the raster to store.
+   */
+  ImageRaster resolve() {
+    return this.own == null ? this : this.own;
+  }
+
+  /**
+   * Get a raster owned by this image that can be written to, copying the source on first use.
+   *
+   * @return the raster to write pixels to.
+   */
+  private ImageRaster writable() {
+    if (this.own == null) {
+      this.own = this.materialize(null);
+    }
+    return this.own;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.source.getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    return this.source.getHeight();
+  }
+
+  @Override
+  public int getMaxValue() {
+    return this.source.getMaxValue();
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    if (this.own == null) {
+      return this.getSharedRGB(row, col);
+    }
+    return this.own.getRGB(row, col);
+  }
+
+  @Override
+  public int getComponent(int row, int col, int channel) {
+    if (this.own == null) {
+      return (this.getSharedRGB(row, col) >> (16 - 8 * channel)) & 0xff;
+    }
+    return this.own.getComponent(row, col, channel);
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    this.writable().setRGB(row, col, rgb);
+  }
+
+  @Override
+  public void setComponent(int row, int col, int channel, int value) {
+    this.writable().setComponent(row, col, channel, value);
+  }
+
+  @Override
+  public void transform(IntUnaryOperator operation) {
+    if (this.own == null) {
+      this.own = this.materialize(operation);
+    } else {
+      this.own.transform(operation);
+    }
+  }
+
+  @Override
+  public ImageRaster map(IntUnaryOperator operation) {
+    if (this.own == null) {
+      return this.materialize(operation);
+    }
+    return this.own.map(operation);
+  }
+
+  @Override
+  public ImageRaster copy() {
+    if (this.own == null) {
+      return this.share();
+    }
+    return this.own.copy();
+  }
+
+  @Override
+  public boolean isGreyScale() {
+    return this.own == null ? this.source.isGreyScale() : this.own.isGreyScale();
+  }
+
+  @Override
+  public StorageKind getStorageKind() {
+    return this.own == null ? StorageKind.SHARED : this.own.getStorageKind();
+  }
+
+  @Override
+  public long getByteSize() {
+    return this.own == null ? 0 : this.own.getByteSize();
+  }
+
+  @Override
+  public void release() {
+    if (this.own != null) {
+      this.own.release();
+    }
+  }
+
+  /**
+   * Copy the pixels of the given image if this image still reads from it, because it is no longer
+   * stored and its pixels should only be held, and counted, by the images that need them. This
+   * holds for every layout: a view of a released heap image would otherwise keep its whole pixel
+   * array alive while reporting that it takes no memory. A released view that holds no pixels of
+   * its own is left to be read through, since the images it reads from are still stored or are
+   * detached from when they are released in turn.
+   */
+  @Override
+  public void detach(ImageRaster released) {
+    if (released.getByteSize() > 0 && this.readsFrom(released)) {
+      this.own = this.materialize(null);
+    }
+  }
+}
@@ -1,151 +1,555 @@
 package model;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
 
 /**
- * To represent a simple image processor that represents each image as its individual pixels.
+ * To represent a simple image processor that represents each image as a raster of packed pixels.
  * This image processor supports the operations of load, save, brighten, grey-scale, and flip.
  */
 public class SimpleImageProcessor implements ImageProcessorModel {
 
-  protected final Map<String, List<List<Pixel>>> rgbValues;
+  protected final ImageStore rgbValues;
+  private final StorageLayout layout;
+  private final double deltaThreshold;
+  private final Evaluation evaluation;
+  private final RowBands rows;
 
   /**
-   * SimpleImageProcessor default constructor that initializes the map of images.
+   * SimpleImageProcessor default constructor that initializes the map of images and stores each
+   * image as packed pixels.
    */
   public SimpleImageProcessor() {
-    this.rgbValues = new HashMap<>();
+    this(ProcessorOptions.DEFAULT);
+  }
+
+  /**
+   * SimpleImageProcessor constructor that initializes the map of images and stores and computes
+   * each image as the given options say.
+   *
+   * @param options how images are stored and computed.
+   * @throws IllegalArgumentException if the given options are null.
+   */
+  public SimpleImageProcessor(ProcessorOptions options) throws IllegalArgumentException {
+    this(options, new SimpleImageStore());
+  }
+
+  /**
+   * SimpleImageProcessor constructor that keeps its images in the given store and stores and
+   * computes each image as the given options say.
+   *
+   * @param options how images are stored and computed.
+   * @param store   where the named images are kept.
+   * @throws IllegalArgumentException if the given options or store are null.
+   */
+  public SimpleImageProcessor(ProcessorOptions options, ImageStore store)
+      throws IllegalArgumentException {
+    if (options == null) {
+      throw new IllegalArgumentException("Processor options cannot be null");
+    }
+    if (store == null) {
+      throw new IllegalArgumentException("Image store cannot be null");
+    }
+    this.rgbValues = store;
+    this.layout = options.getLayout();
+    this.deltaThreshold = options.getDeltaThreshold();
+    this.evaluation = options.getEvaluation();
+    this.rows = options.getRows();
   }
 
   @Override
   public void loadImage(String imageName, List<List<Pixel>> ppmList)
       throws IllegalArgumentException {
-    this.rgbValues.put(imageName, ppmList);
+    int height = ppmList.size();
+    int width = height == 0 ? 0 : ppmList.get(0).size();
+    ImageRaster image = new PackedRaster(width, height);
+    for (int i = 0; i < height; i++) {
+      if (ppmList.get(i).size() != width) {
+        throw new IllegalArgumentException("All rows of an image must be the same length");
+      }
+      for (int j = 0; j < width; j++) {
+        image.setRGB(i, j, ppmList.get(i).get(j).toRGB());
+      }
+    }
+    this.loadImage(imageName, image);
+  }
+
+  /**
+   * Load the given image under the given name, storing it with one byte per pixel if all of its
+   * pixels are grey. Images with more than 8 bits per component are stored as they are.
+   */
+  @Override
+  public void loadImage(String imageName, ImageRaster image) throws IllegalArgumentException {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (image.getMaxValue() == 255 && GreyRaster.isAllGrey(image)) {
+      this.storeImage(imageName, this.greyscaleImage(image, IntUnaryOperator.identity()));
+    } else {
+      this.storeImage(imageName, this.layout.convert(image));
+    }
   }
 
   /**
-   * Get a deep copy of the give image to avoid mutating images in the map when not intended.
+   * Store the given image under the given name, releasing the image it replaces so that any memory
+   * held outside of the heap is freed right away. Images still sharing the pixels of the replaced
+   * image copy them first, so its memory is only held by images that count it.
    *
-   * @param imageName the image to be copied
-   * @return a new copied 2d array of pixels representing the given image.
+   * @param imageName the name to store the image under.
+   * @param image     the image to store.
+   */
+  protected void storeImage(String imageName, ImageRaster image) {
+    this.rgbValues.put(imageName, this.resolve(image));
+  }
+
+  /**
+   * Store the given image derived from the given parent under the given name. If this model keeps
+   * deltas and the image differs from its parent in few enough pixels, only those pixels are
+   * stored and the full image is released. An image that replaces its own parent is stored in full,
+   * since a delta would keep the whole replaced parent alive while only counting its changes. The
+   * image it replaces is only peeked at, since reloading it could evict the parent.
+   *
+   * @param imageName the name to store the image under.
+   * @param image     the image to store.
+   * @param parent    the stored image the given image was derived from.
+   */
+  protected void storeImage(String imageName, ImageRaster image, ImageRaster parent) {
+    ImageRaster resolved = this.resolve(image);
+    if (this.deltaThreshold > 0 && this.rgbValues.peek(imageName) != parent) {
+      ImageRaster delta = DeltaRaster.encode(parent, resolved, this.deltaThreshold);
+      if (delta != resolved) {
+        resolved.release();
+        resolved = delta;
+      }
+    }
+    this.rgbValues.put(imageName, resolved);
+  }
+
+  /**
+   * Get the raster that should be stored for the given image, which is the full copy an image has
+   * switched to if it could no longer keep its pixels in a more compact form.
+   *
+   * @param image the image to store.
+   * @return the raster to store.
+   */
+  private ImageRaster resolve(ImageRaster image) {
+    if (image instanceof SharedRaster) {
+      image = ((SharedRaster) image).resolve();
+    }
+    if (image instanceof GreyRaster) {
+      image = ((GreyRaster) image).resolve();
+    }
+    if (image instanceof PaletteRaster) {
+      image = ((PaletteRaster) image).resolve();
+    }
+    return image;
+  }
+
+  /**
+   * Create a new black image of the given size in the storage this model uses for its images.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @return the new image.
+   */
+  protected ImageRaster createImage(int width, int height) {
+    return this.layout.create(width, height);
+  }
+
+  /**
+   * Create a new black image of the given size whose components go up to the given maximum value,
+   * in the storage this model uses for its images if that value is 255.
+   *
+   * @param width    the number of pixels in a row.
+   * @param height   the number of pixels in a column.
+   * @param maxValue the value of a component at full intensity.
+   * @return the new image.
+   */
+  protected ImageRaster createImage(int width, int height, int maxValue) {
+    if (maxValue == 255) {
+      return this.createImage(width, height);
+    }
+    return new DeepRaster(width, height, maxValue);
+  }
+
+  /**
+   * Create a new image holding the result of the given operation on the components of every pixel
+   * of the given image, keeping the full precision of images with more than 8 bits per component.
+   *
+   * @param image     the image to transform.
+   * @param operation the operation changing the red, green, and blue components of a pixel in
+   *                  place.
+   * @return the new image with the same maximum value as the given image.
+   */
+  protected ImageRaster transformComponents(ImageRaster image, Consumer<int[]> operation) {
+    ImageRaster result = this.createImage(image.getWidth(), image.getHeight(),
+        image.getMaxValue());
+    this.forEachRow(result, i -> {
+      int[] rgb = new int[3];
+      for (int j = 0; j < image.getWidth(); j++) {
+        for (int channel = 0; channel < 3; channel++) {
+          rgb[channel] = image.getComponent(i, j, channel);
+        }
+        operation.accept(rgb);
+        for (int channel = 0; channel < 3; channel++) {
+          result.setComponent(i, j, channel, rgb[channel]);
+        }
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Create a new image holding the result of the given operation on every pixel of the given
+   * image with 8 bits per component. The result shares the pixels of the image until then if it
+   * is stored more compactly than in full color or is too small to split between threads.
+   *
+   * @param image     the image to transform.
+   * @param operation the operation taking and returning a packed 0xRRGGBB pixel.
+   * @return the new image.
+   */
+  protected ImageRaster mapImage(ImageRaster image, IntUnaryOperator operation) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    if (this.rows.isParallel(width, height) && image.writesRowsIndependently()
+        && !image.isGreyScale() && image.getMaxValue() == 255) {
+      ImageRaster result = this.createImage(width, height);
+      if (result.writesRowsIndependently()) {
+        this.forEachRow(result, i -> result.mapRow(image, i, operation));
+        return result;
+      }
+    }
+    ImageRaster result = CopyOnWriteRaster.share(image);
+    result.transform(operation);
+    return result;
+  }
+
+  /**
+   * Run the given task for every row of an image of the given size, splitting the rows into bands
+   * computed in parallel if this model does so for images of that size.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @param row    the task taking the index of the row to compute, which only writes to that row.
+   */
+  protected void forEachRow(int width, int height, IntConsumer row) {
+    this.rows.forEachRow(width, height, row);
+  }
+
+  /**
+   * Run the given task for every row of the given image, splitting the rows into bands computed
+   * in parallel if this model does so for images of its size and its rows can be written by
+   * different threads at once.
+   *
+   * @param result the image the task writes to.
+   * @param row    the task taking the index of the row to compute, which only writes to that row.
+   */
+  protected void forEachRow(ImageRaster result, IntConsumer row) {
+    RowBands bands = result.writesRowsIndependently() ? this.rows : RowBands.SERIAL;
+    bands.forEachRow(result.getWidth(), result.getHeight(), row);
+  }
+
+  /**
+   * Create a new black image of the given size that stores one byte per pixel for as long as only
+   * grey pixels are written to it.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @return the new image.
+   */
+  protected ImageRaster createGreyImage(int width, int height) {
+    return new GreyRaster(width, height, this.layout);
+  }
+
+  /**
+   * Create a new image holding the result of the given grey-scale operation on every pixel of the
+   * given image, stored with one byte per pixel. Images stored as a palette only have their
+   * palette grey-scaled.
+   *
+   * @param image     the image to grey-scale.
+   * @param operation the operation taking a packed 0xRRGGBB pixel and returning a grey one.
+   * @return the new grey-scale image.
+   */
+  protected ImageRaster greyscaleImage(ImageRaster image, IntUnaryOperator operation) {
+    if (image instanceof PaletteRaster) {
+      return image.map(operation);
+    }
+    return GreyRaster.of(image, operation, this.layout, this.rows);
+  }
+
+  /**
+   * Get the stored image with the given name without copying it. The returned image must not be
+   * changed.
+   *
+   * @param imageName the image to get.
+   * @return the raster of the given image.
    * @throws IllegalArgumentException if the given image cannot be found
    */
-  protected List<List<Pixel>> getImageCopyByName(String imageName) throws IllegalArgumentException {
-    List<List<Pixel>> copyImage = new ArrayList<>();
-    if (!this.rgbValues.containsKey(imageName)) {
+  protected ImageRaster getImageByName(String imageName) throws IllegalArgumentException {
+    ImageRaster image = this.rgbValues.get(imageName);
+    if (image == null) {
       throw new IllegalArgumentException("Image cannot be found");
     }
-    List<List<Pixel>> originalImage = this.rgbValues.get(imageName);
-    for (int i = 0; i < originalImage.size(); i++) {
-      copyImage.add(new ArrayList<Pixel>());
-      for (int j = 0; j < originalImage.get(i).size(); j++) {
-        String pixelVals = this.rgbValues.get(imageName).get(i).get(j).toString();
-        int red = Integer.parseInt(pixelVals.split(" ")[0]);
-        int green = Integer.parseInt(pixelVals.split(" ")[1]);
-        int blue = Integer.parseInt(pixelVals.split(" ")[2]);
-        copyImage.get(i).add(new RGBPixel(red, green, blue));
-      }
+    return image;
+  }
+
+  /**
+   * Get the stored image with the given name to read every pixel of it, computing its pixels first
+   * if this model is lazy and they have not been computed yet. The returned image must not be
+   * changed.
+   *
+   * @param imageName the image to get.
+   * @return the raster of the given image.
+   * @throws IllegalArgumentException if the given image cannot be found
+   */
+  protected ImageRaster getEvaluatedImage(String imageName) throws IllegalArgumentException {
+    ImageRaster image = this.getImageByName(imageName);
+    if (this.evaluation == Evaluation.LAZY && image instanceof SharedRaster) {
+      ((SharedRaster) image).evaluate();
     }
-    return copyImage;
+    return image;
+  }
+
+  /**
+   * Get the stored image with the given name as it leaves this model to be saved, shown, or
+   * measured, with every pixel computed. The returned image must not be changed.
+   *
+   * @param imageName the image to get.
+   * @return the raster of the given image as it is written out.
+   * @throws IllegalArgumentException if the given image cannot be found
+   */
+  protected ImageRaster getOutputImage(String imageName) throws IllegalArgumentException {
+    return this.getEvaluatedImage(imageName);
+  }
+
+  /**
+   * Store the result of the given operation on every pixel of the given image under the given name
+   * without applying it, if this model defers such operations and the image allows it. The
+   * operation is fused with any operations the image itself defers.
+   *
+   * @param newImageName the name to store the result under.
+   * @param parent       the stored image to apply the operation to.
+   * @param operation    the operation taking and returning a packed 0xRRGGBB pixel.
+   * @param grey         whether the result only holds grey pixels.
+   * @return true if the deferred result was stored, false if the operation must be applied now.
+   */
+  protected boolean storeFused(String newImageName, ImageRaster parent,
+      IntUnaryOperator operation, boolean grey) {
+    if (this.evaluation == Evaluation.EAGER || parent.getMaxValue() != 255
+        || (this.evaluation == Evaluation.FUSED && !FusedRaster.canFuse(parent))) {
+      return false;
+    }
+    this.storeImage(newImageName, FusedRaster.fuse(parent, operation, grey, this.layout));
+    return true;
+  }
+
+  /**
+   * Get a copy of the given image to avoid mutating images in the map when not intended. The copy
+   * shares the pixels of the stored image until it is first written to.
+   *
+   * @param imageName the image to be copied
+   * @return a new copy-on-write raster representing the given image.
+   * @throws IllegalArgumentException if the given image cannot be found
+   */
+  protected ImageRaster getImageCopyByName(String imageName) throws IllegalArgumentException {
+    return CopyOnWriteRaster.share(this.getImageByName(imageName));
   }
 
   @Override
   public void brighten(int increment, String imageName, String newImageName)
       throws IllegalArgumentException {
-    List<List<Pixel>> image = this.getImageCopyByName(imageName);
-    for (List<Pixel> row : image) {
-      for (Pixel px : row) {
-        px.changeAllBy(increment);
-      }
+    ImageRaster parent = this.getImageByName(imageName);
+    int maxValue = parent.getMaxValue();
+    if (maxValue != 255) {
+      this.storeImage(newImageName, this.transformComponents(parent,
+          rgb -> DeepRGB.changeAllBy(rgb, increment, maxValue)), parent);
+      return;
     }
-    this.rgbValues.put(newImageName, image);
+    IntUnaryOperator operation = new ChannelOffset(increment);
+    if (this.storeFused(newImageName, parent, operation, parent.isGreyScale())) {
+      return;
+    }
+    this.storeImage(newImageName, this.mapImage(parent, operation), parent);
   }
 
   @Override
   public void greyscaleComponent(Light component, String imageName, String newImageName)
       throws IllegalArgumentException {
-    List<List<Pixel>> image = this.getImageCopyByName(imageName);
-    for (List<Pixel> row : image) {
-      for (Pixel px : row) {
-        px.setLightComponent(component);
-      }
+    ImageRaster image = this.getImageByName(imageName);
+    if (component == null) {
+      throw new IllegalArgumentException("Invalid Light component");
+    }
+    if (image.getMaxValue() != 255) {
+      this.storeImage(newImageName, this.transformComponents(image,
+          rgb -> DeepRGB.setLightComponent(rgb, component)), image);
+      return;
     }
-    this.rgbValues.put(newImageName, image);
+    IntUnaryOperator operation = rgb -> PackedRGB.setLightComponent(rgb, component);
+    if (this.storeFused(newImageName, image, operation, true)) {
+      return;
+    }
+    this.storeImage(newImageName, this.greyscaleImage(image, operation), image);
   }
 
   @Override
   public void flipImage(boolean isVerticalFlip, String imageName, String newImageName)
       throws IllegalArgumentException {
-    List<List<Pixel>> image = this.getImageCopyByName(imageName);
-    List<List<Pixel>> newList = new ArrayList<>();
-    if (isVerticalFlip) {
-      for (int i = image.size() - 1; i >= 0; i--) {
-        newList.add(image.get(i));
-      }
-    } else {
-      for (int i = 0; i < image.size(); i++) {
-        newList.add(new ArrayList<Pixel>());
-        for (int px = image.get(i).size() - 1; px >= 0; px--) {
-          newList.get(i).add(image.get(i).get(px));
-        }
-      }
+    this.storeImage(newImageName,
+        FlippedRaster.flip(this.getImageByName(imageName), isVerticalFlip));
+  }
+
+  @Override
+  public void applyOperator(PixelOperator operator, String imageName, String newImageName)
+      throws IllegalArgumentException {
+    ImageRaster image = this.getImageByName(imageName);
+    if (operator == null) {
+      throw new IllegalArgumentException("Pixel operator cannot be null");
+    }
+    if (this.evaluation == Evaluation.LAZY && image.getMaxValue() == 255) {
+      this.storeImage(newImageName, OperatorRaster.defer(image, operator, this.layout,
+          this.rows));
+      return;
     }
-    this.rgbValues.put(newImageName, newList);
+    this.storeImage(newImageName, this.operateImage(image, operator), image);
+  }
+
+  /**
+   * Create a new image holding the result of the given operator applied at every pixel of the
+   * given image, bounding each component to [0, maxValue]. A grey-scale image stays grey-scale
+   * and is computed in a single pass if the operator keeps grey images grey.
+   *
+   * @param image    the image to read from.
+   * @param operator the operator computing each component of the new image.
+   * @return the new image with the same maximum value as the given image.
+   */
+  protected ImageRaster operateImage(ImageRaster image, PixelOperator operator) {
+    // compute deferred pixels once instead of for every read of a neighbor
+    image = SharedRaster.readable(image);
+    boolean grey = operator.keepsGrey() && image.isGreyScale();
+    ImageRaster result = grey ? this.createGreyImage(image.getWidth(), image.getHeight())
+        : this.createImage(image.getWidth(), image.getHeight(), image.getMaxValue());
+    OperatorRaster.apply(image, operator, result, grey, this.rows);
+    return result;
+  }
+
+  @Override
+  public void dropImage(String imageName) throws IllegalArgumentException {
+    if (!this.rgbValues.remove(imageName)) {
+      throw new IllegalArgumentException("Image cannot be found");
+    }
+  }
+
+  @Override
+  public Map<String, ImageMemory> getMemoryUsage() {
+    return this.rgbValues.getMemoryUsage();
+  }
+
+  @Override
+  public long getTotalMemory() {
+    long total = 0;
+    for (ImageMemory memory : this.rgbValues.getMemoryUsage().values()) {
+      total += memory.getBytes();
+    }
+    return total;
+  }
+
+  @Override
+  public SpillStatistics getSpillStatistics() {
+    return this.rgbValues.getSpillStatistics();
   }
 
   @Override
   public Pixel getPixelAt(int row, int col, String imageName) throws IllegalArgumentException {
-    if (col >= this.getWidth(imageName) || row >= this.getHeight(imageName) || row < 0 || col < 0) {
+    ImageRaster image = this.getImageByName(imageName);
+    if (col >= image.getWidth() || row >= image.getHeight() || row < 0 || col < 0) {
       throw new IllegalArgumentException("Position not in the image");
     }
-    return this.rgbValues.get(imageName).get(row).get(col);
+    return Pixel.fromRGB(image.getRGB(row, col));
   }
 
   @Override
   public int getWidth(String imageName) throws IllegalArgumentException {
-    if (this.getHeight(imageName) == 0) {
-      return 0;
-    }
-    return this.rgbValues.get(imageName).get(0).size();
+    return this.getImageByName(imageName).getWidth();
   }
 
   @Override
   public int getHeight(String imageName) throws IllegalArgumentException {
-    return this.rgbValues.get(imageName).size();
+    return this.getImageByName(imageName).getHeight();
   }
 
   @Override
   public String convertToPPM(String imageName) throws IllegalArgumentException {
+    ImageRaster image = this.getOutputImage(imageName);
+    int width = image.getWidth();
+    int height = image.getHeight();
+    boolean deep = image.getMaxValue() != 255;
     StringBuilder file = new StringBuilder();
     file.append("P3\n");
-    file.append(this.getWidth(imageName)).append(" ").
-        append(this.getHeight(imageName)).append("\n");
-    file.append(this.getMaximumValue(imageName)).append("\n");
-    for (List<Pixel> lp : this.getImageCopyByName(imageName)) {
-      for (Pixel p : lp) {
-        file.append(p.toString()).append("\n");
+    file.append(width).append(" ").
+        append(height).append("\n");
+    // images with more than 8 bits keep their own maximum value so their precision is kept
+    file.append(deep ? image.getMaxValue() : this.getMaximumValue(image)).append("\n");
+    if (!this.rows.isParallel(width, height)) {
+      for (int i = 0; i < height; i++) {
+        this.appendRow(file, image, i, deep);
       }
+      return file.toString();
+    }
+    String[] lines = new String[height];
+    this.rows.forEachRow(width, height, i -> {
+      StringBuilder line = new StringBuilder();
+      this.appendRow(line, image, i, deep);
+      lines[i] = line.toString();
+    });
+    for (String line : lines) {
+      file.append(line);
     }
     return file.toString();
   }
 
+  /**
+   * Append the components of every pixel in the given row of the given image to the given text,
+   * one pixel per line.
+   *
+   * @param text  the text to append to.
+   * @param image the image to read.
+   * @param row   the row to append.
+   * @param deep  whether to read every component at full precision rather than packed.
+   */
+  private void appendRow(StringBuilder text, ImageRaster image, int row, boolean deep) {
+    for (int j = 0; j < image.getWidth(); j++) {
+      if (deep) {
+        text.append(image.getComponent(row, j, 0)).append(" ")
+            .append(image.getComponent(row, j, 1)).append(" ")
+            .append(image.getComponent(row, j, 2)).append("\n");
+      } else {
+        int rgb = image.getRGB(row, j);
+        text.append(PackedRGB.red(rgb)).append(" ").append(PackedRGB.green(rgb)).append(" ")
+            .append(PackedRGB.blue(rgb)).append("\n");
+      }
+    }
+  }
+
   /**
    * Get the value of the pixel with the highest component value.
    *
+   * @param image the image to search.
    * @return an integer representing the highest component value of any pixel in the image.
-   * @throws IllegalArgumentException if the given image cannot be found
    */
-  private int getMaximumValue(String imageName) throws IllegalArgumentException {
-    int maxValue = 0;
-    for (List<Pixel> lp : this.getImageCopyByName(imageName)) {
-      for (Pixel p : lp) {
-        if (p.getMaxComponentValue() > maxValue) {
-          maxValue = p.getMaxComponentValue();
-        }
+  private int getMaximumValue(ImageRaster image) {
+    int[] rowMaximum = new int[image.getHeight()];
+    this.rows.forEachRow(image.getWidth(), image.getHeight(), i -> {
+      for (int j = 0; j < image.getWidth(); j++) {
+        rowMaximum[i] = Math.max(rowMaximum[i],
+            PackedRGB.getMaxComponentValue(image.getRGB(i, j)));
       }
+    });
+    int maxValue = 0;
+    for (int value : rowMaximum) {
+      maxValue = Math.max(maxValue, value);
     }
     return maxValue;
   }
@@ -0,0 +1,76 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * To represent an image store that keeps every image in memory for as long as it is stored.
+ */
+public class SimpleImageStore implements ImageStore {
+
+  private final Map<String, ImageRaster> images;
+
+  /**
+   * SimpleImageStore default constructor that initializes the map of images.
+   */
+  public SimpleImageStore() {
+    this.images = new HashMap<>();
+  }
+
+  @Override
+  public ImageRaster get(String imageName) {
+    return this.images.get(imageName);
+  }
+
+  @Override
+  public ImageRaster peek(String imageName) {
+    return this.images.get(imageName);
+  }
+
+  @Override
+  public void put(String imageName, ImageRaster image) {
+    ImageRaster replaced = this.images.put(imageName, image);
+    if (replaced != null && replaced != image) {
+      this.release(replaced);
+    }
+  }
+
+  @Override
+  public boolean remove(String imageName) {
+    ImageRaster removed = this.images.remove(imageName);
+    if (removed == null) {
+      return false;
+    }
+    this.release(removed);
+    return true;
+  }
+
+  @Override
+  public Map<String, ImageMemory> getMemoryUsage() {
+    Map<String, ImageMemory> usage = new TreeMap<>();
+    for (Map.Entry<String, ImageRaster> entry : this.images.entrySet()) {
+      ImageRaster image = entry.getValue();
+      usage.put(entry.getKey(), new ImageMemory(image.getByteSize(), image.getStorageKind()));
+    }
+    return usage;
+  }
+
+  /**
+   * Release the given image after letting the images still stored copy any pixels they share with
+   * it.
+   *
+   * @param image the image to release.
+   */
+  private void release(ImageRaster image) {
+    for (ImageRaster other : this.images.values()) {
+      other.detach(image);
+    }
+    image.release();
+  }
+
+  @Override
+  public SpillStatistics getSpillStatistics() {
+    return new SpillStatistics(0, 0, 0);
+  }
+}
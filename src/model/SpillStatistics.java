@@ -0,0 +1,76 @@
+package model;
+
+import java.util.Objects;
+
+/**
+ * To represent how many times an image store has written images to disk, read them back, and
+ * evicted them from memory to stay within its memory budget.
+ */
+public class SpillStatistics {
+
+  private final long spills;
+  private final long reloads;
+  private final long evictions;
+
+  /**
+   * Constructor to make the statistics with the given counts.
+   *
+   * @param spills    the number of times an image was written to disk.
+   * @param reloads   the number of times an image was read back from disk.
+   * @param evictions the number of times an image was removed from memory.
+   */
+  public SpillStatistics(long spills, long reloads, long evictions) {
+    this.spills = spills;
+    this.reloads = reloads;
+    this.evictions = evictions;
+  }
+
+  /**
+   * Get the number of times an image was written to disk.
+   *
+   * @return the spill count.
+   */
+  public long getSpills() {
+    return this.spills;
+  }
+
+  /**
+   * Get the number of times an image was read back from disk.
+   *
+   * @return the reload count.
+   */
+  public long getReloads() {
+    return this.reloads;
+  }
+
+  /**
+   * Get the number of times an image was removed from memory. An image that was reloaded and is
+   * evicted again without changing is not written to disk a second time.
+   *
+   * @return the eviction count.
+   */
+  public long getEvictions() {
+    return this.evictions;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d spilled, %d reloaded, %d evicted", this.spills, this.reloads,
+        this.evictions);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof SpillStatistics)) {
+      return false;
+    }
+    SpillStatistics that = (SpillStatistics) obj;
+    return this.spills == that.spills && this.reloads == that.reloads
+        && this.evictions == that.evictions;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.spills, this.reloads, this.evictions);
+  }
+}
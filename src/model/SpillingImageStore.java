@@ -0,0 +1,292 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * To represent an image store that keeps its images in memory within a memory budget. When the
+ * images in memory take more bytes than the budget, the least recently used ones are written to
+ * files in a temporary directory and removed from memory, and they are read back the next time
+ * they are used. Each file holds the width and height of the image, its number of components, and
+ * their maximum value, followed by the components of each pixel: one for grey-scale images and
+ * three otherwise, each taking one byte, or two if the maximum value is above 255.
+ */
+public class SpillingImageStore implements ImageStore {
+
+  private final long memoryBudget;
+  private final StorageLayout layout;
+  private final Path directory;
+  private final LinkedHashMap<String, ImageRaster> resident;
+  private final Map<String, Path> spilled;
+  private long spills;
+  private long reloads;
+  private long evictions;
+
+  /**
+   * Constructor to make a store that spills images to a new temporary directory.
+   *
+   * @param memoryBudget the number of bytes the images kept in memory may take.
+   * @param layout       the layout to read spilled images back into.
+   * @throws IllegalArgumentException if the budget is negative, the layout is null, or the
+   *                                  temporary directory cannot be created.
+   */
+  public SpillingImageStore(long memoryBudget, StorageLayout layout)
+      throws IllegalArgumentException {
+    if (memoryBudget < 0 || layout == null) {
+      throw new IllegalArgumentException("Invalid memory budget or layout");
+    }
+    this.memoryBudget = memoryBudget;
+    this.layout = layout;
+    try {
+      this.directory = Files.createTempDirectory("image-spill");
+    } catch (IOException e) {
+      throw new IllegalArgumentException("IOException: " + e.getMessage());
+    }
+    this.directory.toFile().deleteOnExit();
+    this.resident = new LinkedHashMap<>(16, 0.75f, true);
+    this.spilled = new HashMap<>();
+  }
+
+  @Override
+  public ImageRaster get(String imageName) {
+    ImageRaster image = this.resident.get(imageName);
+    if (image != null || !this.spilled.containsKey(imageName)) {
+      return image;
+    }
+    image = this.readImage(this.spilled.get(imageName));
+    this.reloads++;
+    this.resident.put(imageName, image);
+    this.enforceBudget(imageName);
+    return image;
+  }
+
+  @Override
+  public ImageRaster peek(String imageName) {
+    // iterating over the entries does not count as using the images
+    for (Map.Entry<String, ImageRaster> entry : this.resident.entrySet()) {
+      if (entry.getKey().equals(imageName)) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void put(String imageName, ImageRaster image) {
+    Path file = this.spilled.remove(imageName);
+    if (file != null) {
+      this.deleteFile(file);
+    }
+    ImageRaster replaced = this.resident.put(imageName, image);
+    if (replaced != null && replaced != image) {
+      this.release(replaced);
+    }
+    this.enforceBudget(imageName);
+  }
+
+  @Override
+  public boolean remove(String imageName) {
+    Path file = this.spilled.remove(imageName);
+    if (file != null) {
+      this.deleteFile(file);
+    }
+    ImageRaster removed = this.resident.remove(imageName);
+    if (removed != null) {
+      this.release(removed);
+    }
+    return file != null || removed != null;
+  }
+
+  @Override
+  public Map<String, ImageMemory> getMemoryUsage() {
+    Map<String, ImageMemory> usage = new TreeMap<>();
+    for (String imageName : this.spilled.keySet()) {
+      usage.put(imageName, new ImageMemory(0, StorageKind.SPILLED));
+    }
+    // iterating over the entries does not count as using the images
+    for (Map.Entry<String, ImageRaster> entry : this.resident.entrySet()) {
+      ImageRaster image = entry.getValue();
+      usage.put(entry.getKey(), new ImageMemory(image.getByteSize(), image.getStorageKind()));
+    }
+    return usage;
+  }
+
+  @Override
+  public SpillStatistics getSpillStatistics() {
+    return new SpillStatistics(this.spills, this.reloads, this.evictions);
+  }
+
+  /**
+   * Release the given image after letting the images in memory copy any pixels they share with it,
+   * whatever its layout, so that no view in memory keeps pixels that are not counted in the budget.
+   *
+   * @param image the image to release.
+   */
+  private void release(ImageRaster image) {
+    for (ImageRaster other : this.resident.values()) {
+      other.detach(image);
+    }
+    image.release();
+  }
+
+  /**
+   * Evict the least recently used images until the images in memory fit in the budget, never
+   * evicting the image with the given name. Evicting an image makes the views in memory that
+   * shared its pixels copy them, so the images are counted again until nothing more is evicted.
+   *
+   * @param keep the name of the image that is being used right now.
+   */
+  private void enforceBudget(String keep) {
+    List<String> victims;
+    do {
+      long total = 0;
+      for (ImageRaster image : this.resident.values()) {
+        total += image.getByteSize();
+      }
+      victims = new ArrayList<>();
+      Iterator<Map.Entry<String, ImageRaster>> entries = this.resident.entrySet().iterator();
+      while (total > this.memoryBudget && entries.hasNext()) {
+        Map.Entry<String, ImageRaster> entry = entries.next();
+        if (!entry.getKey().equals(keep)) {
+          victims.add(entry.getKey());
+          total -= entry.getValue().getByteSize();
+        }
+      }
+      for (String victim : victims) {
+        this.evict(victim);
+      }
+    } while (!victims.isEmpty());
+  }
+
+  /**
+   * Remove the given image from memory, writing it to disk first unless an unchanged copy of it is
+   * already there.
+   *
+   * @param imageName the image to evict.
+   */
+  private void evict(String imageName) {
+    ImageRaster image = this.resident.remove(imageName);
+    if (!this.spilled.containsKey(imageName)) {
+      this.spilled.put(imageName, this.writeImage(image));
+      this.spills++;
+    }
+    this.evictions++;
+    this.release(image);
+  }
+
+  /**
+   * Write the given image to a new file in the spill directory.
+   *
+   * @param image the image to write.
+   * @return the file the image was written to.
+   * @throws IllegalStateException if the file cannot be written.
+   */
+  private Path writeImage(ImageRaster image) throws IllegalStateException {
+    try {
+      Path file = Files.createTempFile(this.directory, "image", ".rgb");
+      file.toFile().deleteOnExit();
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(file)))) {
+        int channels = image.isGreyScale() ? 1 : 3;
+        int maxValue = image.getMaxValue();
+        int sampleBytes = maxValue > 255 ? 2 : 1;
+        out.writeInt(image.getWidth());
+        out.writeInt(image.getHeight());
+        out.writeByte(channels);
+        out.writeShort(maxValue);
+        byte[] row = new byte[sampleBytes * channels * image.getWidth()];
+        for (int i = 0; i < image.getHeight(); i++) {
+          int index = 0;
+          for (int j = 0; j < image.getWidth(); j++) {
+            for (int channel = 0; channel < channels; channel++) {
+              int value = image.getComponent(i, j, channel);
+              if (sampleBytes == 2) {
+                row[index++] = (byte) (value >> 8);
+              }
+              row[index++] = (byte) value;
+            }
+          }
+          out.write(row);
+        }
+      }
+      return file;
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to spill image to disk: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Read an image back from the given spill file.
+   *
+   * @param file the file to read.
+   * @return the image in this store's layout.
+   * @throws IllegalStateException if the file cannot be read.
+   */
+  private ImageRaster readImage(Path file) throws IllegalStateException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      int width = in.readInt();
+      int height = in.readInt();
+      int channels = in.readByte();
+      int maxValue = in.readUnsignedShort();
+      int sampleBytes = maxValue > 255 ? 2 : 1;
+      ImageRaster image;
+      if (maxValue > 255) {
+        image = new DeepRaster(width, height, maxValue);
+      } else if (channels == 1) {
+        image = new GreyRaster(width, height, this.layout);
+      } else {
+        image = this.layout.create(width, height);
+      }
+      byte[] row = new byte[sampleBytes * channels * width];
+      for (int i = 0; i < height; i++) {
+        in.readFully(row);
+        int index = 0;
+        for (int j = 0; j < width; j++) {
+          if (maxValue > 255) {
+            for (int channel = 0; channel < 3; channel++) {
+              image.setComponent(i, j, channel,
+                  ((row[index] & 0xff) << 8) | (row[index + 1] & 0xff));
+              index += 2;
+            }
+          } else if (channels == 1) {
+            image.setRGB(i, j, (row[index++] & 0xff) * 0x010101);
+          } else {
+            image.setRGB(i, j, PackedRGB.pack(row[index] & 0xff, row[index + 1] & 0xff,
+                row[index + 2] & 0xff));
+            index += 3;
+          }
+        }
+      }
+      return image;
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to reload image from disk: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Delete the given spill file, ignoring a file that is already gone.
+   *
+   * @param file the file to delete.
+   */
+  private void deleteFile(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // the file is deleted when the program exits instead
+      file.toFile().deleteOnExit();
+    }
+  }
+}
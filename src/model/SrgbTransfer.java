@@ -0,0 +1,81 @@
+package model;
+
+/**
+ * Helper methods to convert components between the gamma-encoded sRGB values images are loaded
+ * and saved with and linear-light values proportional to the intensity of light. Linear values
+ * have 12 bits, since 8 bits cannot tell the darkest sRGB values apart. Both directions go through
+ * a table computed once, 256 entries from sRGB to linear and 4096 entries back, so converting an
+ * 8-bit component to linear light and back gives the same component.
+ */
+final class SrgbTransfer {
+
+  /**
+   * The value of a linear-light component at full intensity.
+   */
+  static final int LINEAR_MAX = 4095;
+
+  private static final char[] TO_LINEAR = new char[256];
+  private static final byte[] TO_SRGB = new byte[LINEAR_MAX + 1];
+
+  static {
+    for (int value = 0; value < TO_LINEAR.length; value++) {
+      TO_LINEAR[value] = (char) Math.round(toLinear(value / 255.0) * LINEAR_MAX);
+    }
+    for (int value = 0; value < TO_SRGB.length; value++) {
+      TO_SRGB[value] = (byte) Math.round(toSrgb((double) value / LINEAR_MAX) * 255);
+    }
+  }
+
+  private SrgbTransfer() {
+  }
+
+  /**
+   * Convert a gamma-encoded sRGB intensity to linear light.
+   *
+   * @param value the sRGB intensity in [0, 1].
+   * @return the linear intensity in [0, 1].
+   */
+  static double toLinear(double value) {
+    return value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
+  }
+
+  /**
+   * Convert a linear-light intensity to gamma-encoded sRGB.
+   *
+   * @param value the linear intensity in [0, 1].
+   * @return the sRGB intensity in [0, 1].
+   */
+  static double toSrgb(double value) {
+    return value <= 0.0031308 ? value * 12.92 : 1.055 * Math.pow(value, 1 / 2.4) - 0.055;
+  }
+
+  /**
+   * Convert a component of an sRGB image with the given maximum value to a 12-bit linear-light
+   * component, through the table for 8-bit components.
+   *
+   * @param value    the sRGB component in [0, maxValue].
+   * @param maxValue the value of a component at full intensity.
+   * @return the linear component in [0, 4095].
+   */
+  static int decode(int value, int maxValue) {
+    if (maxValue == 255) {
+      return TO_LINEAR[value];
+    }
+    return (int) Math.round(toLinear((double) value / maxValue) * LINEAR_MAX);
+  }
+
+  /**
+   * Convert a linear-light component of an image with the given maximum value to an 8-bit sRGB
+   * component, through the table for 12-bit components.
+   *
+   * @param value    the linear component in [0, maxValue].
+   * @param maxValue the value of a component at full intensity.
+   * @return the sRGB component in [0, 255].
+   */
+  static int encode(int value, int maxValue) {
+    if (maxValue != LINEAR_MAX) {
+      value = (int) Math.round((double) value * LINEAR_MAX / maxValue);
+    }
+    return TO_SRGB[value] & 0xff;
+  }
+}
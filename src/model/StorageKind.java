@@ -0,0 +1,36 @@
+package model;
+
+/**
+ * An enumerated type to represent how the pixels of a stored image are held, for reporting how
+ * much memory each image takes.
+ */
+public enum StorageKind {
+  FULL("full"),
+  OFF_HEAP("off-heap"),
+  TILED("tiled"),
+  GREYSCALE("greyscale"),
+  PALETTE("palette"),
+  DEEP("16-bit"),
+  MAPPED("mapped"),
+  SHARED("shared"),
+  DELTA("delta"),
+  FUSED("fused"),
+  DEFERRED("deferred"),
+  SPILLED("spilled");
+
+  private final String text;
+
+  /**
+   * StorageKind constructor.
+   *
+   * @param text the string representation of the storage kind
+   */
+  StorageKind(String text) {
+    this.text = text;
+  }
+
+  @Override
+  public String toString() {
+    return this.text;
+  }
+}
@@ -0,0 +1,114 @@
+package model;
+
+/**
+ * An enumerated type to represent how a model lays out the pixels of its images in memory.
+ */
+public enum StorageLayout {
+  PACKED {
+    @Override
+    public ImageRaster create(int width, int height) {
+      return new PackedRaster(width, height);
+    }
+
+    @Override
+    protected boolean isLayoutOf(ImageRaster image) {
+      return image instanceof PackedRaster;
+    }
+  },
+  PLANAR {
+    @Override
+    public ImageRaster create(int width, int height) {
+      return new PlanarRaster(width, height);
+    }
+
+    @Override
+    protected boolean isLayoutOf(ImageRaster image) {
+      return image instanceof PlanarRaster;
+    }
+  },
+  OFF_HEAP {
+    @Override
+    public ImageRaster create(int width, int height) {
+      return new OffHeapRaster(width, height);
+    }
+
+    @Override
+    protected boolean isLayoutOf(ImageRaster image) {
+      return image instanceof OffHeapRaster;
+    }
+  },
+  TILED {
+    @Override
+    public ImageRaster create(int width, int height) {
+      return new TiledRaster(width, height);
+    }
+
+    @Override
+    protected boolean isLayoutOf(ImageRaster image) {
+      return image instanceof TiledRaster;
+    }
+  },
+  PALETTE {
+    @Override
+    public ImageRaster create(int width, int height) {
+      return new PaletteRaster(width, height, PACKED);
+    }
+
+    @Override
+    protected boolean isLayoutOf(ImageRaster image) {
+      return image instanceof PaletteRaster;
+    }
+
+    /**
+     * Get the given image as a palette of its colors and an index per pixel, or packed if it has
+     * more colors than a palette can hold.
+     */
+    @Override
+    public ImageRaster convert(ImageRaster image) {
+      if (this.isLayoutOf(image) || image.getMaxValue() != 255) {
+        return image;
+      }
+      ImageRaster indexed = PaletteRaster.of(image, PaletteRaster.MAX_COLORS, PACKED);
+      return indexed == null ? PACKED.convert(image) : indexed;
+    }
+  };
+
+  /**
+   * Create a new black image of the given size in this layout.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @return the new image.
+   * @throws IllegalArgumentException if the width or height is negative.
+   */
+  public abstract ImageRaster create(int width, int height) throws IllegalArgumentException;
+
+  /**
+   * Check whether the given image is already stored in this layout.
+   *
+   * @param image the image to check.
+   * @return true if the image uses this layout, false otherwise.
+   */
+  protected abstract boolean isLayoutOf(ImageRaster image);
+
+  /**
+   * Get the given image in this layout, copying it only if it uses a different layout. Images with
+   * more than 8 bits per component are kept as they are, since the layouts hold 8 bits.
+   *
+   * @param image the image to convert.
+   * @return the given image if it already uses this layout or has more than 8 bits per
+   *         component, or a copy of it in this layout.
+   */
+  public ImageRaster convert(ImageRaster image) {
+    if (this.isLayoutOf(image) || image.getMaxValue() != 255) {
+      return image;
+    }
+    ImageRaster converted = this.create(image.getWidth(), image.getHeight());
+    for (int i = 0; i < image.getHeight(); i++) {
+      for (int j = 0; j < image.getWidth(); j++) {
+        converted.setRGB(i, j, image.getRGB(i, j));
+      }
+    }
+    return converted;
+  }
+}
@@ -0,0 +1,181 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * To represent an image split into square tiles of packed 0xRRGGBB pixels. A tile is only
+ * allocated once a pixel in it is written; until then every pixel of the tile has the same fill
+ * color. Copies share their tiles with the original and a tile is only copied when one of them
+ * writes to it, so an image that differs from its source in a few places only holds the tiles
+ * that changed. Whole image transformations process the tiles in parallel.
+ */
+public class TiledRaster implements ImageRaster {
+
+  public static final int TILE_SIZE = 256;
+  private static final int TILE_SHIFT = 8;
+  private static final int TILE_MASK = TILE_SIZE - 1;
+
+  private final int width;
+  private final int height;
+  private final int tilesAcross;
+  private final int[][] tiles;
+  private final int[] fills;
+  private final boolean[] shared;
+
+  /**
+   * Constructor to make a black raster of the given size without allocating any tiles.
+   *
+   * @param width  the number of pixels in a row.
+   * @param height the number of pixels in a column.
+   * @throws IllegalArgumentException if the width or height is negative.
+   */
+  public TiledRaster(int width, int height) throws IllegalArgumentException {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Invalid image size");
+    }
+    this.width = width;
+    this.height = height;
+    this.tilesAcross = (width + TILE_MASK) >> TILE_SHIFT;
+    int count = Math.multiplyExact(this.tilesAcross, (height + TILE_MASK) >> TILE_SHIFT);
+    this.tiles = new int[count][];
+    this.fills = new int[count];
+    this.shared = new boolean[count];
+  }
+
+  /**
+   * Constructor to make a raster sharing every tile of the given raster.
+   *
+   * @param other the raster to share the tiles of.
+   */
+  private TiledRaster(TiledRaster other) {
+    this.width = other.width;
+    this.height = other.height;
+    this.tilesAcross = other.tilesAcross;
+    this.tiles = other.tiles.clone();
+    this.fills = other.fills.clone();
+    this.shared = new boolean[this.tiles.length];
+    for (int i = 0; i < this.tiles.length; i++) {
+      if (this.tiles[i] != null) {
+        this.shared[i] = true;
+        other.shared[i] = true;
+      }
+    }
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Get the index of the tile containing the given position.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return the index of the tile counted row by row.
+   */
+  private int tileIndex(int row, int col) {
+    return (row >> TILE_SHIFT) * this.tilesAcross + (col >> TILE_SHIFT);
+  }
+
+  /**
+   * Get the index of the given position within its tile.
+   *
+   * @param row the row of the pixel.
+   * @param col the column of the pixel.
+   * @return the index of the pixel in its tile counted row by row.
+   */
+  private static int pixelIndex(int row, int col) {
+    return ((row & TILE_MASK) << TILE_SHIFT) | (col & TILE_MASK);
+  }
+
+  /**
+   * Get the given tile so that it can be written to, allocating it if it has only a fill color
+   * and copying it if it is shared with another raster.
+   *
+   * @param index the index of the tile.
+   * @return the pixels of the tile owned by this raster.
+   */
+  private int[] writableTile(int index) {
+    int[] tile = this.tiles[index];
+    if (tile == null) {
+      tile = new int[TILE_SIZE * TILE_SIZE];
+      Arrays.fill(tile, this.fills[index]);
+      this.tiles[index] = tile;
+    } else if (this.shared[index]) {
+      tile = tile.clone();
+      this.tiles[index] = tile;
+      this.shared[index] = false;
+    }
+    return tile;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    int index = this.tileIndex(row, col);
+    int[] tile = this.tiles[index];
+    if (tile == null) {
+      return this.fills[index];
+    }
+    return tile[pixelIndex(row, col)];
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    this.writableTile(this.tileIndex(row, col))[pixelIndex(row, col)] = rgb;
+  }
+
+  @Override
+  public void transform(IntUnaryOperator operation) {
+    IntStream.range(0, this.tiles.length).parallel().forEach(index -> {
+      int[] tile = this.tiles[index];
+      if (tile == null) {
+        this.fills[index] = operation.applyAsInt(this.fills[index]);
+        return;
+      }
+      int[] result = this.shared[index] ? new int[tile.length] : tile;
+      for (int i = 0; i < tile.length; i++) {
+        result[i] = operation.applyAsInt(tile[i]);
+      }
+      this.tiles[index] = result;
+      this.shared[index] = false;
+    });
+  }
+
+  @Override
+  public ImageRaster copy() {
+    return new TiledRaster(this);
+  }
+
+  @Override
+  public StorageKind getStorageKind() {
+    return StorageKind.TILED;
+  }
+
+  @Override
+  public long getByteSize() {
+    return 4L * TILE_SIZE * TILE_SIZE * this.getMaterializedTileCount();
+  }
+
+  /**
+   * Get the number of tiles that have been allocated by this raster or one it shares tiles with.
+   *
+   * @return the number of tiles holding pixels.
+   */
+  public int getMaterializedTileCount() {
+    int count = 0;
+    for (int[] tile : this.tiles) {
+      if (tile != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -164,6 +164,53 @@ public abstract class AbstractImageProcessorControllerTest {
         Interaction.prints("Quit image processor")));
   }
 
+  @Test
+  public void testMemAndDrop() {
+    assertTrue(testRun(
+        Interaction.inputs("mem load images/TwoByTwo.ppm small "
+            + "vertical-flip small flipped grey-scale red small red mem "
+            + "brighten 10 small small mem drop small mem q"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Total: 0 bytes"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Load Operation Successful!"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Vertical Flip Operation Successful!"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Greyscale Operation Successful!"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("flipped: 0 bytes (shared)"),
+        Interaction.prints("red: 4 bytes (greyscale)"),
+        Interaction.prints("small: 16 bytes (full)"),
+        Interaction.prints("Total: 20 bytes"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Brighten Operation Successful!"),
+        Interaction.prints(this.renderMenu),
+        // overwriting the flipped image's source makes it copy the old pixels it still shows
+        Interaction.prints("flipped: 16 bytes (full)"),
+        Interaction.prints("red: 4 bytes (greyscale)"),
+        Interaction.prints("small: 16 bytes (full)"),
+        Interaction.prints("Total: 36 bytes"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Drop Operation Successful!"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("flipped: 16 bytes (full)"),
+        Interaction.prints("red: 4 bytes (greyscale)"),
+        Interaction.prints("Total: 20 bytes"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Quit image processor")));
+  }
+
+  @Test
+  public void testDropInvalidImage() {
+    assertTrue(testRun(
+        Interaction.inputs("drop invalidImage q"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Image cannot be found"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Quit image processor")));
+  }
+
   @Test
   public void testBrightenInvalidImage() {
     assertTrue(testRun(
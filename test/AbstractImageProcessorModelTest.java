@@ -1,4 +1,5 @@
 import model.ImageProcessorModel;
+import model.ImageRaster;
 import controller.ImageUtil;
 import model.Light;
 import model.Pixel;
@@ -58,6 +59,26 @@ public abstract class AbstractImageProcessorModelTest {
     assertEquals(this.model1.getWidth("threeByTwo"), 3);
   }
 
+  /**
+   * Verifies that an image can be loaded directly from a raster of packed pixels.
+   */
+  @Test
+  public void testLoadRaster() {
+    this.model1.loadImage("twoByTwo", ImageUtil.readRaster("images/TwoByTwo.ppm"));
+    assertEquals(new RGBPixel(255, 1, 16),
+        this.model1.getPixelAt(0, 0, "twoByTwo"));
+    assertEquals(new RGBPixel(65, 75, 107),
+        this.model1.getPixelAt(1, 1, "twoByTwo"));
+    assertEquals(2, this.model1.getWidth("twoByTwo"));
+    assertEquals(2, this.model1.getHeight("twoByTwo"));
+    try {
+      this.model1.loadImage("nothing", (ImageRaster) null);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Image cannot be null", e.getMessage());
+    }
+  }
+
   /**
    * Verifies the brighten function works properly including when attempting to brighten values
    * beyond or below the bounds.
@@ -605,4 +626,55 @@ public abstract class AbstractImageProcessorModelTest {
         "14 18 110\n", this.model1.convertToPPM("flipTwoByTwo"));
   }
 
-}
\ No newline at end of file
+  /**
+   * Verifies that applyOperator computes every component of the new image from the pixel under the
+   * cursor and leaves the original image unchanged.
+   */
+  @Test
+  public void testApplyOperator() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    this.model1.applyOperator((cursor, channel) -> cursor.getComponent(0, 0, 2 - channel),
+        "twoByTwo", "swapped");
+    assertEquals(new RGBPixel(16, 1, 255), this.model1.getPixelAt(0, 0, "swapped"));
+    assertEquals(new RGBPixel(100, 8, 4), this.model1.getPixelAt(0, 1, "swapped"));
+    assertEquals(new RGBPixel(35, 45, 4), this.model1.getPixelAt(1, 0, "swapped"));
+    assertEquals(new RGBPixel(107, 75, 65), this.model1.getPixelAt(1, 1, "swapped"));
+    assertEquals(new RGBPixel(255, 1, 16), this.model1.getPixelAt(0, 0, "twoByTwo"));
+  }
+
+  /**
+   * Verifies that applyOperator lets the operator read neighbors of the cursor and bounds its
+   * results to [0, 255].
+   */
+  @Test
+  public void testApplyOperatorReadsNeighborsAndBoundsResults() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    this.model1.applyOperator((cursor, channel) ->
+        cursor.contains(0, 1) ? 2 * cursor.getComponent(0, 1, channel) : -1, "twoByTwo", "left");
+    assertEquals(new RGBPixel(8, 16, 200), this.model1.getPixelAt(0, 0, "left"));
+    assertEquals(new RGBPixel(0, 0, 0), this.model1.getPixelAt(0, 1, "left"));
+    assertEquals(new RGBPixel(130, 150, 214), this.model1.getPixelAt(1, 0, "left"));
+    assertEquals(new RGBPixel(0, 0, 0), this.model1.getPixelAt(1, 1, "left"));
+  }
+
+  /**
+   * Verifies that applyOperator throws an IllegalArgumentException when the operator is null or
+   * the image cannot be found.
+   */
+  @Test
+  public void testApplyOperatorInvalidArguments() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    try {
+      this.model1.applyOperator(null, "twoByTwo", "result");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Pixel operator cannot be null", e.getMessage());
+    }
+    try {
+      this.model1.applyOperator((cursor, channel) -> 0, "twoByOne", "result");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Image cannot be found", e.getMessage());
+    }
+  }
+}
@@ -2,6 +2,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import model.BetterImageProcessor;
 import model.BetterImageProcessorModel;
+import model.DeepRaster;
 import model.ImageProcessorModel;
 import model.RGBPixel;
 
@@ -11,7 +12,8 @@ import static org.junit.Assert.fail;
 /**
  * A child class of the AbstractImageProcessorModelTest class whose job it is to test any
  * methods that are implemented differently from the BetterImageProcessor, in this case there are
- * 4 new methods to test, getBufferedImage, sharpen, blur, and sepia.
+ * 9 new methods to test, getBufferedImage, sharpen, blur, sepia, colorMatrix, applyExpression,
+ * rotateHue, saturate, and adjustYCbCr.
  */
 public class BetterImageProcessorTest extends AbstractImageProcessorModelTest {
   BetterImageProcessorModel model1;
@@ -190,4 +192,235 @@ public class BetterImageProcessorTest extends AbstractImageProcessorModelTest {
             this.model1.getPixelAt(1, 1, "twoByTwo"));
   }
 
+  @Test
+  public void testColorMatrixWithOffsets() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    this.model1.colorMatrix(new double[][] {{0, 0, 1}, {0, 1, 0}, {1, 0, 0}},
+        new double[] {10, -5, 0}, "twoByTwo", "swapped");
+    assertEquals(new RGBPixel(26, 0, 255),
+            this.model1.getPixelAt(0, 0, "swapped"));
+    assertEquals(new RGBPixel(110, 3, 4),
+            this.model1.getPixelAt(0, 1, "swapped"));
+    assertEquals(new RGBPixel(45, 40, 4),
+            this.model1.getPixelAt(1, 0, "swapped"));
+    assertEquals(new RGBPixel(117, 70, 65),
+            this.model1.getPixelAt(1, 1, "swapped"));
+    assertEquals(new RGBPixel(255, 1, 16),
+            this.model1.getPixelAt(0, 0, "twoByTwo"));
+  }
+
+  @Test
+  public void testColorMatrixMatchesSepia() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    this.model1.sepiaImage("twoByTwo", "sepia");
+    this.model1.colorMatrix(new double[][] {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168},
+        {0.272, 0.534, 0.131}}, new double[3], "twoByTwo", "matrix");
+    assertEquals(this.model1.convertToPPM("sepia"), this.model1.convertToPPM("matrix"));
+  }
+
+  @Test
+  public void testColorMatrixOnDeepImage() {
+    DeepRaster deep = new DeepRaster(1, 1, 1000);
+    deep.setComponent(0, 0, 0, 100);
+    deep.setComponent(0, 0, 1, 500);
+    deep.setComponent(0, 0, 2, 900);
+    this.model1.loadImage("deep", deep);
+    this.model1.colorMatrix(new double[][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}},
+        new double[] {-100, 0, 200}, "deep", "graded");
+    assertEquals("P3\n1 1\n1000\n0 500 1000\n", this.model1.convertToPPM("graded"));
+  }
+
+  @Test
+  public void testColorMatrixThrowsException() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    try {
+      this.model1.colorMatrix(new double[3][3], new double[3], "twoByOne", "anything");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Image cannot be found", e.getMessage());
+    }
+    try {
+      this.model1.colorMatrix(new double[3][3], new double[2], "twoByTwo", "anything");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Color matrix must have three offsets", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testApplyExpression() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    this.model1.applyExpression("r' = min(255, r * 1.1 + 5); b' = (r + g + b) / 3",
+        "twoByTwo", "graded");
+    assertEquals(new RGBPixel(255, 1, 91),
+            this.model1.getPixelAt(0, 0, "graded"));
+    assertEquals(new RGBPixel(9, 8, 37),
+            this.model1.getPixelAt(0, 1, "graded"));
+    assertEquals(new RGBPixel(9, 45, 28),
+            this.model1.getPixelAt(1, 0, "graded"));
+    assertEquals(new RGBPixel(77, 75, 82),
+            this.model1.getPixelAt(1, 1, "graded"));
+    assertEquals(new RGBPixel(255, 1, 16),
+            this.model1.getPixelAt(0, 0, "twoByTwo"));
+  }
+
+  @Test
+  public void testApplyExpressionFunctionsAndPosition() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    this.model1.applyExpression("r' = x * 100 + y * 10; g' = clamp(-g, 10, 40) + pow(2, 3); "
+        + "b' = sqrt(abs(-b)) * 2 - max(1, floor(1.7), ceil(0.2)) + exp(0) + log(1)",
+        "twoByTwo", "computed");
+    assertEquals(new RGBPixel(0, 18, 8),
+            this.model1.getPixelAt(0, 0, "computed"));
+    assertEquals(new RGBPixel(100, 18, 20),
+            this.model1.getPixelAt(0, 1, "computed"));
+    assertEquals(new RGBPixel(10, 18, 12),
+            this.model1.getPixelAt(1, 0, "computed"));
+    assertEquals(new RGBPixel(110, 18, 21),
+            this.model1.getPixelAt(1, 1, "computed"));
+  }
+
+  @Test
+  public void testApplyExpressionThrowsException() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    try {
+      this.model1.applyExpression("r' = r", "twoByOne", "anything");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Image cannot be found", e.getMessage());
+    }
+    String[] invalid = {"", "r' = r +", "q' = 1", "r' = foo(1)", "r' = 1; r' = 2",
+        "r' = min(1)", "r' = (r", "r' = z", "r' = 1 g' = 2"};
+    for (String expression : invalid) {
+      try {
+        this.model1.applyExpression(expression, "twoByTwo", "anything");
+        fail(expression);
+      } catch (IllegalArgumentException e) {
+        Assert.assertTrue(e.getMessage().startsWith("Invalid expression: "));
+      }
+    }
+  }
+
+  @Test
+  public void testApplyExpressionNestingLimit() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    StringBuilder nested = new StringBuilder("r' = r");
+    for (int level = 0; level < 200; level++) {
+      nested.insert(5, "0 + (").append(")");
+    }
+    this.model1.applyExpression(nested.toString(), "twoByTwo", "nested");
+    assertEquals(this.model1.convertToPPM("twoByTwo"), this.model1.convertToPPM("nested"));
+    String[] tooDeep = {"r' = " + "r + (".repeat(3000) + "r" + ")".repeat(3000),
+        "r' = " + "-".repeat(3000) + "r", "r' = " + "abs(".repeat(3000) + "r" + ")".repeat(3000)};
+    for (String expression : tooDeep) {
+      try {
+        this.model1.applyExpression(expression, "twoByTwo", "anything");
+        fail();
+      } catch (IllegalArgumentException e) {
+        assertEquals("Invalid expression: expression is nested more than 256 levels deep",
+            e.getMessage().substring(0, e.getMessage().indexOf(" at position")));
+      }
+    }
+  }
+
+  @Test
+  public void testRotateHue() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    this.model1.rotateHue(120, "twoByTwo", "rotated");
+    this.model1.rotateHue(-240, "twoByTwo", "same");
+    this.model1.rotateHue(360, "twoByTwo", "full");
+    assertEquals(new RGBPixel(16, 255, 1),
+            this.model1.getPixelAt(0, 0, "rotated"));
+    assertEquals(new RGBPixel(100, 4, 8),
+            this.model1.getPixelAt(0, 1, "rotated"));
+    assertEquals(new RGBPixel(35, 4, 45),
+            this.model1.getPixelAt(1, 0, "rotated"));
+    assertEquals(new RGBPixel(107, 65, 75),
+            this.model1.getPixelAt(1, 1, "rotated"));
+    assertEquals(this.model1.convertToPPM("rotated"), this.model1.convertToPPM("same"));
+    assertEquals(this.model1.convertToPPM("twoByTwo"), this.model1.convertToPPM("full"));
+  }
+
+  @Test
+  public void testSaturate() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    this.model1.saturate(0, "twoByTwo", "grey");
+    this.model1.saturate(1, "twoByTwo", "same");
+    this.model1.saturate(0.5, "twoByTwo", "faded");
+    assertEquals(new RGBPixel(128, 128, 128),
+            this.model1.getPixelAt(0, 0, "grey"));
+    assertEquals(new RGBPixel(52, 52, 52),
+            this.model1.getPixelAt(0, 1, "grey"));
+    assertEquals(this.model1.convertToPPM("twoByTwo"), this.model1.convertToPPM("same"));
+    assertEquals(new RGBPixel(192, 65, 72),
+            this.model1.getPixelAt(0, 0, "faded"));
+  }
+
+  @Test
+  public void testAdjustYCbCr() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    this.model1.adjustYCbCr(new double[] {1, 1, 1}, new double[3], "twoByTwo", "same");
+    this.model1.adjustYCbCr(new double[] {1, 0, 0}, new double[3], "twoByTwo", "luma");
+    this.model1.adjustYCbCr(new double[] {1, 1, 1}, new double[] {10, 0, 0}, "twoByTwo",
+        "bright");
+    assertEquals(this.model1.convertToPPM("twoByTwo"), this.model1.convertToPPM("same"));
+    // without chroma every pixel is the grey of its JPEG luma
+    assertEquals(new RGBPixel(79, 79, 79),
+            this.model1.getPixelAt(0, 0, "luma"));
+    assertEquals(new RGBPixel(17, 17, 17),
+            this.model1.getPixelAt(0, 1, "luma"));
+    assertEquals(new RGBPixel(14, 18, 110),
+            this.model1.getPixelAt(0, 1, "bright"));
+  }
+
+  @Test
+  public void testColorSpaceOperationsOnDeepImage() {
+    DeepRaster deep = new DeepRaster(1, 1, 1000);
+    deep.setComponent(0, 0, 0, 1000);
+    deep.setComponent(0, 0, 1, 0);
+    deep.setComponent(0, 0, 2, 0);
+    this.model1.loadImage("deep", deep);
+    this.model1.rotateHue(120, "deep", "green");
+    this.model1.saturate(0, "deep", "grey");
+    this.model1.adjustYCbCr(new double[] {1, 1, 1}, new double[3], "deep", "same");
+    assertEquals("P3\n1 1\n1000\n0 1000 0\n", this.model1.convertToPPM("green"));
+    assertEquals("P3\n1 1\n1000\n500 500 500\n", this.model1.convertToPPM("grey"));
+    assertEquals(this.model1.convertToPPM("deep"), this.model1.convertToPPM("same"));
+  }
+
+  @Test
+  public void testColorSpaceOperationsThrowException() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    try {
+      this.model1.rotateHue(90, "twoByOne", "anything");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Image cannot be found", e.getMessage());
+    }
+    try {
+      this.model1.rotateHue(Double.NaN, "twoByTwo", "anything");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Hue rotation must be a finite number", e.getMessage());
+    }
+    try {
+      this.model1.saturate(-1, "twoByTwo", "anything");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Saturation factor must be a non-negative number", e.getMessage());
+    }
+    try {
+      this.model1.adjustYCbCr(new double[] {1, 1, 1}, new double[2], "twoByTwo", "anything");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("YCbCr adjustment must have three gains and offsets", e.getMessage());
+    }
+    try {
+      this.model1.adjustYCbCr(new double[] {1, Double.POSITIVE_INFINITY, 1}, new double[3],
+          "twoByTwo", "anything");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("YCbCr gains and offsets must be finite numbers", e.getMessage());
+    }
+  }
 }
@@ -0,0 +1,93 @@
+import static org.junit.Assert.assertEquals;
+
+import model.ChannelOffset;
+import org.junit.Test;
+
+/**
+ * To test the methods in the ChannelOffset class.
+ */
+public class ChannelOffsetTest {
+
+  /**
+   * Add the increment to the component directly and bound it to [0, 255].
+   */
+  private static int bound(int component, int increment) {
+    return Math.max(0, Math.min(255, component + increment));
+  }
+
+  @Test
+  public void testPixelsAreBitIdentical() {
+    for (int increment = -300; increment <= 300; increment += 3) {
+      ChannelOffset offset = new ChannelOffset(increment);
+      for (int red = 0; red < 256; red += 5) {
+        for (int green = 0; green < 256; green += 3) {
+          for (int blue = 0; blue < 256; blue += 7) {
+            int expected = (bound(red, increment) << 16) | (bound(green, increment) << 8)
+                | bound(blue, increment);
+            assertEquals(expected, offset.applyAsInt((red << 16) | (green << 8) | blue));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testComponentsAreBitIdentical() {
+    // one more component than a whole number of words, so the last one is changed on its own
+    byte[] components = new byte[257];
+    for (int increment = -256; increment <= 256; increment++) {
+      for (int i = 0; i < components.length; i++) {
+        components[i] = (byte) i;
+      }
+      new ChannelOffset(increment).applyToComponents(components);
+      for (int i = 0; i < components.length; i++) {
+        assertEquals(bound(i & 0xff, increment), components[i] & 0xff);
+      }
+    }
+  }
+
+  @Test
+  public void testPixelArrayMatchesSinglePixels() {
+    int[] pixels = new int[1000];
+    for (int increment = -100; increment <= 100; increment += 25) {
+      ChannelOffset offset = new ChannelOffset(increment);
+      for (int i = 0; i < pixels.length; i++) {
+        pixels[i] = i * 16807 & 0xffffff;
+      }
+      offset.applyToPixels(pixels);
+      for (int i = 0; i < pixels.length; i++) {
+        assertEquals(offset.applyAsInt(i * 16807 & 0xffffff), pixels[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testRangesOnlyWriteTheirPositions() {
+    int[] pixels = new int[100];
+    byte[] components = new byte[100];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = i * 16807 & 0xffffff;
+      components[i] = (byte) (i * 37);
+    }
+    for (int increment = -90; increment <= 90; increment += 45) {
+      ChannelOffset offset = new ChannelOffset(increment);
+      int[] pixelResult = new int[pixels.length];
+      byte[] componentResult = new byte[components.length];
+      // an odd start, so the words of components are not aligned with the array
+      offset.applyToPixels(pixels, pixelResult, 13, 71);
+      offset.applyToComponents(components, componentResult, 13, 71);
+      for (int i = 0; i < pixels.length; i++) {
+        boolean inRange = i >= 13 && i < 71;
+        assertEquals(inRange ? offset.applyAsInt(pixels[i]) : 0, pixelResult[i]);
+        assertEquals(inRange ? bound(components[i] & 0xff, increment) : 0,
+            componentResult[i] & 0xff);
+      }
+    }
+  }
+
+  @Test
+  public void testIgnoresBitsAbovePixel() {
+    assertEquals(0x0a140a, new ChannelOffset(10).applyAsInt(0xff000a00));
+    assertEquals(0, new ChannelOffset(-10).applyAsInt(0x7f000000));
+  }
+}
@@ -0,0 +1,106 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import model.ColorMatrix;
+import org.junit.Test;
+
+/**
+ * To test the methods in the ColorMatrix class.
+ */
+public class ColorMatrixTest {
+
+  private static final double[][] SEPIA = {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168},
+      {0.272, 0.534, 0.131}};
+  private static final double[][] LUMA = {{0.2126, 0.7152, 0.0722}, {0.2126, 0.7152, 0.0722},
+      {0.2126, 0.7152, 0.0722}};
+  private static final double[][] INTENSITY = {{1.0 / 3.0, 1.0 / 3.0, 1.0 / 3.0},
+      {1.0 / 3.0, 1.0 / 3.0, 1.0 / 3.0}, {1.0 / 3.0, 1.0 / 3.0, 1.0 / 3.0}};
+
+  /**
+   * Multiply the matrix with the components of the pixel directly, rounding each product and
+   * capping it at 255.
+   */
+  private static int multiply(double[][] matrix, int rgb) {
+    int red = (rgb >> 16) & 0xff;
+    int green = (rgb >> 8) & 0xff;
+    int blue = rgb & 0xff;
+    int result = 0;
+    for (int row = 0; row < 3; row++) {
+      int value = (int) Math.round(red * matrix[row][0] + green * matrix[row][1]
+          + blue * matrix[row][2]);
+      result = (result << 8) | Math.min(value, 255);
+    }
+    return result;
+  }
+
+  private static void assertSameAsMultiplying(double[][] matrix) {
+    ColorMatrix tables = new ColorMatrix(matrix);
+    for (int red = 0; red < 256; red += 3) {
+      for (int green = 0; green < 256; green += 3) {
+        for (int blue = 0; blue < 256; blue++) {
+          int rgb = (red << 16) | (green << 8) | blue;
+          assertEquals(multiply(matrix, rgb), tables.applyAsInt(rgb));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSepiaIsBitIdentical() {
+    assertSameAsMultiplying(SEPIA);
+  }
+
+  @Test
+  public void testLumaIsBitIdentical() {
+    assertSameAsMultiplying(LUMA);
+  }
+
+  @Test
+  public void testIntensityIsBitIdentical() {
+    assertSameAsMultiplying(INTENSITY);
+  }
+
+  @Test
+  public void testNegativeProductsAreBoundedAtZero() {
+    ColorMatrix invert = new ColorMatrix(new double[][] {{-1, 0, 0}, {0, 1, 0}, {0, 0, 2}});
+    assertEquals(0x001eff, invert.applyAsInt(0x141e80));
+  }
+
+  @Test
+  public void testGreyScale() {
+    assertTrue(new ColorMatrix(LUMA).isGreyScale());
+    assertFalse(new ColorMatrix(SEPIA).isGreyScale());
+    assertEquals(0x7f7f7f, new ColorMatrix(INTENSITY).applyAsInt(0xff7f00));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullMatrix() {
+    new ColorMatrix(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMatrixNotThreeByThree() {
+    new ColorMatrix(new double[][] {{1, 0, 0}, {0, 1}, {0, 0, 1}});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMatrixEntryNotFinite() {
+    new ColorMatrix(new double[][] {{1, 0, 0}, {0, Double.NaN, 0}, {0, 0, 1}});
+  }
+
+  @Test
+  public void testOffsetsAreAddedBeforeRounding() {
+    ColorMatrix graded = new ColorMatrix(new double[][] {{0.5, 0, 0}, {0, 1, 0}, {0, 0, 1}},
+        new double[] {0.4, -20, 300});
+    assertEquals(0x0a0aff, graded.applyAsInt(0x141e00));
+    assertFalse(graded.isGreyScale());
+    assertTrue(new ColorMatrix(LUMA, new double[] {5, 5, 5}).isGreyScale());
+    assertFalse(new ColorMatrix(LUMA, new double[] {5, 5, 6}).isGreyScale());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOffsetNotFinite() {
+    new ColorMatrix(SEPIA, new double[] {0, Double.POSITIVE_INFINITY, 0});
+  }
+}
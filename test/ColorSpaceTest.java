@@ -0,0 +1,89 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import model.ColorSpace;
+import org.junit.Test;
+
+/**
+ * To test the conversions of the ColorSpace enum.
+ */
+public class ColorSpaceTest {
+
+  private static final float DELTA = 1e-5f;
+
+  /**
+   * Get a buffer of every combination of eleven steps of each component.
+   */
+  private static float[] grid() {
+    float[] pixels = new float[3 * 11 * 11 * 11];
+    int i = 0;
+    for (int red = 0; red <= 10; red++) {
+      for (int green = 0; green <= 10; green++) {
+        for (int blue = 0; blue <= 10; blue++) {
+          pixels[i++] = red / 10f;
+          pixels[i++] = green / 10f;
+          pixels[i++] = blue / 10f;
+        }
+      }
+    }
+    return pixels;
+  }
+
+  @Test
+  public void testEverySpaceRoundTrips() {
+    for (ColorSpace space : ColorSpace.values()) {
+      float[] pixels = grid();
+      space.fromRgb(pixels, pixels.length / 3);
+      space.toRgb(pixels, pixels.length / 3);
+      assertArrayEquals(space.toString(), grid(), pixels, DELTA);
+    }
+  }
+
+  @Test
+  public void testHsv() {
+    float[] pixels = {1, 0, 0, 0, 0.5f, 0.5f, 0.25f, 0.25f, 0.25f, 1, 0, 1};
+    ColorSpace.HSV.fromRgb(pixels, 4);
+    assertArrayEquals(new float[] {0, 1, 1, 0.5f, 1, 0.5f, 0, 0, 0.25f, 5 / 6f, 1, 1},
+        pixels, DELTA);
+  }
+
+  @Test
+  public void testHsl() {
+    float[] pixels = {0, 0, 1, 1, 0.5f, 0.5f, 1, 1, 1};
+    ColorSpace.HSL.fromRgb(pixels, 3);
+    assertArrayEquals(new float[] {2 / 3f, 1, 0.5f, 0, 1, 0.75f, 0, 0, 1}, pixels, DELTA);
+  }
+
+  @Test
+  public void testYCbCr() {
+    float[] pixels = {0.5f, 0.5f, 0.5f, 1, 0, 0};
+    ColorSpace.YCBCR.fromRgb(pixels, 2);
+    assertArrayEquals(new float[] {0.5f, 0.5f, 0.5f, 0.299f, 0.331264f, 1}, pixels, DELTA);
+  }
+
+  @Test
+  public void testOnlyConvertsCount() {
+    float[] pixels = {1, 0, 0, 1, 0, 0};
+    ColorSpace.HSV.fromRgb(pixels, 1);
+    assertArrayEquals(new float[] {0, 1, 1, 1, 0, 0}, pixels, DELTA);
+  }
+
+  @Test
+  public void testShortBufferThrowsException() {
+    for (ColorSpace space : ColorSpace.values()) {
+      try {
+        space.fromRgb(new float[5], 2);
+        fail();
+      } catch (IllegalArgumentException e) {
+        assertEquals("Buffer does not hold that many pixels", e.getMessage());
+      }
+      try {
+        space.toRgb(null, 0);
+        fail();
+      } catch (IllegalArgumentException e) {
+        assertEquals("Buffer does not hold that many pixels", e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,252 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.ConcurrentImageProcessor;
+import model.HistogramImageProcessor;
+import model.ImageRaster;
+import model.Light;
+import model.OffHeapRaster;
+import model.Pixel;
+import model.PixelOperator;
+import model.ProcessorOptions;
+import model.RGBPixel;
+import model.StorageLayout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs every model test against a concurrent model that stores its images outside of the Java
+ * heap, and checks that many threads running mixed operations on it at once get the same results
+ * as running them one after another.
+ */
+public class ConcurrentImageProcessorTest extends HistogramImageProcessorTest {
+
+  private static final int THREADS = 8;
+  private static final int ROUNDS = 200;
+  private static final ProcessorOptions OFF_HEAP =
+      ProcessorOptions.DEFAULT.withLayout(StorageLayout.OFF_HEAP);
+
+  @Override
+  protected HistogramImageProcessor createProcessor() {
+    return new ConcurrentImageProcessor(OFF_HEAP);
+  }
+
+  /**
+   * Make a colorful image whose pixels depend on the given seed.
+   */
+  private static List<List<Pixel>> image(int seed) {
+    List<List<Pixel>> rows = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      List<Pixel> row = new ArrayList<>();
+      for (int j = 0; j < 16; j++) {
+        row.add(new RGBPixel((i * 20 + seed) % 256, (j * 15 + seed) % 256,
+            (i * j + 3 * seed) % 256));
+      }
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  /**
+   * Apply the operation with the given number to the given image.
+   */
+  private static void apply(HistogramImageProcessor model, int operation, String imageName,
+      String newImageName) {
+    switch (operation) {
+      case 0:
+        model.brighten(30, imageName, newImageName);
+        break;
+      case 1:
+        model.greyscaleComponent(Light.LUMA, imageName, newImageName);
+        break;
+      case 2:
+        model.flipImage(true, imageName, newImageName);
+        break;
+      case 3:
+        model.sepiaImage(imageName, newImageName);
+        break;
+      case 4:
+        model.blurImage(imageName, newImageName);
+        break;
+      default:
+        model.sharpenImage(imageName, newImageName);
+        break;
+    }
+  }
+
+  /**
+   * Run the given task on many threads at once, rethrowing the first failure.
+   */
+  private static void runThreads(ThreadTask task) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> results = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      int thread = t;
+      results.add(pool.submit(() -> {
+        start.await();
+        task.run(thread);
+        return null;
+      }));
+    }
+    start.countDown();
+    try {
+      for (Future<?> result : results) {
+        result.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Make an operator that copies its image, which once it starts says so with the given latch and
+   * keeps running until the given next latch is counted down or a short time has passed.
+   */
+  private static PixelOperator holding(CountDownLatch started, CountDownLatch next) {
+    AtomicBoolean first = new AtomicBoolean(true);
+    return (cursor, channel) -> {
+      if (first.getAndSet(false)) {
+        started.countDown();
+        try {
+          next.await(50, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return cursor.getComponent(0, 0, channel);
+    };
+  }
+
+  private interface ThreadTask {
+    void run(int thread) throws Exception;
+  }
+
+  @Test(timeout = 60000)
+  public void testMixedOperationsMatchSequentialResults() throws Exception {
+    HistogramImageProcessor sequential = new HistogramImageProcessor();
+    sequential.loadImage("base", image(0));
+    String[] expected = new String[6];
+    for (int operation = 0; operation < 6; operation++) {
+      apply(sequential, operation, "base", "result");
+      expected[operation] = sequential.convertToPPM("result");
+    }
+    String base = sequential.convertToPPM("base");
+    int histograms = sequential.getHistogram("base").size();
+
+    ConcurrentImageProcessor model = new ConcurrentImageProcessor(OFF_HEAP);
+    model.loadImage("base", image(0));
+    runThreads(thread -> {
+      String name = "result" + thread;
+      for (int round = 0; round < ROUNDS; round++) {
+        int operation = (thread + round) % 6;
+        if (thread == 0 && round % 4 == 0) {
+          // replacing the image every other thread reads must not disturb those reads
+          model.loadImage("base", image(0));
+        }
+        apply(model, operation, "base", name);
+        assertEquals(expected[operation], model.convertToPPM(name));
+        assertEquals(base, model.convertToPPM("base"));
+        assertEquals(histograms, model.getHistogram("base").size());
+        assertEquals(16, model.getBufferedImage(name).getWidth());
+        if (round % 5 == 0) {
+          model.dropImage(name);
+        }
+      }
+    });
+    assertEquals(base, model.convertToPPM("base"));
+  }
+
+  @Test(timeout = 60000)
+  public void testReadersSeeWholeImagesWhileReplaced() throws Exception {
+    HistogramImageProcessor sequential = new HistogramImageProcessor();
+    sequential.loadImage("first", image(1));
+    sequential.loadImage("second", image(2));
+    String first = sequential.convertToPPM("first");
+    String second = sequential.convertToPPM("second");
+
+    ConcurrentImageProcessor model = new ConcurrentImageProcessor(OFF_HEAP);
+    model.loadImage("shared", image(1));
+    runThreads(thread -> {
+      for (int round = 0; round < ROUNDS; round++) {
+        if (thread < 2) {
+          model.loadImage("shared", image(1 + round % 2));
+          model.flipImage(false, "shared", "flipped" + thread);
+        } else {
+          String ppm = model.convertToPPM("shared");
+          assertTrue(ppm.equals(first) || ppm.equals(second));
+        }
+      }
+    });
+    String ppm = model.convertToPPM("shared");
+    assertTrue(ppm.equals(first) || ppm.equals(second));
+  }
+
+  @Test(timeout = 60000)
+  public void testReleasesReplacedImagesOnceIdle() throws Exception {
+    ConcurrentImageProcessor model = new ConcurrentImageProcessor(OFF_HEAP);
+    runThreads(thread -> {
+      for (int round = 0; round < ROUNDS; round++) {
+        model.loadImage("image" + thread, image(round));
+        model.flipImage(true, "image" + thread, "flipped" + thread);
+      }
+    });
+    // every replaced image has been released, so each stored image is only counted once
+    assertEquals(THREADS * 12 * 16 * 4L, model.getTotalMemory());
+    assertEquals(2 * THREADS, model.getMemoryUsage().size());
+  }
+
+  @Test(timeout = 60000)
+  public void testReleasesReplacedImagesUnderContinuousLoad() throws Exception {
+    ConcurrentImageProcessor model = new ConcurrentImageProcessor(OFF_HEAP);
+    model.loadImage("base", image(0));
+    ExecutorService pool = Executors.newCachedThreadPool();
+    AtomicBoolean loading = new AtomicBoolean(true);
+    try {
+      // each operation keeps running until the next one has started, so there is always one
+      // running unless releasing the replaced images holds off new ones
+      Future<?> relay = pool.submit(() -> {
+        CountDownLatch started = new CountDownLatch(1);
+        for (int round = 0; loading.get(); round++) {
+          CountDownLatch current = started;
+          CountDownLatch next = new CountDownLatch(1);
+          String name = "held" + round % 2;
+          pool.submit(() -> model.applyOperator(holding(current, next), "base", name));
+          current.await();
+          started = next;
+        }
+        started.countDown();
+        return null;
+      });
+      List<ImageRaster> loaded = new ArrayList<>();
+      for (int round = 0; round < 10 * ROUNDS; round++) {
+        ImageRaster image = new OffHeapRaster(16, 12);
+        image.setRGB(0, 0, 0xff0000);
+        loaded.add(image);
+        model.loadImage("image", image);
+      }
+      int unreleased = 0;
+      for (ImageRaster image : loaded.subList(0, loaded.size() - 1)) {
+        if (image.getByteSize() > 0) {
+          unreleased++;
+        }
+      }
+      // at most 16 replaced images wait to be released after an operation
+      assertTrue(unreleased + " replaced images still hold memory", unreleased <= 16);
+      loading.set(false);
+      relay.get();
+    } finally {
+      loading.set(false);
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import model.CopyOnWriteRaster;
+import model.ImageRaster;
+import model.OffHeapRaster;
+import model.PackedRaster;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the methods in the CopyOnWriteRaster class.
+ */
+public class CopyOnWriteRasterTest {
+
+  private ImageRaster source;
+  private CopyOnWriteRaster copy;
+
+  @Before
+  public void setUp() {
+    this.source = new PackedRaster(2, 2, new int[]{0xff0110, 0x040864, 0x042d23, 0x414b6b});
+    this.copy = new CopyOnWriteRaster(this.source);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullSource() {
+    new CopyOnWriteRaster(null);
+  }
+
+  @Test
+  public void testReadsShareSource() {
+    assertTrue(this.copy.isShared());
+    assertEquals(2, this.copy.getWidth());
+    assertEquals(2, this.copy.getHeight());
+    assertEquals(0x040864, this.copy.getRGB(0, 1));
+    assertEquals(0x2d, this.copy.getComponent(1, 0, 1));
+    assertTrue(this.copy.isShared());
+  }
+
+  @Test
+  public void testWriteCopiesSource() {
+    this.copy.setRGB(0, 0, 0);
+    assertFalse(this.copy.isShared());
+    assertEquals(0, this.copy.getRGB(0, 0));
+    assertEquals(0xff0110, this.source.getRGB(0, 0));
+    assertEquals(0x414b6b, this.copy.getRGB(1, 1));
+    CopyOnWriteRaster other = new CopyOnWriteRaster(this.source);
+    other.setComponent(1, 1, 2, 0);
+    assertEquals(0x414b00, other.getRGB(1, 1));
+    assertEquals(0x414b6b, this.source.getRGB(1, 1));
+  }
+
+  @Test
+  public void testTransformLeavesSourceUnchanged() {
+    this.copy.transform(rgb -> rgb ^ 0xffffff);
+    assertFalse(this.copy.isShared());
+    assertEquals(0x00feef, this.copy.getRGB(0, 0));
+    assertEquals(0xff0110, this.source.getRGB(0, 0));
+  }
+
+  @Test
+  public void testShareDoesNotChain() {
+    CopyOnWriteRaster second = (CopyOnWriteRaster) CopyOnWriteRaster.share(this.copy);
+    this.copy.setRGB(0, 0, 0);
+    assertFalse(this.copy.isShared());
+    assertTrue(second.isShared());
+    assertEquals(0xff0110, second.getRGB(0, 0));
+    assertEquals(0, CopyOnWriteRaster.share(this.copy).getRGB(0, 0));
+    ImageRaster third = this.copy.copy();
+    this.copy.setRGB(0, 1, 0);
+    assertEquals(0x040864, third.getRGB(0, 1));
+  }
+
+  @Test
+  public void testDetachBeforeRelease() {
+    ImageRaster offHeap = new OffHeapRaster(1, 1);
+    offHeap.setRGB(0, 0, 0x123456);
+    CopyOnWriteRaster shared = new CopyOnWriteRaster(offHeap);
+    shared.detach(new PackedRaster(1, 1));
+    assertTrue(shared.isShared());
+    shared.detach(offHeap);
+    offHeap.release();
+    assertFalse(shared.isShared());
+    assertEquals(0x123456, shared.getRGB(0, 0));
+  }
+}
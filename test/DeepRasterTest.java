@@ -0,0 +1,116 @@
+import static org.junit.Assert.assertEquals;
+
+import controller.ImageUtil;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import model.DeepRaster;
+import model.HistogramImageProcessor;
+import model.ImageRaster;
+import model.Light;
+import model.ProcessorOptions;
+import model.SpillingImageStore;
+import model.StorageKind;
+import model.StorageLayout;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the methods in the DeepRaster class and how the model keeps the precision of images with
+ * more than 8 bits per component.
+ */
+public class DeepRasterTest {
+
+  private DeepRaster deep;
+  private HistogramImageProcessor model;
+
+  @Before
+  public void setUp() {
+    this.deep = new DeepRaster(2, 2, 65535);
+    this.deep.setComponent(0, 0, 0, 65535);
+    this.deep.setComponent(0, 0, 1, 1000);
+    this.deep.setComponent(0, 1, 2, 65000);
+    this.deep.setComponent(1, 1, 0, 300);
+    this.deep.setComponent(1, 1, 1, 301);
+    this.deep.setComponent(1, 1, 2, 302);
+    this.model = new HistogramImageProcessor();
+    this.model.loadImage("deep", this.deep.copy());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaxValue() {
+    new DeepRaster(1, 1, 65536);
+  }
+
+  @Test
+  public void testComponentsKeepPrecision() {
+    assertEquals(65535, this.deep.getMaxValue());
+    assertEquals(1000, this.deep.getComponent(0, 0, 1));
+    assertEquals(0xff0400, this.deep.getRGB(0, 0));
+    assertEquals(0x0000fd, this.deep.getRGB(0, 1));
+    assertEquals(24, this.deep.getByteSize());
+    assertEquals(StorageKind.DEEP, this.deep.getStorageKind());
+    this.deep.setRGB(1, 0, 0x0180ff);
+    assertEquals(257, this.deep.getComponent(1, 0, 0));
+    assertEquals(32896, this.deep.getComponent(1, 0, 1));
+    assertEquals(65535, this.deep.getComponent(1, 0, 2));
+  }
+
+  @Test
+  public void testBrightenClampsToMaxValue() {
+    this.model.brighten(1000, "deep", "bright");
+    assertEquals("P3\n2 2\n65535\n65535 2000 1000\n1000 1000 65535\n"
+        + "1000 1000 1000\n1300 1301 1302\n", this.model.convertToPPM("bright"));
+  }
+
+  @Test
+  public void testGreyscaleAndSepia() {
+    this.model.greyscaleComponent(Light.VALUE, "deep", "value");
+    this.model.sepiaImage("deep", "sepia");
+    assertEquals("P3\n2 2\n65535\n65535 65535 65535\n65000 65000 65000\n"
+        + "0 0 0\n302 302 302\n", this.model.convertToPPM("value"));
+    // 0.393 * 300 + 0.769 * 301 + 0.189 * 302 = 406.005
+    assertEquals("P3\n2 2\n65535\n26524 23558 18360\n12285 10920 8515\n"
+        + "0 0 0\n406 362 282\n", this.model.convertToPPM("sepia"));
+  }
+
+  @Test
+  public void testBlurAndFlip() {
+    this.model.blurImage("deep", "blur");
+    this.model.flipImage(false, "deep", "flipped");
+    // 0.25 * 65535 + 0.125 * 0 + 0.125 * 0 + 0.0625 * 300
+    assertEquals("16402", this.model.convertToPPM("blur").split("\n")[3].split(" ")[0]);
+    assertEquals("P3\n2 2\n65535\n0 0 65000\n65535 1000 0\n"
+        + "300 301 302\n0 0 0\n", this.model.convertToPPM("flipped"));
+  }
+
+  @Test
+  public void testPngKeepsSixteenBits() throws IOException {
+    DeepRaster tenBits = new DeepRaster(1, 1, 1023);
+    tenBits.setComponent(0, 0, 0, 1023);
+    tenBits.setComponent(0, 0, 1, 1);
+    this.model.loadImage("tenBits", tenBits);
+    BufferedImage image = this.model.getBufferedImage("deep");
+    assertEquals(1000, image.getRaster().getSample(0, 0, 1));
+    assertEquals(0xff0400, image.getRGB(0, 0) & 0xffffff);
+    File file = File.createTempFile("deep", ".png");
+    file.deleteOnExit();
+    ImageIO.write(this.model.getBufferedImage("tenBits"), "png", file);
+    ImageRaster saved = ImageUtil.readRaster(file.getPath());
+    assertEquals(65535, saved.getMaxValue());
+    assertEquals(65535, saved.getComponent(0, 0, 0));
+    assertEquals(64, saved.getComponent(0, 0, 1));
+    assertEquals(0, saved.getComponent(0, 0, 2));
+  }
+
+  @Test
+  public void testSpillKeepsPrecision() {
+    HistogramImageProcessor spilling = new HistogramImageProcessor(ProcessorOptions.DEFAULT,
+        new SpillingImageStore(0, StorageLayout.PACKED));
+    spilling.loadImage("deep", this.deep.copy());
+    spilling.loadImage("other", this.deep.copy());
+    assertEquals(this.model.convertToPPM("deep"), spilling.convertToPPM("deep"));
+    assertEquals(4, spilling.getHistogram("deep").size());
+  }
+}
@@ -0,0 +1,47 @@
+import static org.junit.Assert.assertEquals;
+
+import model.HistogramImageProcessor;
+import model.ImageMemory;
+import model.ProcessorOptions;
+import model.SpillingImageStore;
+import model.StorageKind;
+import model.StorageLayout;
+import org.junit.Test;
+
+/**
+ * Runs every model test against a model that stores derived images as their changes against the
+ * image they were derived from, to check that it gives the same results as storing them in full.
+ */
+public class DeltaImageProcessorTest extends HistogramImageProcessorTest {
+
+  @Override
+  protected HistogramImageProcessor createProcessor() {
+    return new HistogramImageProcessor(ProcessorOptions.DEFAULT.withDeltaThreshold(0.5));
+  }
+
+  @Test
+  public void testReplacingTheParentStoresTheImageInFull() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    this.model1.brighten(0, "twoByTwo", "same");
+    assertEquals(StorageKind.DELTA, this.model1.getMemoryUsage().get("same").getKind());
+    this.model1.brighten(0, "twoByTwo", "twoByTwo");
+    assertEquals(new ImageMemory(16, StorageKind.FULL),
+        this.model1.getMemoryUsage().get("twoByTwo"));
+    assertEquals(this.model1.convertToPPM("same"), this.model1.convertToPPM("twoByTwo"));
+  }
+
+  @Test
+  public void testReplacingASpilledImageKeepsTheParent() {
+    // room for one 2x2 off-heap image, so reloading the replaced image would evict the parent
+    HistogramImageProcessor spilling = new HistogramImageProcessor(
+        ProcessorOptions.DEFAULT.withLayout(StorageLayout.OFF_HEAP).withDeltaThreshold(0.5),
+        new SpillingImageStore(16, StorageLayout.OFF_HEAP));
+    spilling.loadImage("a", this.twoByTwo);
+    spilling.loadImage("b", this.twoByTwo);
+    spilling.brighten(10, "b", "b");
+    spilling.getPixelAt(0, 0, "a");
+    assertEquals(StorageKind.SPILLED, spilling.getMemoryUsage().get("b").getKind());
+    spilling.brighten(0, "a", "b");
+    assertEquals(spilling.convertToPPM("a"), spilling.convertToPPM("b"));
+  }
+}
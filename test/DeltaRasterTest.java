@@ -0,0 +1,110 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import model.DeltaRaster;
+import model.FlippedRaster;
+import model.HistogramImageProcessor;
+import model.ImageRaster;
+import model.PackedRaster;
+import model.ProcessorOptions;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the methods in the DeltaRaster class.
+ */
+public class DeltaRasterTest {
+
+  private ImageRaster parent;
+  private ImageRaster derived;
+
+  @Before
+  public void setUp() {
+    this.parent = new PackedRaster(4, 4);
+    this.parent.transform(rgb -> 0x808080);
+    this.derived = this.parent.copy();
+    this.derived.setRGB(1, 2, 0xff0000);
+    this.derived.setRGB(1, 3, 0x00ff00);
+    this.derived.setRGB(2, 0, 0x0000ff);
+    this.derived.setRGB(3, 3, 0x000000);
+  }
+
+  @Test
+  public void testEncode() {
+    ImageRaster delta = DeltaRaster.encode(this.parent, this.derived, 0.75);
+    assertTrue(delta instanceof DeltaRaster);
+    assertEquals(4, ((DeltaRaster) delta).getChangedPixelCount());
+    // two runs starting at pixels 6 and 15 and four values
+    assertEquals(4 * (2 + 3 + 4), delta.getByteSize());
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 4; j++) {
+        assertEquals(this.derived.getRGB(i, j), delta.getRGB(i, j));
+      }
+    }
+    assertEquals(0xff, delta.getComponent(2, 0, 2));
+  }
+
+  @Test
+  public void testTooManyChanges() {
+    assertSame(this.derived, DeltaRaster.encode(this.parent, this.derived, 0.1));
+    this.derived.transform(rgb -> 0x123456);
+    assertSame(this.derived, DeltaRaster.encode(this.parent, this.derived, 1));
+  }
+
+  @Test
+  public void testDifferentSize() {
+    ImageRaster other = new PackedRaster(4, 3);
+    assertSame(other, DeltaRaster.encode(this.parent, other, 1));
+  }
+
+  @Test
+  public void testWriteMaterializes() {
+    ImageRaster delta = DeltaRaster.encode(this.parent, this.derived, 0.75);
+    delta.setRGB(0, 0, 0x010101);
+    assertFalse(((DeltaRaster) delta).isShared());
+    assertEquals(0x010101, delta.getRGB(0, 0));
+    assertEquals(0x00ff00, delta.getRGB(1, 3));
+    assertEquals(0x808080, this.parent.getRGB(0, 0));
+    assertEquals(64, delta.getByteSize());
+  }
+
+  @Test
+  public void testDeltaOfDeltaUsesSameParent() {
+    ImageRaster delta = DeltaRaster.encode(this.parent, this.derived, 0.75);
+    ImageRaster next = delta.copy();
+    next.setRGB(0, 0, 0x111111);
+    ImageRaster encoded = DeltaRaster.encode(delta, next, 0.75);
+    assertEquals(5, ((DeltaRaster) encoded).getChangedPixelCount());
+    assertEquals(0x111111, encoded.getRGB(0, 0));
+    assertEquals(0xff0000, encoded.getRGB(1, 2));
+  }
+
+  @Test
+  public void testFlipDelta() {
+    ImageRaster delta = DeltaRaster.encode(this.parent, this.derived, 0.75);
+    ImageRaster flipped = FlippedRaster.flip(delta, true);
+    assertEquals(0x0000ff, flipped.getRGB(1, 0));
+    assertEquals(0x000000, flipped.getRGB(0, 3));
+    assertEquals(0x808080, flipped.getRGB(3, 3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidThreshold() {
+    ProcessorOptions.DEFAULT.withDeltaThreshold(1.5);
+  }
+
+  @Test
+  public void testModelStoresDelta() {
+    HistogramImageProcessor model = new HistogramImageProcessor(
+        ProcessorOptions.DEFAULT.withDeltaThreshold(0.25));
+    ImageRaster image = new PackedRaster(8, 8);
+    image.transform(rgb -> 0xfffffe);
+    model.loadImage("image", image);
+    model.brighten(10, "image", "bright");
+    assertEquals(0xffffff, model.getPixelAt(3, 3, "bright").toRGB());
+    model.brighten(-10, "image", "dark");
+    assertEquals(0xf5f5f4, model.getPixelAt(3, 3, "dark").toRGB());
+  }
+}
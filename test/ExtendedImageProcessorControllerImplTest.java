@@ -170,4 +170,108 @@ public class ExtendedImageProcessorControllerImplTest extends AbstractImageProce
         Interaction.prints(this.renderMenu),
         Interaction.prints("Quit image processor")));
   }
+
+  @Test
+  public void testColorMatrixWithOffsetsInvalidImage() {
+    assertTrue(testRun(
+        Interaction.inputs("color-matrix 1 0 0 0 1 0 0 0 1 -offsets 10 -5 0.5 invalidImage "
+            + "koala-graded q"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Image cannot be found"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Quit image processor")));
+  }
+
+  @Test
+  public void testColorMatrixInvalidImage() {
+    assertTrue(testRun(
+        Interaction.inputs("color-matrix 1 0 0 0 1 0 0 0 1 invalidImage koala-graded q"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Image cannot be found"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Quit image processor")));
+  }
+
+  @Test
+  public void testColorMatrixInvalidEntry() {
+    assertTrue(testRun(
+        Interaction.inputs("color-matrix 1 0 zero q"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Invalid command: Please enter a new valid command."),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Quit image processor")));
+  }
+
+  @Test
+  public void testOffsetsCommandsWithNumberImageNames() {
+    assertTrue(testRun(
+        Interaction.inputs("load images/TwoByTwo.ppm 1 "
+            + "color-matrix 1 0 0 0 1 0 0 0 1 1 2.5 "
+            + "adjust-ycbcr 1 1 1 2.5 3 "
+            + "adjust-ycbcr 1 1 1 -offsets 0 -10 10 3 4 q"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Load Operation Successful!"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Color Matrix Operation Successful!"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("YCbCr Adjust Operation Successful!"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("YCbCr Adjust Operation Successful!"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Quit image processor")));
+  }
+
+  @Test
+  public void testOffsetsFlagInvalidNumber() {
+    assertTrue(testRun(
+        Interaction.inputs("color-matrix 1 0 0 0 1 0 0 0 1 -offsets 10 red q"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Invalid command: Please enter a new valid command."),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Quit image processor")));
+  }
+
+  @Test
+  public void testExpressionInvalidImage() {
+    assertTrue(testRun(
+        Interaction.inputs("expr \"r' = min(255, r * 1.1 + 5)\" invalidImage koala-expr "
+            + "expr g'=g*2 invalidImage koala-expr q"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Image cannot be found"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Image cannot be found"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Quit image processor")));
+  }
+
+  @Test
+  public void testColorSpaceCommandsInvalidImage() {
+    assertTrue(testRun(
+        Interaction.inputs("hue-rotate 120 invalidImage koala-hue "
+            + "saturate 1.5 invalidImage koala-vivid "
+            + "adjust-ycbcr 1 1 1 invalidImage koala-same "
+            + "adjust-ycbcr 1 1 1 -offsets 0 -10 10 invalidImage koala-warm q"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Image cannot be found"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Image cannot be found"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Image cannot be found"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Image cannot be found"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Quit image processor")));
+  }
+
+  @Test
+  public void testColorSpaceCommandsInvalidNumber() {
+    assertTrue(testRun(
+        Interaction.inputs("hue-rotate half saturate twice q"),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Invalid command: Please enter a new valid command."),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Invalid command: Please enter a new valid command."),
+        Interaction.prints(this.renderMenu),
+        Interaction.prints("Quit image processor")));
+  }
 }
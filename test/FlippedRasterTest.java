@@ -0,0 +1,107 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import model.FlippedRaster;
+import model.HistogramImageProcessor;
+import model.ImageRaster;
+import model.OffHeapRaster;
+import model.PackedRaster;
+import model.ProcessorOptions;
+import model.SharedRaster;
+import model.StorageLayout;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the methods in the FlippedRaster class.
+ */
+public class FlippedRasterTest {
+
+  private ImageRaster source;
+
+  @Before
+  public void setUp() {
+    this.source = new PackedRaster(3, 2, new int[]{
+        1, 2, 3,
+        4, 5, 6});
+  }
+
+  /**
+   * Check that the given raster has the given pixels row by row.
+   *
+   * @param expected the expected packed pixels.
+   * @param actual   the raster to check.
+   */
+  private void assertPixels(int[] expected, ImageRaster actual) {
+    assertEquals(3, actual.getWidth());
+    assertEquals(2, actual.getHeight());
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 3; j++) {
+        assertEquals(expected[i * 3 + j], actual.getRGB(i, j));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFlipNull() {
+    FlippedRaster.flip(null, true);
+  }
+
+  @Test
+  public void testFlipsAreViews() {
+    ImageRaster vertical = FlippedRaster.flip(this.source, true);
+    ImageRaster horizontal = FlippedRaster.flip(this.source, false);
+    this.assertPixels(new int[]{4, 5, 6, 1, 2, 3}, vertical);
+    this.assertPixels(new int[]{3, 2, 1, 6, 5, 4}, horizontal);
+    assertTrue(((SharedRaster) vertical).isShared());
+    assertTrue(((SharedRaster) horizontal).isShared());
+    assertEquals(5, vertical.getComponent(0, 1, 2));
+  }
+
+  @Test
+  public void testFlipsCompose() {
+    ImageRaster both = FlippedRaster.flip(FlippedRaster.flip(this.source, true), false);
+    this.assertPixels(new int[]{6, 5, 4, 3, 2, 1}, both);
+    ImageRaster back = FlippedRaster.flip(FlippedRaster.flip(both, true), false);
+    this.assertPixels(new int[]{1, 2, 3, 4, 5, 6}, back);
+    assertTrue(((SharedRaster) back).isShared());
+  }
+
+  @Test
+  public void testWriteMaterializes() {
+    ImageRaster vertical = FlippedRaster.flip(this.source, true);
+    vertical.setRGB(0, 0, 9);
+    assertFalse(((SharedRaster) vertical).isShared());
+    this.assertPixels(new int[]{9, 5, 6, 1, 2, 3}, vertical);
+    this.assertPixels(new int[]{1, 2, 3, 4, 5, 6}, this.source);
+    ImageRaster mapped = FlippedRaster.flip(this.source, false).map(rgb -> rgb * 10);
+    this.assertPixels(new int[]{30, 20, 10, 60, 50, 40}, mapped);
+  }
+
+  @Test
+  public void testDetachCopiesReleasedSource() {
+    ImageRaster offHeap = new OffHeapRaster(3, 2);
+    offHeap.setRGB(0, 0, 7);
+    ImageRaster horizontal = FlippedRaster.flip(offHeap, false);
+    horizontal.detach(this.source);
+    assertTrue(((SharedRaster) horizontal).isShared());
+    horizontal.detach(offHeap);
+    offHeap.release();
+    assertFalse(((SharedRaster) horizontal).isShared());
+    assertEquals(7, horizontal.getRGB(0, 2));
+  }
+
+  @Test
+  public void testModelFlipThenOverwriteSource() {
+    HistogramImageProcessor model = new HistogramImageProcessor(
+        ProcessorOptions.DEFAULT.withLayout(StorageLayout.OFF_HEAP));
+    model.loadImage("image", this.source);
+    model.flipImage(true, "image", "image");
+    model.flipImage(false, "image", "flipped");
+    model.brighten(1, "image", "image");
+    assertEquals(6, model.getBufferedImage("flipped").getRGB(0, 0) & 0xffffff);
+    assertEquals(1, model.getBufferedImage("flipped").getRGB(2, 1) & 0xffffff);
+    assertEquals(0x010102, model.getBufferedImage("image").getRGB(0, 1) & 0xffffff);
+  }
+}
@@ -0,0 +1,89 @@
+import org.junit.Test;
+
+import model.Evaluation;
+import model.HistogramImageProcessor;
+import model.ImageMemory;
+import model.Light;
+import model.ProcessorOptions;
+import model.StorageKind;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs every model test against a model that defers brighten, grey-scale, and sepia, to check that
+ * fusing them gives the same results as applying them one by one.
+ */
+public class FusedImageProcessorTest extends HistogramImageProcessorTest {
+
+  private static HistogramImageProcessor fusingModel() {
+    return new HistogramImageProcessor(ProcessorOptions.DEFAULT.withEvaluation(Evaluation.FUSED));
+  }
+
+  @Override
+  protected HistogramImageProcessor createProcessor() {
+    return fusingModel();
+  }
+
+  @Test
+  public void testChainIsDeferredAndMatchesOneByOne() {
+    HistogramImageProcessor oneByOne = new HistogramImageProcessor();
+    for (HistogramImageProcessor model : new HistogramImageProcessor[] {this.model1, oneByOne}) {
+      model.loadImage("koala", this.miniExample);
+      model.brighten(40, "koala", "bright");
+      model.greyscaleComponent(Light.LUMA, "bright", "grey");
+      model.sepiaImage("grey", "sepia");
+      model.brighten(-25, "sepia", "dark");
+    }
+    for (String name : new String[] {"bright", "grey", "sepia", "dark"}) {
+      assertEquals(oneByOne.convertToPPM(name), this.model1.convertToPPM(name));
+      assertEquals(new ImageMemory(0, StorageKind.FUSED),
+          this.model1.getMemoryUsage().get(name));
+    }
+  }
+
+  @Test
+  public void testOtherOperationsReadDeferredResults() {
+    HistogramImageProcessor oneByOne = new HistogramImageProcessor();
+    for (HistogramImageProcessor model : new HistogramImageProcessor[] {this.model1, oneByOne}) {
+      model.loadImage("koala", this.miniExample);
+      model.sepiaImage("koala", "sepia");
+      model.greyscaleComponent(Light.VALUE, "sepia", "grey");
+      model.blurImage("grey", "blur");
+      model.flipImage(true, "grey", "flip");
+      model.brighten(10, "flip", "flipBright");
+    }
+    for (String name : new String[] {"blur", "flip", "flipBright"}) {
+      assertEquals(oneByOne.convertToPPM(name), this.model1.convertToPPM(name));
+    }
+    assertEquals(oneByOne.getHistogram("grey").size(), this.model1.getHistogram("grey").size());
+    assertEquals(StorageKind.GREYSCALE, this.model1.getMemoryUsage().get("blur").getKind());
+  }
+
+  @Test(timeout = 10000)
+  public void testLongChainOfPointOperationsIsBounded() {
+    HistogramImageProcessor oneByOne = new HistogramImageProcessor();
+    for (HistogramImageProcessor model : new HistogramImageProcessor[] {this.model1, oneByOne}) {
+      model.loadImage("koala", this.miniExample);
+      model.brighten(0, "koala", "chain");
+      for (int step = 1; step < 20000; step++) {
+        model.brighten(step % 2 == 0 ? 3 : -3, "chain", "chain");
+      }
+      model.brighten(5, "chain", "last");
+    }
+    // the chain composes at most 16 operations, after which it computes its pixels first
+    assertEquals(StorageKind.FULL, this.model1.getMemoryUsage().get("chain").getKind());
+    assertEquals(StorageKind.FUSED, this.model1.getMemoryUsage().get("last").getKind());
+    assertEquals(oneByOne.getPixelAt(1, 1, "last"), this.model1.getPixelAt(1, 1, "last"));
+    assertEquals(oneByOne.convertToPPM("last"), this.model1.convertToPPM("last"));
+  }
+
+  @Test
+  public void testDroppingTheSourceKeepsDeferredResults() {
+    this.model1.loadImage("twoByTwo", this.twoByTwo);
+    this.model1.brighten(10, "twoByTwo", "bright");
+    String expected = this.model1.convertToPPM("bright");
+    this.model1.dropImage("twoByTwo");
+    assertEquals(expected, this.model1.convertToPPM("bright"));
+    assertEquals(StorageKind.FULL, this.model1.getMemoryUsage().get("bright").getKind());
+  }
+}
@@ -0,0 +1,110 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import model.GreyRaster;
+import model.HistogramImageProcessor;
+import model.ImageRaster;
+import model.Light;
+import model.PackedRaster;
+import model.StorageLayout;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the methods in the GreyRaster class.
+ */
+public class GreyRasterTest {
+
+  private GreyRaster grey;
+
+  @Before
+  public void setUp() {
+    this.grey = new GreyRaster(3, 2, StorageLayout.PACKED);
+    this.grey.setRGB(0, 0, 0x101010);
+    this.grey.setRGB(1, 2, 0xfefefe);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSize() {
+    new GreyRaster(-1, 2, StorageLayout.PACKED);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullLayout() {
+    new GreyRaster(1, 2, null);
+  }
+
+  @Test
+  public void testGetAndSet() {
+    assertEquals(3, this.grey.getWidth());
+    assertEquals(2, this.grey.getHeight());
+    assertEquals(0x101010, this.grey.getRGB(0, 0));
+    assertEquals(0xfe, this.grey.getComponent(1, 2, 1));
+    assertEquals(0, this.grey.getRGB(1, 1));
+    assertTrue(this.grey.isGreyScale());
+    assertEquals(6, this.grey.getByteSize());
+  }
+
+  @Test
+  public void testGreyTransformStaysGrey() {
+    this.grey.transform(rgb -> Math.min(rgb + 0x010101, 0xffffff));
+    assertTrue(this.grey.isGreyScale());
+    assertEquals(0x111111, this.grey.getRGB(0, 0));
+    assertEquals(0xffffff, this.grey.getRGB(1, 2));
+    assertEquals(0x010101, this.grey.getRGB(1, 0));
+  }
+
+  @Test
+  public void testColorWriteExpands() {
+    this.grey.setRGB(0, 1, 0x0000ff);
+    assertFalse(this.grey.isGreyScale());
+    assertEquals(0x0000ff, this.grey.getRGB(0, 1));
+    assertEquals(0x101010, this.grey.getRGB(0, 0));
+    assertEquals(24, this.grey.getByteSize());
+  }
+
+  @Test
+  public void testColorMap() {
+    ImageRaster mapped = this.grey.map(rgb -> rgb & 0xff0000);
+    assertFalse(mapped.isGreyScale());
+    assertEquals(0x100000, mapped.getRGB(0, 0));
+    assertTrue(this.grey.isGreyScale());
+    assertEquals(0x101010, this.grey.getRGB(0, 0));
+  }
+
+  @Test
+  public void testCopy() {
+    ImageRaster copy = this.grey.copy();
+    copy.setRGB(0, 0, 0x202020);
+    assertEquals(0x101010, this.grey.getRGB(0, 0));
+    assertEquals(0x202020, copy.getRGB(0, 0));
+    assertTrue(copy.isGreyScale());
+  }
+
+  @Test
+  public void testIsAllGrey() {
+    ImageRaster packed = new PackedRaster(2, 1);
+    packed.setRGB(0, 1, 0x070707);
+    assertTrue(GreyRaster.isAllGrey(packed));
+    packed.setRGB(0, 0, 0x070706);
+    assertFalse(GreyRaster.isAllGrey(packed));
+    assertEquals(0x060606, GreyRaster.of(packed, rgb -> (rgb & 0xff) * 0x010101,
+        StorageLayout.PACKED).getRGB(0, 0));
+  }
+
+  @Test
+  public void testModelKeepsGreyImagesAsOneBytePerPixel() {
+    ImageRaster packed = new PackedRaster(2, 1);
+    packed.setRGB(0, 0, 0x0a141e);
+    HistogramImageProcessor model = new HistogramImageProcessor();
+    model.loadImage("image", packed);
+    model.greyscaleComponent(Light.LUMA, "image", "luma");
+    model.blurImage("luma", "blur");
+    model.sepiaImage("blur", "sepia");
+    assertEquals(1, model.getHistogram("blur").size());
+    assertEquals(4, model.getHistogram("sepia").size());
+    assertEquals(model.getPixelAt(0, 0, "blur").getRed(),
+        model.getPixelAt(0, 0, "blur").getBlue());
+  }
+}
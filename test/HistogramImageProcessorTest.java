@@ -25,8 +25,19 @@ public class HistogramImageProcessorTest extends BetterImageProcessorTest {
 
   @Override
   public ImageProcessorModel createModel() {
-    super.model1 = new HistogramImageProcessor();
-    this.model1 = new HistogramImageProcessor();
+    HistogramImageProcessor model = this.createProcessor();
+    super.model1 = model;
+    this.model1 = model;
+    return model;
+  }
+
+  /**
+   * Create the model every test runs against, which subclasses override to run every test against
+   * a model that stores or computes its images differently.
+   *
+   * @return a new model with no images.
+   */
+  protected HistogramImageProcessor createProcessor() {
     return new HistogramImageProcessor();
   }
 
@@ -1,9 +1,15 @@
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
+import javax.imageio.ImageIO;
 
 import controller.ImageUtil;
+import model.ImageRaster;
 import model.Pixel;
 import model.RGBPixel;
 
@@ -132,4 +138,68 @@ public class ImageUtilTest {
     assertEquals(new RGBPixel(18, 143, 197),
             imageJPG.get(0).get(0));
   }
+
+  @Test
+  public void testLoadDeepPPM() {
+    ImageRaster image = ImageUtil.readRaster("images/TwoByOneDeep.ppm");
+    assertEquals(65535, image.getMaxValue());
+    assertEquals(65535, image.getComponent(0, 0, 0));
+    assertEquals(1000, image.getComponent(0, 0, 1));
+    assertEquals(300, image.getComponent(0, 1, 2));
+    assertEquals(0xff0400, image.getRGB(0, 0));
+  }
+
+  @Test
+  public void testLoadDeepPPMValueTooLarge() throws IOException {
+    File file = File.createTempFile("deep", ".ppm");
+    file.deleteOnExit();
+    Files.writeString(file.toPath(), "P3\n1 1\n1023\n1024 0 0\n");
+    try {
+      ImageUtil.readRaster(file.getPath());
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid PPM file: color values must be in the range [0, 1023]",
+          e.getMessage());
+    }
+  }
+
+  @Test
+  public void testLoadSixteenBitPNG() throws IOException {
+    BufferedImage grey = new BufferedImage(2, 1, BufferedImage.TYPE_USHORT_GRAY);
+    grey.getRaster().setSample(0, 0, 0, 40000);
+    grey.getRaster().setSample(1, 0, 0, 7);
+    File file = File.createTempFile("deep", ".png");
+    file.deleteOnExit();
+    ImageIO.write(grey, "png", file);
+    ImageRaster image = ImageUtil.readRaster(file.getPath());
+    assertEquals(65535, image.getMaxValue());
+    assertEquals(40000, image.getComponent(0, 0, 0));
+    assertEquals(40000, image.getComponent(0, 0, 2));
+    assertEquals(7, image.getComponent(0, 1, 1));
+  }
+
+  @Test
+  public void testLoadPPMWithFewerLevelsScalesToEightBits() throws IOException {
+    File file = File.createTempFile("shallow", ".ppm");
+    file.deleteOnExit();
+    Files.writeString(file.toPath(), "P3\n2 1\n15\n15 8 0\n1 2 3\n");
+    ImageRaster image = ImageUtil.readRaster(file.getPath());
+    assertEquals(255, image.getMaxValue());
+    assertEquals(0xff8800, image.getRGB(0, 0));
+    assertEquals(0x112233, image.getRGB(0, 1));
+  }
+
+  @Test
+  public void testLoadPPMInvalidMaxValue() throws IOException {
+    File file = File.createTempFile("empty", ".ppm");
+    file.deleteOnExit();
+    Files.writeString(file.toPath(), "P3\n1 1\n0\n0 0 0\n");
+    try {
+      ImageUtil.readRaster(file.getPath());
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid PPM file: maximum value must be in the range [1, 65535]",
+          e.getMessage());
+    }
+  }
 }
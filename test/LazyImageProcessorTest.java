@@ -0,0 +1,113 @@
+import org.junit.Test;
+
+import model.Evaluation;
+import model.HistogramImageProcessor;
+import model.ImageMemory;
+import model.Light;
+import model.ProcessorOptions;
+import model.StorageKind;
+import model.StorageLayout;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs every model test against a lazy model, to check that computing results only once they are
+ * read gives the same results as computing them right away.
+ */
+public class LazyImageProcessorTest extends HistogramImageProcessorTest {
+
+  private static HistogramImageProcessor lazyModel() {
+    return new HistogramImageProcessor(ProcessorOptions.DEFAULT.withEvaluation(Evaluation.LAZY));
+  }
+
+  @Override
+  protected HistogramImageProcessor createProcessor() {
+    return lazyModel();
+  }
+
+  @Test
+  public void testOperationsAreDeferredUntilReadInFull() {
+    HistogramImageProcessor eager = new HistogramImageProcessor();
+    for (HistogramImageProcessor model : new HistogramImageProcessor[] {this.model1, eager}) {
+      model.loadImage("koala", this.miniExample);
+      model.blurImage("koala", "blur");
+      model.flipImage(true, "blur", "flip");
+      model.brighten(20, "flip", "bright");
+      model.sharpenImage("bright", "sharp");
+      model.greyscaleComponent(Light.LUMA, "sharp", "grey");
+    }
+    assertEquals(new ImageMemory(0, StorageKind.DEFERRED),
+        this.model1.getMemoryUsage().get("blur"));
+    assertEquals(new ImageMemory(0, StorageKind.SHARED), this.model1.getMemoryUsage().get("flip"));
+    assertEquals(new ImageMemory(0, StorageKind.FUSED),
+        this.model1.getMemoryUsage().get("bright"));
+    assertEquals(new ImageMemory(0, StorageKind.DEFERRED),
+        this.model1.getMemoryUsage().get("sharp"));
+
+    // reading single pixels computes only those pixels
+    for (int i = 0; i < eager.getHeight("grey"); i++) {
+      for (int j = 0; j < eager.getWidth("grey"); j++) {
+        assertEquals(eager.getPixelAt(i, j, "sharp"), this.model1.getPixelAt(i, j, "sharp"));
+      }
+    }
+    assertEquals(StorageKind.DEFERRED, this.model1.getMemoryUsage().get("sharp").getKind());
+
+    for (String name : new String[] {"blur", "flip", "bright", "sharp", "grey"}) {
+      assertEquals(eager.convertToPPM(name), this.model1.convertToPPM(name));
+    }
+    assertEquals(StorageKind.FULL, this.model1.getMemoryUsage().get("sharp").getKind());
+    assertEquals(StorageKind.GREYSCALE, this.model1.getMemoryUsage().get("grey").getKind());
+  }
+
+  @Test(timeout = 10000)
+  public void testLongChainOfKernelsReadsPixelsQuickly() {
+    HistogramImageProcessor eager = new HistogramImageProcessor();
+    for (HistogramImageProcessor model : new HistogramImageProcessor[] {this.model1, eager}) {
+      model.loadImage("step0", this.miniExample);
+      for (int step = 1; step <= 16; step++) {
+        if (step % 2 == 0) {
+          model.sharpenImage("step" + (step - 1), "step" + step);
+        } else {
+          model.blurImage("step" + (step - 1), "step" + step);
+        }
+      }
+    }
+    // every other result is computed, so reading a pixel goes through at most two operators
+    assertEquals(StorageKind.FULL, this.model1.getMemoryUsage().get("step2").getKind());
+    assertEquals(StorageKind.DEFERRED, this.model1.getMemoryUsage().get("step16").getKind());
+    for (int i = 0; i < eager.getHeight("step16"); i++) {
+      for (int j = 0; j < eager.getWidth("step16"); j++) {
+        assertEquals(eager.getPixelAt(i, j, "step16"), this.model1.getPixelAt(i, j, "step16"));
+      }
+    }
+  }
+
+  @Test
+  public void testOverwrittenResultsAreNeverComputed() {
+    this.model1.loadImage("koala", this.miniExample);
+    this.model1.blurImage("koala", "result");
+    this.model1.sharpenImage("koala", "result");
+    this.model1.sepiaImage("result", "result");
+    assertEquals(new ImageMemory(0, StorageKind.FUSED),
+        this.model1.getMemoryUsage().get("result"));
+  }
+
+  @Test
+  public void testReplacingTheSourceOfAChainKeepsDeferredResults() {
+    HistogramImageProcessor model = new HistogramImageProcessor(ProcessorOptions.DEFAULT
+        .withLayout(StorageLayout.OFF_HEAP).withEvaluation(Evaluation.LAZY));
+    HistogramImageProcessor eager = new HistogramImageProcessor();
+    for (HistogramImageProcessor each : new HistogramImageProcessor[] {model, eager}) {
+      each.loadImage("koala", this.miniExample);
+      each.blurImage("koala", "step");
+      each.brighten(30, "step", "step");
+      each.flipImage(false, "step", "flip");
+      each.sharpenImage("koala", "step");
+    }
+    // the flipped image reads through two results that are no longer stored
+    String expected = eager.convertToPPM("flip");
+    model.loadImage("koala", this.twoByTwo);
+    assertEquals(expected, model.convertToPPM("flip"));
+    assertEquals(eager.convertToPPM("step"), model.convertToPPM("step"));
+  }
+}
@@ -0,0 +1,103 @@
+import static org.junit.Assert.assertEquals;
+
+import model.HistogramImageProcessor;
+import model.ImageMemory;
+import model.LinearLightImageProcessor;
+import model.Light;
+import model.PackedRaster;
+import model.ProcessorOptions;
+import model.RGBPixel;
+import model.StorageKind;
+import model.StorageLayout;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the LinearLightImageProcessor class, which converts images to linear light when they
+ * are loaded and back to sRGB when they are read out.
+ */
+public class LinearLightImageProcessorTest {
+
+  private LinearLightImageProcessor model;
+  private PackedRaster redWhiteBlack;
+
+  @Before
+  public void init() {
+    this.model = new LinearLightImageProcessor();
+    this.redWhiteBlack = new PackedRaster(3, 1);
+    this.redWhiteBlack.setRGB(0, 0, 0xff0000);
+    this.redWhiteBlack.setRGB(0, 1, 0xffffff);
+    this.redWhiteBlack.setRGB(0, 2, 0x000000);
+  }
+
+  @Test
+  public void testEveryComponentSurvivesLoadingAndSaving() {
+    PackedRaster ramp = new PackedRaster(256, 1);
+    for (int j = 0; j < 256; j++) {
+      ramp.setRGB(0, j, (j << 16) | ((255 - j) << 8) | (j * 7 % 256));
+    }
+    HistogramImageProcessor srgb = new HistogramImageProcessor();
+    srgb.loadImage("ramp", ramp);
+    this.model.loadImage("ramp", ramp);
+    assertEquals(srgb.convertToPPM("ramp"), this.model.convertToPPM("ramp"));
+    for (int j = 0; j < 256; j++) {
+      assertEquals(srgb.getPixelAt(0, j, "ramp"), this.model.getPixelAt(0, j, "ramp"));
+    }
+  }
+
+  @Test
+  public void testOutputDoesNotDependOnLayout() {
+    LinearLightImageProcessor offHeap = new LinearLightImageProcessor(
+        ProcessorOptions.DEFAULT.withLayout(StorageLayout.OFF_HEAP));
+    for (LinearLightImageProcessor each : new LinearLightImageProcessor[] {this.model, offHeap}) {
+      each.loadImage("image", this.redWhiteBlack);
+      each.blurImage("image", "blur");
+    }
+    for (int i = 0; i < 3; i++) {
+      assertEquals(this.model.convertToPPM("blur"), offHeap.convertToPPM("blur"));
+      assertEquals(4, offHeap.getHistogram("blur").size());
+    }
+  }
+
+  @Test
+  public void testLumaWeighsLinearLight() {
+    this.model.loadImage("image", this.redWhiteBlack);
+    this.model.greyscaleComponent(Light.LUMA, "image", "luma");
+    // 0.2126 of the light of pure red is about half of white once encoded as sRGB
+    assertEquals(new RGBPixel(127, 127, 127), this.model.getPixelAt(0, 0, "luma"));
+    assertEquals(new RGBPixel(255, 255, 255), this.model.getPixelAt(0, 1, "luma"));
+  }
+
+  @Test
+  public void testBlurMixesLight() {
+    this.model.loadImage("image", this.redWhiteBlack);
+    this.model.blurImage("image", "blur");
+    assertEquals("P3\n3 1\n165\n165 99 99\n165 137 137\n99 99 99\n",
+        this.model.convertToPPM("blur"));
+  }
+
+  @Test
+  public void testBrightenInEightBitSteps() {
+    this.model.loadImage("image", this.redWhiteBlack);
+    this.model.brighten(255, "image", "white");
+    this.model.brighten(100, "image", "bright");
+    assertEquals(new RGBPixel(255, 255, 255), this.model.getPixelAt(0, 2, "white"));
+    assertEquals(new RGBPixel(168, 168, 168), this.model.getPixelAt(0, 2, "bright"));
+  }
+
+  @Test
+  public void testChainStaysLinearUntilReadOut() {
+    this.model.loadImage("image", this.redWhiteBlack);
+    this.model.brighten(10, "image", "bright");
+    this.model.sepiaImage("bright", "sepia");
+    this.model.colorMatrix(new double[][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}},
+        new double[] {-10, -10, -10}, "sepia", "graded");
+    for (String name : new String[] {"image", "bright", "sepia", "graded"}) {
+      assertEquals(new ImageMemory(18, StorageKind.DEEP),
+          this.model.getMemoryUsage().get(name));
+    }
+    assertEquals(4, this.model.getHistogram("graded").size());
+    assertEquals(this.model.getPixelAt(0, 1, "graded").toString(),
+        this.model.convertToPPM("graded").split("\n")[4]);
+  }
+}
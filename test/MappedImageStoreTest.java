@@ -0,0 +1,159 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import model.DeepRaster;
+import model.GreyRaster;
+import model.ImageMemory;
+import model.ImageRaster;
+import model.MappedImageStore;
+import model.PackedRaster;
+import model.StorageKind;
+import model.StorageLayout;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * To test the methods in the MappedImageStore class.
+ */
+public class MappedImageStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path workspace;
+  private MappedImageStore store;
+
+  @Before
+  public void setUp() throws IOException {
+    this.workspace = this.folder.newFolder("workspace").toPath();
+    this.store = new MappedImageStore(this.workspace);
+  }
+
+  private ImageRaster makeImage(int rgb) {
+    ImageRaster image = new PackedRaster(2, 2);
+    image.transform(pixel -> rgb);
+    image.setRGB(1, 1, 0x010203);
+    return image;
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullWorkspace() {
+    new MappedImageStore(null);
+  }
+
+  @Test
+  public void testPutAndGet() {
+    this.store.put("a", this.makeImage(0xff0000));
+    ImageRaster image = this.store.get("a");
+    assertEquals(StorageKind.MAPPED, image.getStorageKind());
+    assertEquals(0xff0000, image.getRGB(0, 0));
+    assertEquals(0x010203, image.getRGB(1, 1));
+    assertEquals(2, image.getWidth());
+    assertNull(this.store.get("b"));
+  }
+
+  @Test
+  public void testImagesSurviveANewStore() {
+    this.store.put("a", this.makeImage(0xff0000));
+    this.store.put("dir/b c", this.makeImage(0x00ff00));
+    this.store.put("a", this.makeImage(0x0000ff));
+    MappedImageStore reopened = new MappedImageStore(this.workspace);
+    assertEquals(0x0000ff, reopened.get("a").getRGB(0, 0));
+    assertEquals(0x00ff00, reopened.get("dir/b c").getRGB(0, 1));
+    assertEquals(0x010203, reopened.get("dir/b c").getRGB(1, 1));
+    assertEquals(2, reopened.getMemoryUsage().size());
+  }
+
+  @Test
+  public void testCopyCanBeChanged() {
+    this.store.put("a", this.makeImage(0xff0000));
+    ImageRaster copy = this.store.get("a").copy();
+    copy.setRGB(0, 0, 0x123456);
+    assertEquals(0x123456, copy.getRGB(0, 0));
+    assertEquals(0xff0000, this.store.get("a").getRGB(0, 0));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMappedImageCannotBeChanged() {
+    this.store.put("a", this.makeImage(0xff0000));
+    this.store.get("a").setRGB(0, 0, 0);
+  }
+
+  @Test
+  public void testGreyAndDeepImagesKeepTheirComponents() {
+    GreyRaster grey = new GreyRaster(2, 1, StorageLayout.PACKED);
+    grey.setRGB(0, 1, 0x808080);
+    this.store.put("grey", grey);
+    DeepRaster deep = new DeepRaster(1, 1, 1000);
+    deep.setComponent(0, 0, 0, 999);
+    deep.setComponent(0, 0, 2, 1);
+    this.store.put("deep", deep);
+    MappedImageStore reopened = new MappedImageStore(this.workspace);
+    ImageRaster image = reopened.get("grey");
+    assertTrue(image.isGreyScale());
+    assertEquals(0x808080, image.getRGB(0, 1));
+    assertEquals(2, image.getByteSize());
+    image = reopened.get("deep");
+    assertEquals(1000, image.getMaxValue());
+    assertEquals(999, image.getComponent(0, 0, 0));
+    assertEquals(0, image.getComponent(0, 0, 1));
+    assertEquals(1, image.getComponent(0, 0, 2));
+    assertEquals(999, image.copy().getComponent(0, 0, 0));
+  }
+
+  @Test
+  public void testCopiesUseTheLayoutOfTheStore() {
+    MappedImageStore offHeap = new MappedImageStore(this.workspace, StorageLayout.OFF_HEAP);
+    offHeap.put("a", this.makeImage(0xff0000));
+    offHeap.put("grey", new GreyRaster(2, 1, StorageLayout.PACKED));
+    assertEquals(StorageKind.OFF_HEAP, offHeap.get("a").copy().getStorageKind());
+    ImageRaster grey = offHeap.get("grey").copy();
+    grey.setRGB(0, 0, 0xff0000);
+    assertEquals(StorageKind.OFF_HEAP, grey.getStorageKind());
+    MappedImageStore reopened = new MappedImageStore(this.workspace, StorageLayout.OFF_HEAP);
+    assertEquals(StorageKind.OFF_HEAP, reopened.get("a").copy().getStorageKind());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullLayout() {
+    new MappedImageStore(this.workspace, null);
+  }
+
+  @Test
+  public void testRemoveDeletesTheFile() throws IOException {
+    this.store.put("a", this.makeImage(0xff0000));
+    assertTrue(this.store.remove("a"));
+    assertFalse(this.store.remove("a"));
+    assertNull(this.store.get("a"));
+    try (Stream<Path> files = Files.list(this.workspace)) {
+      assertEquals(0, files.count());
+    }
+    assertTrue(new MappedImageStore(this.workspace).getMemoryUsage().isEmpty());
+  }
+
+  @Test
+  public void testMemoryUsage() {
+    this.store.put("b", this.makeImage(0xff0000));
+    this.store.put("a", new GreyRaster(3, 1, StorageLayout.PACKED));
+    Map<String, ImageMemory> usage = this.store.getMemoryUsage();
+    assertEquals("[a, b]", usage.keySet().toString());
+    assertEquals(new ImageMemory(3, StorageKind.MAPPED), usage.get("a"));
+    assertEquals(new ImageMemory(12, StorageKind.MAPPED), usage.get("b"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidFileInWorkspace() throws IOException {
+    Files.write(this.workspace.resolve("bad.img"), new byte[] {1, 2, 3});
+    new MappedImageStore(this.workspace);
+  }
+}
@@ -0,0 +1,92 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import model.HistogramImageProcessor;
+import model.ImageRaster;
+import model.OffHeapRaster;
+import model.PackedRaster;
+import model.ProcessorOptions;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the methods in the OffHeapRaster class and that a model releases the images it replaces.
+ */
+public class OffHeapRasterTest {
+
+  private ImageRaster offHeap;
+
+  @Before
+  public void setUp() {
+    this.offHeap = new OffHeapRaster(3, 2);
+    this.offHeap.setRGB(0, 0, 0xff0110);
+    this.offHeap.setRGB(1, 2, 0x414b6b);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSize() {
+    new OffHeapRaster(-3, 2);
+  }
+
+  @Test
+  public void testGetAndSetRGB() {
+    assertEquals(3, this.offHeap.getWidth());
+    assertEquals(2, this.offHeap.getHeight());
+    assertEquals(0xff0110, this.offHeap.getRGB(0, 0));
+    assertEquals(0x414b6b, this.offHeap.getRGB(1, 2));
+    assertEquals(0, this.offHeap.getRGB(1, 1));
+    this.offHeap.setRGB(1, 1, 0xff123456);
+    assertEquals(0x123456, this.offHeap.getRGB(1, 1));
+  }
+
+  @Test
+  public void testGetAndSetComponent() {
+    assertEquals(255, this.offHeap.getComponent(0, 0, 0));
+    assertEquals(1, this.offHeap.getComponent(0, 0, 1));
+    assertEquals(16, this.offHeap.getComponent(0, 0, 2));
+    this.offHeap.setComponent(1, 2, 0, 1);
+    assertEquals(0x014b6b, this.offHeap.getRGB(1, 2));
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    ImageRaster copy = this.offHeap.copy();
+    copy.setRGB(0, 0, 0);
+    assertEquals(0, copy.getRGB(0, 0));
+    assertEquals(0x414b6b, copy.getRGB(1, 2));
+    assertEquals(0xff0110, this.offHeap.getRGB(0, 0));
+    copy.release();
+    assertEquals(0xff0110, this.offHeap.getRGB(0, 0));
+  }
+
+  @Test
+  public void testUseAfterRelease() {
+    this.offHeap.release();
+    this.offHeap.release();
+    try {
+      this.offHeap.getRGB(0, 0);
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("Image has been released", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testModelReleasesReplacedImage() {
+    int[] released = new int[1];
+    ImageRaster tracked = new PackedRaster(1, 1) {
+      @Override
+      public void release() {
+        released[0]++;
+      }
+    };
+    // a grey image would be stored as a new grey-scale raster instead of the given one
+    tracked.setRGB(0, 0, 0x010203);
+    HistogramImageProcessor model = new HistogramImageProcessor(ProcessorOptions.DEFAULT);
+    model.loadImage("image", tracked);
+    model.brighten(10, "image", "bright");
+    assertEquals(0, released[0]);
+    model.brighten(10, "bright", "image");
+    assertEquals(1, released[0]);
+  }
+}
@@ -0,0 +1,92 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import model.ChannelOffset;
+import model.ImageRaster;
+import model.PackedRaster;
+import model.StorageLayout;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the methods in the PackedRaster class.
+ */
+public class PackedRasterTest {
+
+  private ImageRaster twoByThree;
+
+  @Before
+  public void setUp() {
+    this.twoByThree = new PackedRaster(3, 2, new int[]{
+        0xff0110, 0x040864, 0x042d23,
+        0x414b6b, 0x000000, 0xffffff});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSize() {
+    new PackedRaster(-1, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSizeDoesNotMatchArray() {
+    new PackedRaster(2, 2, new int[3]);
+  }
+
+  @Test
+  public void testNewRasterIsBlack() {
+    ImageRaster raster = new PackedRaster(2, 2);
+    assertEquals(0, raster.getRGB(0, 0));
+    assertEquals(0, raster.getRGB(1, 1));
+  }
+
+  @Test
+  public void testSize() {
+    assertEquals(3, this.twoByThree.getWidth());
+    assertEquals(2, this.twoByThree.getHeight());
+    assertEquals(0, new PackedRaster(0, 0).getWidth());
+  }
+
+  @Test
+  public void testGetAndSetRGB() {
+    assertEquals(0xff0110, this.twoByThree.getRGB(0, 0));
+    assertEquals(0x042d23, this.twoByThree.getRGB(0, 2));
+    assertEquals(0x414b6b, this.twoByThree.getRGB(1, 0));
+    this.twoByThree.setRGB(1, 1, 0x123456);
+    assertEquals(0x123456, this.twoByThree.getRGB(1, 1));
+    assertEquals(0xffffff, this.twoByThree.getRGB(1, 2));
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    ImageRaster copy = this.twoByThree.copy();
+    assertNotSame(this.twoByThree, copy);
+    copy.setRGB(0, 0, 0);
+    assertEquals(0, copy.getRGB(0, 0));
+    assertEquals(0xff0110, this.twoByThree.getRGB(0, 0));
+    assertEquals(0x414b6b, copy.getRGB(1, 0));
+  }
+
+  @Test
+  public void testMapAndMapRowMatchTransform() {
+    ChannelOffset offset = new ChannelOffset(20);
+    ImageRaster expected = this.twoByThree.copy();
+    expected.transform(offset);
+    ImageRaster mapped = this.twoByThree.map(offset);
+    ImageRaster fromPacked = new PackedRaster(3, 2);
+    ImageRaster fromPlanar = new PackedRaster(3, 2);
+    ImageRaster planar = StorageLayout.PLANAR.convert(this.twoByThree);
+    for (int i = 0; i < 2; i++) {
+      fromPacked.mapRow(this.twoByThree, i, offset);
+      fromPlanar.mapRow(planar, i, offset);
+    }
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 3; j++) {
+        assertEquals(expected.getRGB(i, j), mapped.getRGB(i, j));
+        assertEquals(expected.getRGB(i, j), fromPacked.getRGB(i, j));
+        assertEquals(expected.getRGB(i, j), fromPlanar.getRGB(i, j));
+      }
+    }
+    assertEquals(0xff1524, mapped.getRGB(0, 0));
+    assertEquals(0xff0110, this.twoByThree.getRGB(0, 0));
+  }
+}
@@ -0,0 +1,140 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import model.HistogramImageProcessor;
+import model.ImageMemory;
+import model.ImageRaster;
+import model.PackedRaster;
+import model.PaletteRaster;
+import model.ProcessorOptions;
+import model.StorageKind;
+import model.StorageLayout;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the methods in the PaletteRaster class.
+ */
+public class PaletteRasterTest {
+
+  private PaletteRaster palette;
+
+  @Before
+  public void setUp() {
+    ImageRaster packed = new PackedRaster(3, 2);
+    packed.setRGB(0, 0, 0xff0000);
+    packed.setRGB(0, 1, 0xff0000);
+    packed.setRGB(1, 2, 0x00ff00);
+    this.palette = PaletteRaster.of(packed, 16, StorageLayout.PACKED);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSize() {
+    new PaletteRaster(-1, 2, StorageLayout.PACKED);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPaletteSize() {
+    PaletteRaster.of(new PackedRaster(1, 1), 0, StorageLayout.PACKED);
+  }
+
+  @Test
+  public void testOf() {
+    assertEquals(3, this.palette.getPaletteSize());
+    assertEquals(0xff0000, this.palette.getRGB(0, 1));
+    assertEquals(0, this.palette.getRGB(1, 0));
+    assertEquals(0x00ff00, this.palette.getRGB(1, 2));
+    assertEquals(6 + 4 * 16, this.palette.getByteSize());
+    assertNull(PaletteRaster.of(this.palette, 2, StorageLayout.PACKED));
+  }
+
+  @Test
+  public void testTransformOnlyChangesPalette() {
+    int[] calls = new int[1];
+    this.palette.transform(rgb -> {
+      calls[0]++;
+      return rgb | 0x0000ff;
+    });
+    assertEquals(3, calls[0]);
+    assertEquals(0xff00ff, this.palette.getRGB(0, 0));
+    assertEquals(0x0000ff, this.palette.getRGB(1, 1));
+  }
+
+  @Test
+  public void testMapSharesIndices() {
+    ImageRaster mapped = this.palette.map(rgb -> rgb >> 8);
+    mapped.setRGB(0, 0, 0x123456);
+    assertEquals(0x123456, mapped.getRGB(0, 0));
+    assertEquals(0xff00, mapped.getRGB(0, 1));
+    assertEquals(0xff0000, this.palette.getRGB(0, 0));
+    this.palette.setRGB(1, 0, 0x00ff00);
+    assertEquals(0, mapped.getRGB(1, 0));
+    assertEquals(0x00ff00, this.palette.getRGB(1, 0));
+    assertEquals(3, this.palette.getPaletteSize());
+  }
+
+  @Test
+  public void testIndicesWidenAndOverflow() {
+    PaletteRaster large = new PaletteRaster(512, 130, StorageLayout.PACKED);
+    for (int i = 0; i < 128; i++) {
+      for (int j = 0; j < 512; j++) {
+        large.setRGB(i, j, i * 512 + j);
+      }
+    }
+    assertEquals(PaletteRaster.MAX_COLORS, large.getPaletteSize());
+    assertEquals(300, large.getRGB(0, 300));
+    assertEquals(2L * 512 * 130 + 4 * PaletteRaster.MAX_COLORS, large.getByteSize());
+    large.setRGB(129, 511, 129 * 512 + 511);
+    assertEquals(129 * 512 + 511, large.getRGB(129, 511));
+    assertEquals(0, large.getPaletteSize());
+    assertEquals(4L * 512 * 130, large.getByteSize());
+  }
+
+  @Test
+  public void testGreyPalette() {
+    assertTrue(PaletteRaster.of(new PackedRaster(2, 2), 1, StorageLayout.PACKED).isGreyScale());
+    assertEquals(false, this.palette.isGreyScale());
+  }
+
+  @Test
+  public void testSharedIndicesAreCountedOnce() {
+    ImageRaster mapped = this.palette.map(rgb -> rgb >> 8);
+    ImageRaster copy = this.palette.copy();
+    assertEquals(6 + 4 * 16, this.palette.getByteSize());
+    assertEquals(4 * 16, mapped.getByteSize());
+    assertEquals(4 * 16, copy.getByteSize());
+    // writing to the copy gives it indices of its own
+    copy.setRGB(0, 0, 0x0000ff);
+    assertEquals(6 + 4 * 16, copy.getByteSize());
+    assertEquals(4 * 16, mapped.getByteSize());
+    // releasing the raster counting the shared indices hands them on
+    this.palette.release();
+    assertEquals(6 + 4 * 16, mapped.getByteSize());
+    assertEquals(4 * 16, this.palette.getByteSize());
+  }
+
+  @Test
+  public void testModelCountsSharedIndicesOnce() {
+    ImageRaster stripes = new PackedRaster(100, 100);
+    for (int i = 0; i < 100; i++) {
+      for (int j = 0; j < 100; j++) {
+        stripes.setRGB(i, j, j % 2 == 0 ? 0xff0000 : 0x00ff00);
+      }
+    }
+    HistogramImageProcessor model = new HistogramImageProcessor(
+        ProcessorOptions.DEFAULT.withLayout(StorageLayout.PALETTE));
+    model.loadImage("a", stripes);
+    model.brighten(10, "a", "b");
+    model.sepiaImage("b", "c");
+    Map<String, ImageMemory> usage = model.getMemoryUsage();
+    assertEquals(new ImageMemory(10000 + 4 * 16, StorageKind.PALETTE), usage.get("a"));
+    assertEquals(new ImageMemory(4 * 16, StorageKind.PALETTE), usage.get("b"));
+    assertEquals(new ImageMemory(4 * 16, StorageKind.PALETTE), usage.get("c"));
+    assertEquals(10000 + 3 * 4 * 16, model.getTotalMemory());
+    model.dropImage("a");
+    assertEquals(10000 + 2 * 4 * 16, model.getTotalMemory());
+  }
+}
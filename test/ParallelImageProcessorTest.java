@@ -0,0 +1,125 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.DeepRaster;
+import model.Evaluation;
+import model.HistogramImageProcessor;
+import model.IHistogram;
+import model.Light;
+import model.Pixel;
+import model.ProcessorOptions;
+import model.RGBPixel;
+import model.RowBands;
+import model.StorageLayout;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs every model test against a model that splits the rows of every image between threads, and
+ * checks that its results are the same as computing every row on one thread.
+ */
+public class ParallelImageProcessorTest extends HistogramImageProcessorTest {
+
+  private static final RowBands ROWS = new RowBands(4, 0);
+
+  private static HistogramImageProcessor parallelModel(StorageLayout layout) {
+    return new HistogramImageProcessor(ProcessorOptions.DEFAULT.withLayout(layout).withRows(ROWS));
+  }
+
+  @Override
+  protected HistogramImageProcessor createProcessor() {
+    return parallelModel(StorageLayout.PACKED);
+  }
+
+  /**
+   * Make a colorful image large enough to be split into many bands.
+   */
+  private static List<List<Pixel>> image() {
+    List<List<Pixel>> rows = new ArrayList<>();
+    for (int i = 0; i < 67; i++) {
+      List<Pixel> row = new ArrayList<>();
+      for (int j = 0; j < 41; j++) {
+        row.add(new RGBPixel((i * 7 + j) % 256, (j * 13) % 256, (i * j) % 256));
+      }
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  /**
+   * Run every operation on the same image with both models and compare every result.
+   */
+  private static void assertSameResults(HistogramImageProcessor serial,
+      HistogramImageProcessor parallel) {
+    String[] names = {"image", "bright", "grey", "sepia", "blur", "sharp", "flip", "flipBlur",
+        "greyBlur"};
+    for (HistogramImageProcessor model : new HistogramImageProcessor[] {serial, parallel}) {
+      model.brighten(25, "image", "bright");
+      model.greyscaleComponent(Light.INTENSITY, "image", "grey");
+      model.sepiaImage("image", "sepia");
+      model.blurImage("image", "blur");
+      model.sharpenImage("bright", "sharp");
+      model.flipImage(true, "image", "flip");
+      model.blurImage("flip", "flipBlur");
+      model.blurImage("grey", "greyBlur");
+    }
+    for (String name : names) {
+      assertEquals(serial.convertToPPM(name), parallel.convertToPPM(name));
+      List<IHistogram> expected = serial.getHistogram(name);
+      List<IHistogram> actual = parallel.getHistogram(name);
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++) {
+        assertArrayEquals(expected.get(i).getFrequency(), actual.get(i).getFrequency());
+      }
+      int width = serial.getWidth(name);
+      int height = serial.getHeight(name);
+      int[] serialPixels = serial.getBufferedImage(name).getRGB(0, 0, width, height, null, 0,
+          width);
+      int[] parallelPixels = parallel.getBufferedImage(name).getRGB(0, 0, width, height, null,
+          0, width);
+      assertArrayEquals(serialPixels, parallelPixels);
+    }
+  }
+
+  @Test
+  public void testEveryLayoutMatchesSerialResults() {
+    for (StorageLayout layout : StorageLayout.values()) {
+      HistogramImageProcessor serial = new HistogramImageProcessor(
+          ProcessorOptions.DEFAULT.withLayout(layout));
+      HistogramImageProcessor parallel = parallelModel(layout);
+      serial.loadImage("image", image());
+      parallel.loadImage("image", image());
+      assertSameResults(serial, parallel);
+    }
+  }
+
+  @Test
+  public void testDeepImagesMatchSerialResults() {
+    DeepRaster deep = new DeepRaster(29, 53, 4095);
+    for (int i = 0; i < 53; i++) {
+      for (int j = 0; j < 29; j++) {
+        for (int channel = 0; channel < 3; channel++) {
+          deep.setComponent(i, j, channel, (i * 71 + j * 37 + channel * 1000) % 4096);
+        }
+      }
+    }
+    HistogramImageProcessor serial = new HistogramImageProcessor();
+    HistogramImageProcessor parallel = parallelModel(StorageLayout.PACKED);
+    serial.loadImage("image", deep);
+    parallel.loadImage("image", deep);
+    assertSameResults(serial, parallel);
+  }
+
+  @Test
+  public void testLazyResultsMatchSerialResults() {
+    HistogramImageProcessor serial = new HistogramImageProcessor();
+    HistogramImageProcessor parallel = new HistogramImageProcessor(ProcessorOptions.DEFAULT
+        .withLayout(StorageLayout.OFF_HEAP).withEvaluation(Evaluation.LAZY).withRows(ROWS));
+    serial.loadImage("image", image());
+    parallel.loadImage("image", image());
+    assertSameResults(serial, parallel);
+  }
+}
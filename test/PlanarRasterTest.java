@@ -0,0 +1,117 @@
+import static org.junit.Assert.assertEquals;
+
+import model.ChannelOffset;
+import model.ImageRaster;
+import model.PackedRaster;
+import model.PlanarRaster;
+import model.StorageLayout;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the methods in the PlanarRaster class and converting between storage layouts.
+ */
+public class PlanarRasterTest {
+
+  private ImageRaster planar;
+
+  @Before
+  public void setUp() {
+    this.planar = new PlanarRaster(3, 2);
+    this.planar.setRGB(0, 0, 0xff0110);
+    this.planar.setRGB(0, 2, 0x042d23);
+    this.planar.setRGB(1, 1, 0xffffff);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSize() {
+    new PlanarRaster(2, -2);
+  }
+
+  @Test
+  public void testGetAndSetRGB() {
+    assertEquals(3, this.planar.getWidth());
+    assertEquals(2, this.planar.getHeight());
+    assertEquals(0xff0110, this.planar.getRGB(0, 0));
+    assertEquals(0x042d23, this.planar.getRGB(0, 2));
+    assertEquals(0xffffff, this.planar.getRGB(1, 1));
+    assertEquals(0, this.planar.getRGB(1, 2));
+  }
+
+  @Test
+  public void testGetAndSetComponent() {
+    assertEquals(255, this.planar.getComponent(0, 0, 0));
+    assertEquals(1, this.planar.getComponent(0, 0, 1));
+    assertEquals(16, this.planar.getComponent(0, 0, 2));
+    this.planar.setComponent(0, 0, 1, 200);
+    assertEquals(0xffc810, this.planar.getRGB(0, 0));
+    ImageRaster packed = new PackedRaster(1, 1);
+    packed.setComponent(0, 0, 2, 7);
+    packed.setComponent(0, 0, 0, 9);
+    assertEquals(0x090007, packed.getRGB(0, 0));
+    assertEquals(9, packed.getComponent(0, 0, 0));
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    ImageRaster copy = this.planar.copy();
+    copy.setRGB(0, 0, 0);
+    assertEquals(0, copy.getRGB(0, 0));
+    assertEquals(0xff0110, this.planar.getRGB(0, 0));
+    assertEquals(0xffffff, copy.getRGB(1, 1));
+  }
+
+  @Test
+  public void testConvertBetweenLayouts() {
+    assertEquals(this.planar, StorageLayout.PLANAR.convert(this.planar));
+    ImageRaster packed = StorageLayout.PACKED.convert(this.planar);
+    assertEquals(PackedRaster.class, packed.getClass());
+    ImageRaster back = StorageLayout.PLANAR.convert(packed);
+    assertEquals(PlanarRaster.class, back.getClass());
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 3; j++) {
+        assertEquals(this.planar.getRGB(i, j), packed.getRGB(i, j));
+        assertEquals(this.planar.getRGB(i, j), back.getRGB(i, j));
+      }
+    }
+  }
+
+  @Test
+  public void testChannelOffsetChangesEveryPlane() {
+    ImageRaster large = new PlanarRaster(7, 5);
+    ImageRaster expected = new PackedRaster(7, 5);
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 7; j++) {
+        large.setRGB(i, j, (i * 50 << 16) | (j * 40 << 8) | (i * j * 9));
+        expected.setRGB(i, j, large.getRGB(i, j));
+      }
+    }
+    large.transform(new ChannelOffset(-60));
+    expected.transform(new ChannelOffset(-60));
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 7; j++) {
+        assertEquals(expected.getRGB(i, j), large.getRGB(i, j));
+      }
+    }
+    assertEquals(0, large.getRGB(0, 0));
+    assertEquals(0x8cb49c, large.getRGB(4, 6));
+  }
+
+  @Test
+  public void testMapRowChangesOneRowOfEveryPlane() {
+    ImageRaster source = new PlanarRaster(11, 3);
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 11; j++) {
+        source.setRGB(i, j, (i * 90 << 16) | (j * 20 << 8) | (255 - j * 9));
+      }
+    }
+    ImageRaster result = new PlanarRaster(11, 3);
+    ChannelOffset offset = new ChannelOffset(-30);
+    result.mapRow(source, 1, offset);
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 11; j++) {
+        assertEquals(i == 1 ? offset.applyAsInt(source.getRGB(i, j)) : 0, result.getRGB(i, j));
+      }
+    }
+  }
+}
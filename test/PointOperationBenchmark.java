@@ -0,0 +1,81 @@
+import java.util.function.Consumer;
+
+import model.HistogramImageProcessor;
+import model.ImageRaster;
+import model.PackedRaster;
+import model.ProcessorOptions;
+import model.RowBands;
+import model.StorageLayout;
+
+/**
+ * Measures how many megapixels per second brightening an image through a model takes, with the
+ * components added as lanes of one word by brighten and with the same change made one pixel at a
+ * time by a color matrix, for packed and planar models computing on one thread and on every core.
+ * Sepia through the same models is measured for comparison. Run it on its own with an optional
+ * image side length and number of rounds; it is not a test.
+ */
+public class PointOperationBenchmark {
+
+  private static final int WARM_UP_ROUNDS = 20;
+  private static final double[][] IDENTITY = {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
+
+  /**
+   * Make an image of the given size filled with a pattern of colors.
+   */
+  private static ImageRaster image(int size) {
+    ImageRaster image = new PackedRaster(size, size);
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        image.setRGB(i, j, (i * 31 + j * 7) & 0xffffff);
+      }
+    }
+    return image;
+  }
+
+  /**
+   * Run the given operation on the image named "image" of the given model, storing the result
+   * over the image named "result", and report the throughput in megapixels per second.
+   */
+  private static void measure(String name, HistogramImageProcessor model,
+      Consumer<HistogramImageProcessor> operation, int rounds) {
+    for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+      operation.accept(model);
+    }
+    long start = System.nanoTime();
+    for (int round = 0; round < rounds; round++) {
+      operation.accept(model);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    double megapixels = (double) model.getWidth("image") * model.getHeight("image") * rounds
+        / 1e6;
+    System.out.printf("%-40s %10.1f MP/s%n", name, megapixels / seconds);
+  }
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args the side length of the square image and the number of measured rounds.
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    ImageRaster image = image(size);
+    // at least two threads, so the rows are split into bands even on a single core
+    RowBands cores = new RowBands(Math.max(2, Runtime.getRuntime().availableProcessors()),
+        RowBands.DEFAULT_MINIMUM_PIXELS);
+    for (StorageLayout layout : new StorageLayout[] {StorageLayout.PACKED, StorageLayout.PLANAR}) {
+      for (RowBands rows : new RowBands[] {RowBands.SERIAL, cores}) {
+        HistogramImageProcessor model = new HistogramImageProcessor(
+            ProcessorOptions.DEFAULT.withLayout(layout).withRows(rows));
+        model.loadImage("image", image);
+        String setting = layout.name().toLowerCase() + ", " + rows.getParallelism()
+            + (rows.getParallelism() == 1 ? " thread, " : " threads, ");
+        measure(setting + "brighten", model,
+            m -> m.brighten(40, "image", "result"), rounds);
+        measure(setting + "per pixel", model,
+            m -> m.colorMatrix(IDENTITY, new double[] {40, 40, 40}, "image", "result"), rounds);
+        measure(setting + "sepia", model, m -> m.sepiaImage("image", "result"), rounds);
+      }
+    }
+  }
+}
@@ -0,0 +1,54 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import model.Evaluation;
+import model.ProcessorOptions;
+import model.RowBands;
+import model.StorageLayout;
+import org.junit.Test;
+
+/**
+ * To test the methods in the ProcessorOptions class.
+ */
+public class ProcessorOptionsTest {
+
+  @Test
+  public void testDefaults() {
+    assertSame(StorageLayout.PACKED, ProcessorOptions.DEFAULT.getLayout());
+    assertEquals(0, ProcessorOptions.DEFAULT.getDeltaThreshold(), 0);
+    assertSame(Evaluation.EAGER, ProcessorOptions.DEFAULT.getEvaluation());
+    assertSame(RowBands.SERIAL, ProcessorOptions.DEFAULT.getRows());
+  }
+
+  @Test
+  public void testEachSettingKeepsTheOthers() {
+    RowBands rows = new RowBands(2, 0);
+    ProcessorOptions options = ProcessorOptions.DEFAULT.withLayout(StorageLayout.TILED)
+        .withDeltaThreshold(0.5).withEvaluation(Evaluation.LAZY).withRows(rows);
+    assertSame(StorageLayout.TILED, options.getLayout());
+    assertEquals(0.5, options.getDeltaThreshold(), 0);
+    assertSame(Evaluation.LAZY, options.getEvaluation());
+    assertSame(rows, options.getRows());
+    assertSame(StorageLayout.PACKED, ProcessorOptions.DEFAULT.getLayout());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullLayout() {
+    ProcessorOptions.DEFAULT.withLayout(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeThreshold() {
+    ProcessorOptions.DEFAULT.withDeltaThreshold(-0.1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullEvaluation() {
+    ProcessorOptions.DEFAULT.withEvaluation(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullRows() {
+    ProcessorOptions.DEFAULT.withRows(null);
+  }
+}
@@ -185,6 +185,35 @@ public class RGBPixelTest {
     assertEquals(white.getMaxComponentValue(), 255);
   }
 
+  @Test
+  public void testGetComponents() {
+    assertEquals(250, highRedLowBlue.getRed());
+    assertEquals(120, highRedLowBlue.getGreen());
+    assertEquals(5, highRedLowBlue.getBlue());
+    assertEquals(0, black.getRed());
+    assertEquals(255, white.getBlue());
+    highRedLowBlue.changeAllBy(10);
+    assertEquals(255, highRedLowBlue.getRed());
+    assertEquals(130, highRedLowBlue.getGreen());
+    assertEquals(15, highRedLowBlue.getBlue());
+  }
+
+  @Test
+  public void testToRGB() {
+    assertEquals(0xfa7805, highRedLowBlue.toRGB());
+    assertEquals(0x78 << 16 | 0x05 << 8 | 0xfa, highBlueLowGreen.toRGB());
+    assertEquals(0xffffff, white.toRGB());
+    assertEquals(0, black.toRGB());
+  }
+
+  @Test
+  public void testFromRGB() {
+    assertEquals(highRedLowBlue, Pixel.fromRGB(0xfa7805));
+    assertEquals(randomColor, Pixel.fromRGB(randomColor.toRGB()));
+    assertEquals(white, Pixel.fromRGB(0xffffffff));
+    assertEquals(black, Pixel.fromRGB(0));
+  }
+
   @Test
   public void testEquals() {
     assertFalse(highRedLowBlue.equals(highBlueLowGreen));
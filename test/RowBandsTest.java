@@ -0,0 +1,82 @@
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import model.RowBands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * To test the methods in the RowBands class.
+ */
+public class RowBandsTest {
+
+  @Test
+  public void testEveryRowIsVisitedOnce() {
+    RowBands rows = new RowBands(3, 0);
+    for (int height : new int[] {0, 1, 2, 7, 100, 1001}) {
+      AtomicIntegerArray visits = new AtomicIntegerArray(height);
+      rows.forEachRow(5, height, visits::incrementAndGet);
+      for (int i = 0; i < height; i++) {
+        assertEquals(1, visits.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testOnlyLargeImagesAreSplit() {
+    RowBands rows = new RowBands(4, 1000);
+    assertTrue(rows.isParallel(100, 10));
+    assertFalse(rows.isParallel(99, 10));
+    assertFalse(rows.isParallel(10000, 1));
+    assertFalse(RowBands.SERIAL.isParallel(10000, 10000));
+    assertFalse(new RowBands(1, 0).isParallel(10000, 10000));
+    assertEquals(4, rows.getParallelism());
+    assertEquals(1000, rows.getMinimumPixels());
+  }
+
+  @Test
+  public void testRowBandsWithTheSameParallelismShareThreads() {
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    for (int i = 0; i < 100; i++) {
+      new RowBands(5, 0).forEachRow(5, 100, row -> threads.add(Thread.currentThread()));
+    }
+    // the five threads of the shared pool, and the calling thread helping while it waits
+    assertTrue(threads.size() <= 6);
+  }
+
+  @Test
+  public void testFailuresReachTheCaller() {
+    try {
+      new RowBands(2, 0).forEachRow(3, 50, row -> {
+        if (row == 37) {
+          throw new IllegalStateException("Image has been released");
+        }
+      });
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("Image has been released", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testInvalidArguments() {
+    try {
+      new RowBands(0, 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Parallelism must be positive", e.getMessage());
+    }
+    try {
+      new RowBands(2, -1);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Minimum image size cannot be negative", e.getMessage());
+    }
+  }
+}
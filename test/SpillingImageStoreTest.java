@@ -0,0 +1,158 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import model.ImageMemory;
+import model.FlippedRaster;
+import model.ImageRaster;
+import model.OffHeapRaster;
+import model.PackedRaster;
+import model.SpillStatistics;
+import model.SpillingImageStore;
+import model.StorageKind;
+import model.StorageLayout;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the methods in the SpillingImageStore class.
+ */
+public class SpillingImageStoreTest {
+
+  private SpillingImageStore store;
+
+  @Before
+  public void setUp() {
+    // room for two 2x2 packed images
+    this.store = new SpillingImageStore(32, StorageLayout.PACKED);
+  }
+
+  private ImageRaster makeImage(int rgb) {
+    ImageRaster image = new PackedRaster(2, 2);
+    image.transform(pixel -> rgb);
+    image.setRGB(1, 1, 0x010203);
+    return image;
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeBudget() {
+    new SpillingImageStore(-1, StorageLayout.PACKED);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullLayout() {
+    new SpillingImageStore(0, null);
+  }
+
+  @Test
+  public void testWithinBudget() {
+    this.store.put("a", this.makeImage(0xff0000));
+    this.store.put("b", this.makeImage(0x00ff00));
+    assertEquals(new SpillStatistics(0, 0, 0), this.store.getSpillStatistics());
+    assertEquals(0xff0000, this.store.get("a").getRGB(0, 0));
+    assertNull(this.store.get("c"));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsSpilledAndReloaded() {
+    this.store.put("a", this.makeImage(0xff0000));
+    this.store.put("b", this.makeImage(0x00ff00));
+    this.store.get("a");
+    this.store.put("c", this.makeImage(0x0000ff));
+    assertEquals(new SpillStatistics(1, 0, 1), this.store.getSpillStatistics());
+
+    ImageRaster b = this.store.get("b");
+    assertEquals(new SpillStatistics(2, 1, 2), this.store.getSpillStatistics());
+    assertEquals(0x00ff00, b.getRGB(0, 1));
+    assertEquals(0x010203, b.getRGB(1, 1));
+    assertEquals(2, b.getWidth());
+    assertEquals(2, b.getHeight());
+
+    this.store.get("a");
+    assertEquals(new SpillStatistics(3, 2, 3), this.store.getSpillStatistics());
+    // a has not changed since it was reloaded, so it is not written to disk again
+    assertEquals(0x0000ff, this.store.get("c").getRGB(1, 0));
+    assertEquals(new SpillStatistics(3, 3, 4), this.store.getSpillStatistics());
+  }
+
+  @Test
+  public void testReplacingSpilledImage() {
+    this.store.put("a", this.makeImage(0xff0000));
+    this.store.put("b", this.makeImage(0x00ff00));
+    this.store.put("c", this.makeImage(0x0000ff));
+    this.store.put("a", this.makeImage(0xffffff));
+    assertEquals(0xffffff, this.store.get("a").getRGB(0, 0));
+    assertEquals(new SpillStatistics(2, 0, 2), this.store.getSpillStatistics());
+  }
+
+  @Test
+  public void testPeekDoesNotReloadOrUse() {
+    this.store.put("a", this.makeImage(0xff0000));
+    this.store.put("b", this.makeImage(0x00ff00));
+    this.store.put("c", this.makeImage(0x0000ff));
+    assertNull(this.store.peek("a"));
+    assertEquals(0x00ff00, this.store.peek("b").getRGB(0, 0));
+    assertNull(this.store.peek("d"));
+    assertEquals(new SpillStatistics(1, 0, 1), this.store.getSpillStatistics());
+    // b was only peeked at, so it is still the least recently used image in memory
+    this.store.put("d", this.makeImage(0xffffff));
+    assertEquals(StorageKind.SPILLED, this.store.getMemoryUsage().get("b").getKind());
+    assertEquals(StorageKind.FULL, this.store.getMemoryUsage().get("c").getKind());
+  }
+
+  @Test
+  public void testImageLargerThanBudgetStaysInMemory() {
+    this.store.put("big", new PackedRaster(10, 10));
+    assertEquals(new SpillStatistics(0, 0, 0), this.store.getSpillStatistics());
+    assertEquals(0, this.store.get("big").getRGB(9, 9));
+  }
+
+  @Test
+  public void testEvictedOffHeapImageIsReleased() {
+    SpillingImageStore offHeap = new SpillingImageStore(16, StorageLayout.OFF_HEAP);
+    ImageRaster first = new OffHeapRaster(2, 2);
+    first.setRGB(0, 0, 0x123456);
+    offHeap.put("a", first);
+    offHeap.put("b", new OffHeapRaster(2, 2));
+    assertEquals(0, first.getByteSize());
+    assertEquals(0x123456, offHeap.get("a").getRGB(0, 0));
+  }
+
+  @Test
+  public void testMemoryUsageAndRemove() {
+    this.store.put("a", this.makeImage(0xff0000));
+    this.store.put("b", this.makeImage(0x00ff00));
+    this.store.put("c", this.makeImage(0x0000ff));
+    assertEquals(new ImageMemory(0, StorageKind.SPILLED), this.store.getMemoryUsage().get("a"));
+    assertEquals(new ImageMemory(16, StorageKind.FULL), this.store.getMemoryUsage().get("c"));
+    assertEquals("[a, b, c]", this.store.getMemoryUsage().keySet().toString());
+    assertEquals(new SpillStatistics(1, 0, 1), this.store.getSpillStatistics());
+
+    assertTrue(this.store.remove("a"));
+    assertTrue(this.store.remove("b"));
+    assertFalse(this.store.remove("a"));
+    assertNull(this.store.get("a"));
+    assertEquals("[c]", this.store.getMemoryUsage().keySet().toString());
+  }
+
+  @Test
+  public void testViewOfEvictedImageCountsAgainstBudget() {
+    ImageRaster image = this.makeImage(0xff0000);
+    this.store.put("a", image);
+    this.store.put("flipped", FlippedRaster.flip(image, true));
+    this.store.put("b", this.makeImage(0x00ff00));
+    this.store.put("c", this.makeImage(0x0000ff));
+    // the view copies the pixels of the evicted image and is then evicted in turn
+    assertEquals(new ImageMemory(0, StorageKind.SPILLED), this.store.getMemoryUsage().get("a"));
+    assertEquals(new ImageMemory(0, StorageKind.SPILLED),
+        this.store.getMemoryUsage().get("flipped"));
+    long total = 0;
+    for (ImageMemory memory : this.store.getMemoryUsage().values()) {
+      total += memory.getBytes();
+    }
+    assertEquals(32, total);
+    assertEquals(0x010203, this.store.get("flipped").getRGB(0, 1));
+    assertEquals(0xff0000, this.store.get("flipped").getRGB(1, 1));
+  }
+}
@@ -0,0 +1,69 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import model.HistogramImageProcessor;
+import model.MappedImageStore;
+import model.ProcessorOptions;
+import model.SpillingImageStore;
+import model.StorageLayout;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Runs every model test against models that lay out the pixels of their images in each storage
+ * layout other than packed, that spill almost every image to disk, and that keep their images in
+ * memory-mapped files, to check that they give the same results as the packed layout.
+ */
+@RunWith(Parameterized.class)
+public class StorageImageProcessorTest extends HistogramImageProcessorTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Parameter(0)
+  public String name;
+
+  @Parameter(1)
+  public Function<Path, HistogramImageProcessor> processor;
+
+  /**
+   * Get the name of each model and how to create it in a given empty folder.
+   *
+   * @return the name and the function creating each model.
+   */
+  @Parameters(name = "{0}")
+  public static List<Object[]> processors() {
+    List<Object[]> processors = new ArrayList<>();
+    for (StorageLayout layout : StorageLayout.values()) {
+      if (layout != StorageLayout.PACKED) {
+        Function<Path, HistogramImageProcessor> processor = folder -> new HistogramImageProcessor(
+            ProcessorOptions.DEFAULT.withLayout(layout));
+        processors.add(new Object[] {layout.name().toLowerCase(), processor});
+      }
+    }
+    Function<Path, HistogramImageProcessor> spilling = folder -> new HistogramImageProcessor(
+        ProcessorOptions.DEFAULT, new SpillingImageStore(64, StorageLayout.PACKED));
+    processors.add(new Object[] {"spilling", spilling});
+    Function<Path, HistogramImageProcessor> mapped = folder -> new HistogramImageProcessor(
+        ProcessorOptions.DEFAULT, new MappedImageStore(folder));
+    processors.add(new Object[] {"mapped", mapped});
+    return processors;
+  }
+
+  @Override
+  protected HistogramImageProcessor createProcessor() {
+    try {
+      return this.processor.apply(this.folder.newFolder().toPath());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+import static org.junit.Assert.assertEquals;
+
+import model.ImageRaster;
+import model.TiledRaster;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * To test the methods in the TiledRaster class.
+ */
+public class TiledRasterTest {
+
+  private TiledRaster tiled;
+
+  @Before
+  public void setUp() {
+    this.tiled = new TiledRaster(300, 260);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSize() {
+    new TiledRaster(5, -1);
+  }
+
+  @Test
+  public void testTilesAreMaterializedOnWrite() {
+    assertEquals(300, this.tiled.getWidth());
+    assertEquals(260, this.tiled.getHeight());
+    assertEquals(0, this.tiled.getRGB(259, 299));
+    assertEquals(0, this.tiled.getMaterializedTileCount());
+    this.tiled.setRGB(0, 0, 0xff0110);
+    this.tiled.setRGB(259, 299, 0x414b6b);
+    assertEquals(2, this.tiled.getMaterializedTileCount());
+    assertEquals(0xff0110, this.tiled.getRGB(0, 0));
+    assertEquals(0x414b6b, this.tiled.getRGB(259, 299));
+    assertEquals(0, this.tiled.getRGB(255, 255));
+    assertEquals(0, this.tiled.getRGB(256, 256));
+  }
+
+  @Test
+  public void testTransformOnlyChangesFillOfEmptyTiles() {
+    this.tiled.setRGB(10, 10, 0x102030);
+    this.tiled.transform(rgb -> rgb + 0x010101);
+    assertEquals(1, this.tiled.getMaterializedTileCount());
+    assertEquals(0x112131, this.tiled.getRGB(10, 10));
+    assertEquals(0x010101, this.tiled.getRGB(11, 10));
+    assertEquals(0x010101, this.tiled.getRGB(259, 299));
+    this.tiled.setRGB(259, 299, 0x050505);
+    assertEquals(0x010101, this.tiled.getRGB(258, 299));
+    assertEquals(0x050505, this.tiled.getRGB(259, 299));
+  }
+
+  @Test
+  public void testCopySharesTilesUntilWritten() {
+    this.tiled.setRGB(0, 0, 0xff0110);
+    this.tiled.setRGB(0, 280, 0x040864);
+    ImageRaster copy = this.tiled.copy();
+    copy.setRGB(0, 0, 0x123456);
+    assertEquals(0x123456, copy.getRGB(0, 0));
+    assertEquals(0xff0110, this.tiled.getRGB(0, 0));
+    assertEquals(0x040864, copy.getRGB(0, 280));
+    this.tiled.setRGB(0, 280, 0);
+    assertEquals(0x040864, copy.getRGB(0, 280));
+    copy.transform(rgb -> 0xffffff);
+    assertEquals(0xffffff, copy.getRGB(0, 280));
+    assertEquals(0xff0110, this.tiled.getRGB(0, 0));
+    assertEquals(0, this.tiled.getRGB(0, 280));
+  }
+}